@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the time to convert a mixed-case ASCII identifier to upper case, using
+ * {@link String#toUpperCase(Locale)}, with the root locale, and each of the methods of {@link AsciiCase}. Results are
+ * per identifier.
+ * <p>
+ * The byte array methods write to a buffer which is reused, so don't allocate. Run with {@code -prof gc} to compare
+ * the memory allocated per conversion (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class AsciiCaseBenchmark {
+
+  @Param({"8", "32", "128"})
+  private int length;
+
+  private String identifier;
+  private byte[] identifierBytes;
+  private byte[] dst;
+  private CharBuffer charBuffer;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    final String chars = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789_";
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < this.length; i++)
+      builder.append(chars.charAt(random.nextInt(chars.length())));
+    this.identifier = builder.toString();
+    this.identifierBytes = this.identifier.getBytes(StandardCharsets.ISO_8859_1);
+    this.dst = new byte[this.length];
+    this.charBuffer = CharBuffer.allocate(this.length);
+  }
+
+  @Benchmark
+  public String jdk() {
+    return this.identifier.toUpperCase(Locale.ROOT);
+  }
+
+  @Benchmark
+  public byte[] asciiCaseBytes() {
+    AsciiCase.toUpperCase(this.identifierBytes, 0, this.dst, 0, this.length);
+    return this.dst;
+  }
+
+  @Benchmark
+  public byte[] asciiCaseBytesSwar() {
+    AsciiCase.convertSwar(this.identifierBytes, 0, this.dst, 0, this.length, 'a');
+    return this.dst;
+  }
+
+  @Benchmark
+  public CharBuffer asciiCaseCharBuffer() {
+    AsciiCase.toUpperCase(this.identifier, this.charBuffer.clear());
+    return this.charBuffer;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the time to evaluate a set of rules against objects of a mix of classes, using a
+ * {@link RulesEngine}, which only tests the rules whose type each object is an instance of, with a naive evaluator,
+ * which applies every rule to every object in turn. Results are per object.
+ * <p>
+ * The rules are spread evenly across ten classes, so each object is a candidate for a tenth of the rules. Each rule's
+ * guard compares an int property of the object with a threshold, so about half of the candidate rules fire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RulesEngineBenchmark {
+
+  private static final int OBJECT_COUNT = 1024;
+
+  @Param({"100", "1000"})
+  private int ruleCount;
+
+  private List<Rule<?>> rules;
+  private RulesEngine<Object> engine;
+  private Object[] objects;
+  private long fired;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    this.rules = new ArrayList<>();
+    for (int i = 0; i < this.ruleCount; i++) {
+      final int threshold = random.nextInt(100);
+      this.rules.add(switch (i % 10) {
+        case 0 -> rule(i, String.class, String::length, threshold);
+        case 1 -> rule(i, Integer.class, Integer::intValue, threshold);
+        case 2 -> rule(i, Long.class, Long::intValue, threshold);
+        case 3 -> rule(i, Double.class, Double::intValue, threshold);
+        case 4 -> rule(i, BigDecimal.class, BigDecimal::intValue, threshold);
+        case 5 -> rule(i, BigInteger.class, BigInteger::intValue, threshold);
+        case 6 -> rule(i, LocalDate.class, date -> date.getDayOfYear() % 100, threshold);
+        case 7 -> rule(i, UUID.class, uuid -> (int) (uuid.getLeastSignificantBits() & 0x7F) % 100, threshold);
+        case 8 -> rule(i, Character.class, c -> c % 100, threshold);
+        default -> rule(i, StringBuilder.class, StringBuilder::length, threshold);
+      });
+    }
+    final RulesEngine.Builder<Object> builder = RulesEngine.builder();
+    this.rules.forEach(builder::rule);
+    this.engine = builder.build();
+
+    this.objects = new Object[OBJECT_COUNT];
+    for (int i = 0; i < OBJECT_COUNT; i++) {
+      final int value = random.nextInt(100);
+      this.objects[i] = switch (random.nextInt(10)) {
+        case 0 -> "x".repeat(value);
+        case 1 -> value;
+        case 2 -> (long) value;
+        case 3 -> (double) value;
+        case 4 -> BigDecimal.valueOf(value);
+        case 5 -> BigInteger.valueOf(value);
+        case 6 -> LocalDate.ofYearDay(2021, value + 1);
+        case 7 -> new UUID(random.nextLong(), random.nextLong());
+        case 8 -> (char) value;
+        default -> new StringBuilder("y".repeat(value));
+      };
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OBJECT_COUNT)
+  public long indexed() {
+    long fired = 0;
+    for (Object obj : this.objects)
+      fired += this.engine.evaluate(obj);
+    return fired;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OBJECT_COUNT)
+  public long sequential() {
+    long fired = 0;
+    for (Object obj : this.objects) {
+      for (Rule<?> rule : this.rules) {
+        if (rule.fire(obj))
+          fired++;
+      }
+    }
+    return fired;
+  }
+
+  private <S> Rule<S> rule(int index, Class<S> type, ToIntFunction<S> property, int threshold) {
+    return new Rule<>("rule " + index, type, obj -> property.applyAsInt(obj) > threshold, obj -> this.fired++);
+  }
+}
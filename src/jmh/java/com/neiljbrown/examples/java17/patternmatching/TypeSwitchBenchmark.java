@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the time to classify objects of 24 (final) classes, in random order, using a chain of
+ * instanceof tests, a {@link TypeSwitch}, and a {@link HashMap} keyed by class. Results are per object.
+ * <p>
+ * The cost of the instanceof chain grows with the position of the matching case, whereas a type switch costs the same
+ * for every case. The objects are either of random classes, so, on average, an object is tested against half the
+ * cases, or all of the class of the last case (the worst case for the chain).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class TypeSwitchBenchmark {
+
+  private static final int OBJECT_COUNT = 1024;
+
+  private static final List<Class<?>> TYPES = List.of(String.class, Integer.class, Long.class, Double.class,
+    Float.class, Short.class, Byte.class, Character.class, Boolean.class, BigDecimal.class, BigInteger.class,
+    LocalDate.class, LocalTime.class, LocalDateTime.class, Instant.class, Duration.class, UUID.class, URI.class,
+    int[].class, long[].class, byte[].class, char[].class, double[].class, Object[].class);
+
+  private static final TypeSwitch TYPE_SWITCH = TypeSwitch.of(TYPES.toArray(Class<?>[]::new));
+
+  @Param({"random", "lastCase"})
+  private String classes;
+
+  private final Map<Class<?>, Integer> indexesByClass = new HashMap<>();
+  private Object[] objects;
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < TYPES.size(); i++)
+      this.indexesByClass.put(TYPES.get(i), i);
+    final List<Supplier<Object>> factories = new ArrayList<>(List.of(() -> "s", () -> 1, () -> 1L, () -> 1.0,
+      () -> 1.0f, () -> (short) 1, () -> (byte) 1, () -> 'c', () -> true, () -> BigDecimal.ONE, () -> BigInteger.ONE,
+      LocalDate::now, LocalTime::now, LocalDateTime::now, Instant::now, () -> Duration.ZERO, UUID::randomUUID,
+      () -> URI.create("http://example.com"), () -> new int[1], () -> new long[1], () -> new byte[1],
+      () -> new char[1], () -> new double[1], () -> new Object[1]));
+    final Random random = new Random(42);
+    this.objects = new Object[OBJECT_COUNT];
+    for (int i = 0; i < OBJECT_COUNT; i++)
+      this.objects[i] = factories.get(
+        this.classes.equals("lastCase") ? factories.size() - 1 : random.nextInt(factories.size())).get();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OBJECT_COUNT)
+  public int instanceOfChain() {
+    int sum = 0;
+    for (Object obj : this.objects)
+      sum += classifyUsingInstanceOf(obj);
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OBJECT_COUNT)
+  public int typeSwitch() {
+    int sum = 0;
+    for (Object obj : this.objects)
+      sum += TYPE_SWITCH.classify(obj);
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(OBJECT_COUNT)
+  public int hashMap() {
+    int sum = 0;
+    for (Object obj : this.objects)
+      sum += this.indexesByClass.getOrDefault(obj.getClass(), TYPES.size());
+    return sum;
+  }
+
+  private static int classifyUsingInstanceOf(Object obj) {
+    if (obj instanceof String) return 0;
+    if (obj instanceof Integer) return 1;
+    if (obj instanceof Long) return 2;
+    if (obj instanceof Double) return 3;
+    if (obj instanceof Float) return 4;
+    if (obj instanceof Short) return 5;
+    if (obj instanceof Byte) return 6;
+    if (obj instanceof Character) return 7;
+    if (obj instanceof Boolean) return 8;
+    if (obj instanceof BigDecimal) return 9;
+    if (obj instanceof BigInteger) return 10;
+    if (obj instanceof LocalDate) return 11;
+    if (obj instanceof LocalTime) return 12;
+    if (obj instanceof LocalDateTime) return 13;
+    if (obj instanceof Instant) return 14;
+    if (obj instanceof Duration) return 15;
+    if (obj instanceof UUID) return 16;
+    if (obj instanceof URI) return 17;
+    if (obj instanceof int[]) return 18;
+    if (obj instanceof long[]) return 19;
+    if (obj instanceof byte[]) return 20;
+    if (obj instanceof char[]) return 21;
+    if (obj instanceof double[]) return 22;
+    if (obj instanceof Object[]) return 23;
+    return 24;
+  }
+}
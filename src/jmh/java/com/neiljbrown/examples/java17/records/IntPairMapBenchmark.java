@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the latency of looking up a value by a two-int composite key in an {@link IntPairMap}, with
+ * a {@link HashMap} keyed by a Record, equivalent to {@code RangeV2} in
+ * {@link RecordsExamplesTest#test_declarationAndGeneratedMembers()}.
+ * <p>
+ * The heap used by each map is reported on setup. (It's measured approximately, as the difference in used heap after
+ * a GC, before and after creating the map).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class IntPairMapBenchmark {
+
+  private static final int QUERY_COUNT = 1 << 16;
+
+  record RangeV2(int min, int max) {}
+
+  @Param({"100000", "10000000"})
+  private int entryCount;
+
+  private IntPairMap<Integer> intPairMap;
+  private Map<RangeV2, Integer> hashMap;
+  private int[] queryMins;
+  private int[] queryMaxs;
+  private int nextQuery;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    final int[] mins = random.ints(this.entryCount, 0, Integer.MAX_VALUE / 2).toArray();
+    final int[] maxs = new int[this.entryCount];
+    for (int i = 0; i < this.entryCount; i++)
+      maxs[i] = mins[i] + random.nextInt(1000);
+    final Integer value = 1;
+
+    long before = usedHeap();
+    this.intPairMap = new IntPairMap<>();
+    for (int i = 0; i < this.entryCount; i++)
+      this.intPairMap.put(mins[i], maxs[i], value);
+    System.out.printf("%nIntPairMap heap: %,d bytes%n", usedHeap() - before);
+
+    before = usedHeap();
+    this.hashMap = new HashMap<>();
+    for (int i = 0; i < this.entryCount; i++)
+      this.hashMap.put(new RangeV2(mins[i], maxs[i]), value);
+    System.out.printf("HashMap heap: %,d bytes%n", usedHeap() - before);
+
+    this.queryMins = new int[QUERY_COUNT];
+    this.queryMaxs = new int[QUERY_COUNT];
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      final int entry = random.nextInt(this.entryCount);
+      this.queryMins[i] = mins[entry];
+      this.queryMaxs[i] = maxs[entry];
+    }
+  }
+
+  @Benchmark
+  public Integer intPairMap_get() {
+    final int query = this.nextQuery++ & (QUERY_COUNT - 1);
+    return this.intPairMap.get(this.queryMins[query], this.queryMaxs[query]);
+  }
+
+  @Benchmark
+  public Integer hashMap_get() {
+    final int query = this.nextQuery++ & (QUERY_COUNT - 1);
+    return this.hashMap.get(new RangeV2(this.queryMins[query], this.queryMaxs[query]));
+  }
+
+  private static long usedHeap() {
+    System.gc();
+    final Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the time to accumulate the items of a sequence of {@link PagedResult} pages into a single
+ * result using {@link PagedResult#concat(PagedResult)}, with building a new list of all the items so far for each
+ * page, which {@link PagedResult}'s constructor then copies.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class PagedResultConcatBenchmark {
+
+  @Param({"100", "1000"})
+  private int pageCount;
+
+  @Param({"100"})
+  private int pageSize;
+
+  private List<PagedResult> pages;
+
+  @Setup
+  public void setUp() {
+    this.pages = new ArrayList<>(this.pageCount);
+    for (int page = 0; page < this.pageCount; page++) {
+      final List<String> items = IntStream.range(0, this.pageSize).mapToObj(i -> "item" + i)
+        .collect(Collectors.toList());
+      this.pages.add(new PagedResult(items, page < this.pageCount - 1));
+    }
+  }
+
+  @Benchmark
+  public PagedResult concat() {
+    PagedResult result = this.pages.get(0);
+    for (int i = 1; i < this.pages.size(); i++)
+      result = result.concat(this.pages.get(i));
+    return result;
+  }
+
+  @Benchmark
+  public PagedResult copy() {
+    PagedResult result = this.pages.get(0);
+    for (int i = 1; i < this.pages.size(); i++) {
+      final PagedResult page = this.pages.get(i);
+      final List<String> items = new ArrayList<>(result.items().size() + page.items().size());
+      items.addAll(result.items());
+      items.addAll(page.items());
+      result = new PagedResult(items, page.moreItems());
+    }
+    return result;
+  }
+}
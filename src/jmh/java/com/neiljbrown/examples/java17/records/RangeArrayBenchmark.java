@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing a full pass over the ranges held in an off-heap {@link RangeArray}, using its bulk iteration
+ * and its flyweight view, with a pass over the equivalent {@code List<Range>} on the heap. Run with {@code -prof gc} to
+ * compare the GC cost of holding the two.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RangeArrayBenchmark {
+
+  @Param({"1000000"})
+  private int rangeCount;
+
+  private RangeArray array;
+  private List<Range> list;
+
+  @Setup
+  public void setUp() {
+    this.array = new RangeArray(this.rangeCount);
+    this.list = new ArrayList<>(this.rangeCount);
+    for (int i = 0; i < this.rangeCount; i++) {
+      this.array.add(i, i + (i & 0xFF));
+      this.list.add(new Range(i, i + (i & 0xFF)));
+    }
+  }
+
+  @Benchmark
+  public long array_forEach() {
+    final long[] total = new long[1];
+    this.array.forEach((min, max) -> total[0] += max - min);
+    return total[0];
+  }
+
+  @Benchmark
+  public long array_view() {
+    final RangeArray.View view = this.array.newView();
+    long total = 0;
+    for (int i = 0; i < this.array.size(); i++) {
+      view.moveTo(i);
+      total += view.max() - view.min();
+    }
+    return total;
+  }
+
+  @Benchmark
+  public long list_forEach() {
+    long total = 0;
+    for (Range range : this.list)
+      total += range.max() - range.min();
+    return total;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark comparing validating a batch of ranges using {@link RangeBulkValidator}, both vectorised and scalar,
+ * with constructing a {@link Range} for each, one at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class RangeBulkValidatorBenchmark {
+
+  @Param({"1000000"})
+  private int rangeCount;
+
+  private int[] mins;
+  private int[] maxs;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    this.mins = new int[this.rangeCount];
+    this.maxs = new int[this.rangeCount];
+    for (int i = 0; i < this.rangeCount; i++) {
+      this.mins[i] = random.nextInt(1000);
+      this.maxs[i] = this.mins[i] + random.nextInt(1000);
+      // 1% invalid
+      if (random.nextInt(100) == 0)
+        this.mins[i] = -1;
+    }
+  }
+
+  @Benchmark
+  public long[] bulk_vectorised() {
+    return RangeBulkValidator.findInvalid(this.mins, this.maxs);
+  }
+
+  @Benchmark
+  public long[] bulk_scalar() {
+    return RangeBulkValidator.findInvalidScalar(this.mins, this.maxs);
+  }
+
+  @Benchmark
+  public int constructor(Blackhole blackhole) {
+    int invalid = 0;
+    for (int i = 0; i < this.rangeCount; i++) {
+      try {
+        blackhole.consume(new Range(this.mins[i], this.maxs[i]));
+      } catch (IllegalArgumentException e) {
+        invalid++;
+      }
+    }
+    return invalid;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark comparing the latency of a stabbing query ("which ranges contain x") using a
+ * {@link RangeIntervalIndex}, with a linear scan of a {@code List<Range>}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RangeIntervalIndexBenchmark {
+
+  private static final int QUERY_COUNT = 1024;
+
+  @Param({"10000", "1000000"})
+  private int rangeCount;
+
+  private List<Range> ranges;
+  private RangeIntervalIndex index;
+  private int[] queries;
+  private int nextQuery;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    final int domain = this.rangeCount * 10;
+    this.ranges = new ArrayList<>(this.rangeCount);
+    for (int i = 0; i < this.rangeCount; i++) {
+      final int min = random.nextInt(domain);
+      this.ranges.add(new Range(min, min + random.nextInt(100)));
+    }
+    this.index = RangeIntervalIndex.of(this.ranges);
+    this.queries = random.ints(QUERY_COUNT, 0, domain).toArray();
+  }
+
+  @Benchmark
+  public void index_forEachContaining(Blackhole blackhole) {
+    this.index.forEachContaining(nextQuery(), blackhole::consume);
+  }
+
+  @Benchmark
+  public void list_linearScan(Blackhole blackhole) {
+    final int value = nextQuery();
+    for (int id = 0; id < this.ranges.size(); id++) {
+      if (this.ranges.get(id).contains(value))
+        blackhole.consume(id);
+    }
+  }
+
+  private int nextQuery() {
+    return this.queries[this.nextQuery++ & (QUERY_COUNT - 1)];
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark comparing the cost of validating a batch of range components, a given percentage of which are
+ * invalid, using the throwing {@link Range} constructor, with the non-throwing {@link Range#validate(int, int)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RangeValidationBenchmark {
+
+  private static final int BATCH_SIZE = 1000;
+
+  @Param({"1", "10", "50"})
+  private int invalidPercent;
+
+  private int[] mins;
+  private int[] maxs;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    this.mins = new int[BATCH_SIZE];
+    this.maxs = new int[BATCH_SIZE];
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      this.mins[i] = random.nextInt(1000);
+      this.maxs[i] = this.mins[i] + random.nextInt(1000);
+      if (random.nextInt(100) < this.invalidPercent)
+        this.mins[i] = -this.mins[i] - 1;
+    }
+  }
+
+  @Benchmark
+  public int constructor(Blackhole blackhole) {
+    int invalid = 0;
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      try {
+        blackhole.consume(new Range(this.mins[i], this.maxs[i]));
+      } catch (IllegalArgumentException e) {
+        invalid++;
+      }
+    }
+    return invalid;
+  }
+
+  @Benchmark
+  public int validate(Blackhole blackhole) {
+    int invalid = 0;
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      final RangeValidation result = Range.validate(this.mins[i], this.maxs[i]);
+      if (result instanceof RangeValidation.Valid valid)
+        blackhole.consume(valid.range());
+      else
+        invalid++;
+    }
+    return invalid;
+  }
+}
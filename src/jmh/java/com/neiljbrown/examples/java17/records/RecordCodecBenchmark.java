@@ -0,0 +1,112 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the throughput of round-tripping (encoding then decoding) records using {@link RecordCodec}
+ * with Java serialization ({@link ObjectOutputStream} and {@link ObjectInputStream}).
+ * <p>
+ * Java serialization requires the records to implement {@link Serializable}, so the benchmark uses serializable
+ * equivalents of {@link Range} and {@link PagedResult}. Both approaches encode the same record instances.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RecordCodecBenchmark {
+
+  record SerializableRange(int min, int max) implements Serializable {}
+
+  record SerializablePagedResult(List<String> items, boolean moreItems) implements Serializable {
+    SerializablePagedResult {
+      items = List.copyOf(items);
+    }
+  }
+
+  private SerializableRange range;
+  private SerializablePagedResult pagedResult;
+  private ByteBuffer buffer;
+  private RecordCodec<SerializableRange> rangeCodec;
+  private RecordCodec<SerializablePagedResult> pagedResultCodec;
+
+  @Setup
+  public void setUp() {
+    this.range = new SerializableRange(10, 2000);
+    this.pagedResult = new SerializablePagedResult(List.of("alfa", "bravo", "charlie", "delta", "echo"), true);
+    this.buffer = ByteBuffer.allocate(4096);
+    this.rangeCodec = RecordCodec.of(SerializableRange.class);
+    this.pagedResultCodec = RecordCodec.of(SerializablePagedResult.class);
+  }
+
+  @Benchmark
+  public SerializableRange range_recordCodec() {
+    this.buffer.clear();
+    this.rangeCodec.encode(this.range, this.buffer);
+    this.buffer.flip();
+    return this.rangeCodec.decode(this.buffer);
+  }
+
+  @Benchmark
+  public Object range_objectStream() throws IOException, ClassNotFoundException {
+    return roundTrip(this.range);
+  }
+
+  @Benchmark
+  public SerializablePagedResult pagedResult_recordCodec() {
+    this.buffer.clear();
+    this.pagedResultCodec.encode(this.pagedResult, this.buffer);
+    this.buffer.flip();
+    return this.pagedResultCodec.decode(this.buffer);
+  }
+
+  @Benchmark
+  public Object pagedResult_objectStream() throws IOException, ClassNotFoundException {
+    return roundTrip(this.pagedResult);
+  }
+
+  private static Object roundTrip(Object object) throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(object);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      return in.readObject();
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the steady-state (warmed) throughput of the Object methods (equals, hashCode and toString)
+ * of a hand-written value class with those generated for an equivalent Record.
+ * <p>
+ * The compiler does not generate the bytecode of a Record's equals, hashCode and toString methods. Instead each method
+ * comprises an invokedynamic instruction, bootstrapped on first call by {@link java.lang.runtime.ObjectMethods}. This
+ * benchmark shows whether, once bootstrapped and JIT compiled, that costs anything compared to hand-written code.
+ * For the one-off cost of the bootstrap itself see {@link RecordObjectMethodsColdStartBenchmark}.
+ * <p>
+ * The benchmarked types, {@link RangeV1} and {@link RangeV2}, replicate those declared in
+ * {@link RecordsExamplesTest#test_declarationAndGeneratedMembers()}. To also report the allocation rate of each
+ * method, run the benchmark with the GC profiler, e.g. {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class RecordObjectMethodsBenchmark {
+
+  /** Hand-written value class, as declared prior to JDK 16. */
+  static final class RangeV1 {
+    private final int min;
+    private final int max;
+
+    RangeV1(int min, int max) {
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      RangeV1 otherRange = (RangeV1) o;
+      return this.min == otherRange.min && this.max == otherRange.max;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.min, this.max);
+    }
+
+    @Override
+    public String toString() {
+      return "Range[min=" + this.min + ", max=" + this.max + "]";
+    }
+  }
+
+  /** Equivalent Record, whose Object methods are generated. */
+  record RangeV2(int min, int max) {}
+
+  private RangeV1 classRange;
+  private RangeV1 equalClassRange;
+  private RangeV1 otherClassRange;
+  private RangeV2 recordRange;
+  private RangeV2 equalRecordRange;
+  private RangeV2 otherRecordRange;
+
+  @Setup
+  public void setUp() {
+    this.classRange = new RangeV1(1, 2);
+    this.equalClassRange = new RangeV1(1, 2);
+    this.otherClassRange = new RangeV1(1, 3);
+    this.recordRange = new RangeV2(1, 2);
+    this.equalRecordRange = new RangeV2(1, 2);
+    this.otherRecordRange = new RangeV2(1, 3);
+  }
+
+  @Benchmark
+  public boolean class_equals_equal() {
+    return this.classRange.equals(this.equalClassRange);
+  }
+
+  @Benchmark
+  public boolean record_equals_equal() {
+    return this.recordRange.equals(this.equalRecordRange);
+  }
+
+  @Benchmark
+  public boolean class_equals_notEqual() {
+    return this.classRange.equals(this.otherClassRange);
+  }
+
+  @Benchmark
+  public boolean record_equals_notEqual() {
+    return this.recordRange.equals(this.otherRecordRange);
+  }
+
+  @Benchmark
+  public int class_hashCode() {
+    return this.classRange.hashCode();
+  }
+
+  @Benchmark
+  public int record_hashCode() {
+    return this.recordRange.hashCode();
+  }
+
+  @Benchmark
+  public String class_toString() {
+    return this.classRange.toString();
+  }
+
+  @Benchmark
+  public String record_toString() {
+    return this.recordRange.toString();
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.concurrent.TimeUnit;
+
+import com.neiljbrown.examples.java17.records.RecordObjectMethodsBenchmark.RangeV1;
+import com.neiljbrown.examples.java17.records.RecordObjectMethodsBenchmark.RangeV2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark measuring the cost of the first (cold) call of the Object methods of a hand-written value class and
+ * an equivalent Record, in a freshly started JVM.
+ * <p>
+ * A Record's first call to each of equals, hashCode and toString includes the one-off cost of bootstrapping the
+ * invokedynamic call site using {@link java.lang.runtime.ObjectMethods}. Each benchmark is therefore run as a single
+ * invocation in each of many forks, so that every measurement is a first call. The instances are created (and their
+ * classes loaded) in the setup, so the cost of class loading is excluded.
+ * <p>
+ * Note that the hand-written toString method is also bootstrapped on first call, as javac (since JDK 9) compiles
+ * String concatenation to an invokedynamic call site. The comparison of toString is therefore between two bootstraps.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(30)
+@State(Scope.Thread)
+public class RecordObjectMethodsColdStartBenchmark {
+
+  private RangeV1 classRange;
+  private RangeV1 equalClassRange;
+  private RangeV2 recordRange;
+  private RangeV2 equalRecordRange;
+
+  @Setup
+  public void setUp() {
+    this.classRange = new RangeV1(1, 2);
+    this.equalClassRange = new RangeV1(1, 2);
+    this.recordRange = new RangeV2(1, 2);
+    this.equalRecordRange = new RangeV2(1, 2);
+  }
+
+  @Benchmark
+  public boolean class_equals() {
+    return this.classRange.equals(this.equalClassRange);
+  }
+
+  @Benchmark
+  public boolean record_equals() {
+    return this.recordRange.equals(this.equalRecordRange);
+  }
+
+  @Benchmark
+  public int class_hashCode() {
+    return this.classRange.hashCode();
+  }
+
+  @Benchmark
+  public int record_hashCode() {
+    return this.recordRange.hashCode();
+  }
+
+  @Benchmark
+  public String class_toString() {
+    return this.classRange.toString();
+  }
+
+  @Benchmark
+  public String record_toString() {
+    return this.recordRange.toString();
+  }
+}
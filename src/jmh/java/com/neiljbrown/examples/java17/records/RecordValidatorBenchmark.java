@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.RecordComponent;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the cost of validating a Record whose components are annotated with {@link Positive} using
+ * the cached {@link RecordValidator}, with hand-written checks, and with looking up the annotations using reflection
+ * on every validation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class RecordValidatorBenchmark {
+
+  record Range(@Positive(message = "min must be greater than zero.") int min,
+               @Positive(message = "max must be greater than zero.") int max) { }
+
+  private Range range;
+
+  @Setup
+  public void setUp() {
+    this.range = new Range(1, 2);
+  }
+
+  @Benchmark
+  public String handWritten() {
+    if (this.range.min() <= 0)
+      return "min must be greater than zero.";
+    if (this.range.max() <= 0)
+      return "max must be greater than zero.";
+    return null;
+  }
+
+  @Benchmark
+  public String recordValidator() {
+    return RecordValidator.findViolation(this.range);
+  }
+
+  @Benchmark
+  public String reflection() throws Exception {
+    for (RecordComponent component : this.range.getClass().getRecordComponents()) {
+      for (Annotation annotation : component.getAccessor().getDeclaredAnnotations()) {
+        if (annotation instanceof Positive positive && ((int) component.getAccessor().invoke(this.range)) <= 0)
+          return positive.message();
+      }
+    }
+    return null;
+  }
+}
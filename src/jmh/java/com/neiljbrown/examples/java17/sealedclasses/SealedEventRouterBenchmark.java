@@ -0,0 +1,224 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the routing of events of a sealed hierarchy from a producer to consumers of each type of
+ * event, via a {@link SealedEventRouter}, with handing them to a consumer thread via a {@link BlockingQueue}, which
+ * routes them using a chain of instanceof tests.
+ * <p>
+ * The throughput benchmark publishes a batch of events of random types, and waits for all of them to be handled, so
+ * its result is the average time per event. The latency benchmark publishes a single event, and waits for it to be
+ * handled, and is run in sample mode, so JMH reports a histogram (percentiles) of the round-trip time.
+ * <p>
+ * The router runs a consumer thread for each of the three types of event, whereas the queues have a single consumer
+ * thread, so results depend heavily on the number of CPUs available. Waiting threads yield, rather than spin, so that
+ * the benchmark also makes progress on a machine with fewer CPUs than threads.
+ */
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SealedEventRouterBenchmark {
+
+  private static final int BATCH_SIZE = 1024;
+
+  @Param({"sealedEventRouter", "arrayBlockingQueue", "linkedTransferQueue"})
+  private String transport;
+
+  private final Event[] batch = new Event[BATCH_SIZE];
+  private Transport events;
+  private long published;
+
+  @Setup
+  public void setUp() {
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      // A fixed pattern, rather than random, so that the types are evenly mixed, but not predictable in a short cycle
+      this.batch[i] = switch ((i * 7 + i / 3) % 3) {
+        case 0 -> new OrderPlaced(i);
+        case 1 -> new OrderCancelled(i);
+        default -> new OrderShipped(i);
+      };
+    }
+    this.events = switch (this.transport) {
+      case "sealedEventRouter" -> new RouterTransport();
+      case "arrayBlockingQueue" -> new QueueTransport(new ArrayBlockingQueue<>(SealedEventRouter.DEFAULT_BUFFER_SIZE));
+      case "linkedTransferQueue" -> new QueueTransport(new LinkedTransferQueue<>());
+      default -> throw new IllegalArgumentException("Unknown transport [" + this.transport + "].");
+    };
+    this.published = 0;
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.events.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @OperationsPerInvocation(BATCH_SIZE)
+  public void throughput() {
+    for (Event event : this.batch)
+      this.events.publish(event);
+    this.published += BATCH_SIZE;
+    awaitHandled();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public void latency() {
+    this.events.publish(this.batch[(int) (this.published & (BATCH_SIZE - 1))]);
+    this.published++;
+    awaitHandled();
+  }
+
+  private void awaitHandled() {
+    while (this.events.handled() < this.published)
+      Thread.yield();
+  }
+
+  sealed interface Event permits OrderPlaced, OrderCancelled, OrderShipped {
+  }
+
+  record OrderPlaced(long orderId) implements Event {
+  }
+
+  record OrderCancelled(long orderId) implements Event {
+  }
+
+  record OrderShipped(long orderId) implements Event {
+  }
+
+  private interface Transport {
+    void publish(Event event);
+
+    long handled();
+
+    void close();
+  }
+
+  /** Routes events to a consumer per type of event. */
+  private static final class RouterTransport implements Transport {
+
+    private final AtomicLong placed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong shipped = new AtomicLong();
+    private final SealedEventRouter<Event> router = SealedEventRouter.builder(Event.class)
+      .on(OrderPlaced.class, event -> this.placed.lazySet(this.placed.get() + 1))
+      .on(OrderCancelled.class, event -> this.cancelled.lazySet(this.cancelled.get() + 1))
+      .on(OrderShipped.class, event -> this.shipped.lazySet(this.shipped.get() + 1))
+      .build();
+
+    @Override
+    public void publish(Event event) {
+      this.router.publish(event);
+    }
+
+    @Override
+    public long handled() {
+      return this.placed.get() + this.cancelled.get() + this.shipped.get();
+    }
+
+    @Override
+    public void close() {
+      this.router.close();
+    }
+  }
+
+  /** Hands events to a single consumer thread, which routes them to a handler per type using instanceof. */
+  private static final class QueueTransport implements Transport {
+
+    // An event which isn't of a routed type, used to stop the consumer thread
+    private static final Event STOP = new OrderPlaced(-1);
+
+    private final BlockingQueue<Event> queue;
+    private final AtomicLong placed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong shipped = new AtomicLong();
+    private final Thread consumer;
+
+    private QueueTransport(BlockingQueue<Event> queue) {
+      this.queue = queue;
+      this.consumer = new Thread(this::consume);
+      this.consumer.start();
+    }
+
+    @Override
+    public void publish(Event event) {
+      try {
+        this.queue.put(event);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public long handled() {
+      return this.placed.get() + this.cancelled.get() + this.shipped.get();
+    }
+
+    @Override
+    public void close() {
+      publish(STOP);
+      try {
+        this.consumer.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    private void consume() {
+      try {
+        while (true) {
+          final Event event = this.queue.take();
+          if (event == STOP)
+            return;
+          if (event instanceof OrderPlaced)
+            this.placed.lazySet(this.placed.get() + 1);
+          else if (event instanceof OrderCancelled)
+            this.cancelled.lazySet(this.cancelled.get() + 1);
+          else if (event instanceof OrderShipped)
+            this.shipped.lazySet(this.shipped.get() + 1);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.expr;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Add;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.And;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Cmp;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Const;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Div;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.If;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Mul;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Sub;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Var;
+
+/**
+ * JMH benchmark comparing the time to evaluate the same expression, of the kind found in a rule or pricing formula,
+ * when it's hand-written in Java, interpreted by {@link ExprInterpreter}, and compiled by {@link ExprCompiler}.
+ * Results are per evaluation.
+ * <p>
+ * The compiled expression is benchmarked both when held in a static final field, which the JIT compiler treats as a
+ * constant, so can inline the method handle, and when held in an instance field, which it can't.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ExprBenchmark {
+
+  private static final int VARIABLE_SET_COUNT = 1024;
+
+  // if (x > y && z != 0) then x * y + z / 3 else x - y * 2
+  private static final Expr EXPR = new If(
+    new And(new Cmp(Cmp.Op.GT, new Var(0), new Var(1)), new Cmp(Cmp.Op.NE, new Var(2), new Const(0))),
+    new Add(new Mul(new Var(0), new Var(1)), new Div(new Var(2), new Const(3))),
+    new Sub(new Var(0), new Mul(new Var(1), new Const(2))));
+
+  private static final CompiledExpr STATIC_COMPILED = ExprCompiler.compile(EXPR);
+
+  private final CompiledExpr instanceCompiled = ExprCompiler.compile(EXPR);
+  private long[][] variableSets;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    this.variableSets = new long[VARIABLE_SET_COUNT][];
+    for (int i = 0; i < VARIABLE_SET_COUNT; i++)
+      this.variableSets[i] = random.longs(3, -100, 100).toArray();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VARIABLE_SET_COUNT)
+  public long handWritten() {
+    long sum = 0;
+    for (long[] variables : this.variableSets) {
+      final long x = variables[0];
+      final long y = variables[1];
+      final long z = variables[2];
+      sum += x > y && z != 0 ? x * y + z / 3 : x - y * 2;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VARIABLE_SET_COUNT)
+  public long interpreted() {
+    long sum = 0;
+    for (long[] variables : this.variableSets)
+      sum += ExprInterpreter.evaluate(EXPR, variables);
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VARIABLE_SET_COUNT)
+  public long compiledStaticFinal() {
+    long sum = 0;
+    for (long[] variables : this.variableSets)
+      sum += STATIC_COMPILED.evaluate(variables);
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(VARIABLE_SET_COUNT)
+  public long compiledInstanceField() {
+    long sum = 0;
+    for (long[] variables : this.variableSets)
+      sum += this.instanceCompiled.evaluate(variables);
+    return sum;
+  }
+}
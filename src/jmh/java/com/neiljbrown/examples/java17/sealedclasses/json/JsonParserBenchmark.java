@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark of the time to parse a stream of newline-delimited user documents, like those in
+ * {@link com.neiljbrown.examples.java17.textblocks.TextBlocksExamplesTest#test_indentation()}, with a few more fields,
+ * using {@link JsonParser}. Results are per document.
+ * <p>
+ * The lazy benchmark reads only the id and last name of each user, so the other strings are never decoded, as when a
+ * consumer only needs some of the fields. The eager benchmark decodes every member name and value, which is the cost a
+ * parser which builds a tree of Strings up front would always incur. Run with {@code -prof gc} to compare the memory
+ * allocated per document (gc.alloc.rate.norm).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JsonParserBenchmark {
+
+  private static final int DOCUMENT_COUNT = 10_000;
+
+  private ByteBuffer documents;
+
+  @Setup
+  public void setUp() {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < DOCUMENT_COUNT; i++) {
+      builder.append("""
+        {"id": %d, "firstName": "First%d", "lastName": "Last%d", "email": "user%d@example.com", \
+        "city": "London", "active": true, "roles": ["reader", "writer"]}
+        """.formatted(i, i, i, i));
+    }
+    this.documents = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DOCUMENT_COUNT)
+  public void lazy(Blackhole blackhole) {
+    final JsonParser parser = new JsonParser(this.documents);
+    while (parser.hasNext()) {
+      final JsonObject user = (JsonObject) parser.next();
+      blackhole.consume(((JsonNumber) user.get("id")).longValue());
+      blackhole.consume(((JsonString) user.get("lastName")).value());
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DOCUMENT_COUNT)
+  public void eager(Blackhole blackhole) {
+    final JsonParser parser = new JsonParser(this.documents);
+    while (parser.hasNext())
+      decodeAll(parser.next(), blackhole);
+  }
+
+  private static void decodeAll(JsonValue value, Blackhole blackhole) {
+    if (value instanceof JsonObject object) {
+      for (JsonObject.Member member : object.members()) {
+        blackhole.consume(member.name().value());
+        decodeAll(member.value(), blackhole);
+      }
+    } else if (value instanceof JsonArray array) {
+      for (JsonValue element : array.elements())
+        decodeAll(element, blackhole);
+    } else if (value instanceof JsonString string) {
+      blackhole.consume(string.value());
+    } else if (value instanceof JsonNumber number) {
+      blackhole.consume(number.longValue());
+    }
+  }
+}
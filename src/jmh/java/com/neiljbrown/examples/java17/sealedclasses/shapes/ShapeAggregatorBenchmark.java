@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of how the time taken by {@link ShapeAggregator} to aggregate a collection of shapes of random types
+ * scales with the number of threads in the fork-join pool.
+ * <p>
+ * Thread counts greater than the number of available cores, and shape counts which don't fit in the heap, should be
+ * excluded when running the benchmark, using JMH's -p option, e.g. {@code -p threads=1,2,4 -p shapeCount=1000000}.
+ * 100M shapes requires a heap of around 8 GB.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx10g")
+@State(Scope.Benchmark)
+public class ShapeAggregatorBenchmark {
+
+  @Param({"1", "2", "4", "8", "16", "32"})
+  private int threads;
+
+  @Param({"1000000", "10000000", "100000000"})
+  private int shapeCount;
+
+  private List<Shape> shapes;
+  private ForkJoinPool pool;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    this.shapes = new ArrayList<>(this.shapeCount);
+    for (int i = 0; i < this.shapeCount; i++) {
+      final double x = random.nextDouble() * 1000;
+      final double y = random.nextDouble() * 1000;
+      final double size = random.nextDouble() * 10;
+      this.shapes.add(switch (random.nextInt(6)) {
+        case 0 -> new Circle(x, y, size);
+        case 1 -> new Rectangle(x, y, size, size);
+        case 2 -> new TransparentRectangle(x, y, size, size, 0x80FF0000);
+        case 3 -> new FilledRectangle(x, y, size, size, 0x00FF00);
+        case 4 -> new Square(x, y, size);
+        default -> new FilledSquare(x, y, size, 0x0000FF);
+      });
+    }
+    this.pool = new ForkJoinPool(this.threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.pool.shutdown();
+  }
+
+  @Benchmark
+  public ShapeSummary aggregate() {
+    return ShapeAggregator.aggregate(this.shapes, this.pool);
+  }
+}
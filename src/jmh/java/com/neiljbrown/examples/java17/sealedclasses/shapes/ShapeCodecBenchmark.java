@@ -0,0 +1,106 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.neiljbrown.examples.java17.sealedclasses.SealedCodec;
+
+/**
+ * JMH benchmark of the time to encode and decode a list of shapes of random types, using the {@link SealedCodec} for
+ * shapes (see {@link ShapeCodec}). Results are per shape.
+ * <p>
+ * The average size of an encoded shape is reported on setup, together with the size it would be if each shape was
+ * instead identified by its class name (encoded as by {@link java.io.DataOutput#writeUTF(String)}), rather than a
+ * one-byte tag.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ShapeCodecBenchmark {
+
+  private static final int SHAPE_COUNT = 10_000;
+
+  private final SealedCodec<Shape> codec = ShapeCodec.codec();
+  private Shape[] shapes;
+  private ByteBuffer encodeBuffer;
+  private ByteBuffer decodeBuffer;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    this.shapes = new Shape[SHAPE_COUNT];
+    long classNameBytes = 0;
+    for (int i = 0; i < SHAPE_COUNT; i++) {
+      final double x = random.nextDouble() * 1000;
+      final double y = random.nextDouble() * 1000;
+      final double size = random.nextDouble() * 10;
+      this.shapes[i] = switch (random.nextInt(6)) {
+        case 0 -> new Circle(x, y, size);
+        case 1 -> new Rectangle(x, y, size, size);
+        case 2 -> new TransparentRectangle(x, y, size, size, 0x80FF0000);
+        case 3 -> new FilledRectangle(x, y, size, size, 0x00FF00);
+        case 4 -> new Square(x, y, size);
+        default -> new FilledSquare(x, y, size, 0x0000FF);
+      };
+      // A two-byte length, followed by the class name, in place of the tag
+      classNameBytes += 2 + this.shapes[i].getClass().getName().getBytes(StandardCharsets.UTF_8).length - 1;
+    }
+    this.encodeBuffer = ByteBuffer.allocate(SHAPE_COUNT * 64);
+    for (Shape shape : this.shapes)
+      this.codec.encode(shape, this.encodeBuffer);
+    this.decodeBuffer = this.encodeBuffer.duplicate().flip();
+    final int taggedBytes = this.encodeBuffer.position();
+    System.out.printf("%nTagged: %.1f bytes/shape%n", (double) taggedBytes / SHAPE_COUNT);
+    System.out.printf("Class name: %.1f bytes/shape%n", (double) (taggedBytes + classNameBytes) / SHAPE_COUNT);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SHAPE_COUNT)
+  public ByteBuffer encode() {
+    final ByteBuffer buffer = this.encodeBuffer.clear();
+    for (Shape shape : this.shapes)
+      this.codec.encode(shape, buffer);
+    return buffer;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(SHAPE_COUNT)
+  public void decode(Blackhole blackhole) {
+    final ByteBuffer buffer = this.decodeBuffer.rewind();
+    for (int i = 0; i < SHAPE_COUNT; i++)
+      blackhole.consume(this.codec.decode(buffer));
+  }
+}
@@ -0,0 +1,238 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.neiljbrown.examples.java17.sealedclasses.SealedDispatcher;
+
+/**
+ * JMH benchmark comparing the cost of dispatching an operation on each type of {@link Shape} using a chain of
+ * instanceof tests (the nearest equivalent to a pattern matching switch, which is still a preview feature as of JDK
+ * 17), a {@link ShapeVisitor}, a virtual method, and a table of case numbers indexed by class, cached in a
+ * {@link ClassValue}, both hand-written, and generated from the sealed hierarchy by a {@link SealedDispatcher}.
+ * <p>
+ * The cost of each depends on how many types of receiver the call site sees. HotSpot's JIT profiles the receiver
+ * types at each call site, and inlines the target(s) if it's monomorphic (1 type) or bimorphic (2 types), but
+ * otherwise (megamorphic) falls back to a vtable or itable call. Similarly, the order of an instanceof chain matters
+ * more, the more types there are. The number of types of shape is varied by the receiverTypes param, and includes the
+ * open subclass {@link FilledSquare} of the non-sealed {@link Square} when there are 5 or more.
+ * <p>
+ * Profiles are per call site, and are collected before the code is compiled. When the polluted param is true, each
+ * call site is warmed up with all types of shape before the trial, so the profile is megamorphic, even when the
+ * measured iterations only see one or two types. This is the situation of a call site that's shared across a code
+ * base, e.g. in a library. Compare the results with those when polluted is false to see the cost of the pollution.
+ * To see the resulting inlining decisions, run with
+ * {@code -jvmArgsAppend "-XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining"}.
+ * <p>
+ * Each benchmark operation dispatches on every shape in an array, so results (ops/ms) are for a batch of
+ * {@value #BATCH_SIZE} shapes.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ShapeDispatchBenchmark {
+
+  private static final int BATCH_SIZE = 1024;
+  private static final int POLLUTION_ITERATIONS = 20_000;
+
+  // Factories for each concrete type of shape, in the order in which they're added as receiverTypes increases
+  private static final List<Supplier<Shape>> SHAPE_FACTORIES = List.of(
+    () -> new Circle(0, 0, 1),
+    () -> new Square(0, 0, 1),
+    () -> new FilledRectangle(0, 0, 1, 2, 0xFF0000),
+    () -> new TransparentRectangle(0, 0, 1, 2, 0x80FF0000),
+    () -> new FilledSquare(0, 0, 1, 0xFF0000),
+    () -> new Rectangle(0, 0, 1, 2));
+
+  private static final ShapeVisitor<Integer> CORNERS_VISITOR = new ShapeVisitor<>() {
+    @Override
+    public Integer visitCircle(Circle circle) {
+      return 0;
+    }
+
+    @Override
+    public Integer visitRectangle(Rectangle rectangle) {
+      return 4;
+    }
+
+    @Override
+    public Integer visitTransparentRectangle(TransparentRectangle rectangle) {
+      return 4;
+    }
+
+    @Override
+    public Integer visitFilledRectangle(FilledRectangle rectangle) {
+      return 4;
+    }
+
+    @Override
+    public Integer visitSquare(Square square) {
+      return 4;
+    }
+  };
+
+  private static final int CIRCLE_CASE = 0;
+  private static final int RECTANGLE_CASE = 1;
+  private static final int SQUARE_CASE = 2;
+
+  // Maps each class of shape to a case number, once per class, so dispatch costs a lookup and a (table) switch
+  private static final ClassValue<Integer> CASES = new ClassValue<>() {
+    @Override
+    protected Integer computeValue(Class<?> type) {
+      if (Circle.class.isAssignableFrom(type))
+        return CIRCLE_CASE;
+      if (Rectangle.class.isAssignableFrom(type))
+        return RECTANGLE_CASE;
+      if (Square.class.isAssignableFrom(type))
+        return SQUARE_CASE;
+      throw new IllegalArgumentException("Unsupported type of shape [" + type.getName() + "].");
+    }
+  };
+
+  private static final SealedDispatcher<Shape, Integer> CORNERS_DISPATCHER =
+    SealedDispatcher.<Shape, Integer>builder(Shape.class)
+      .on(Circle.class, circle -> 0)
+      .on(Rectangle.class, rectangle -> 4)
+      .on(Square.class, square -> 4)
+      .build();
+
+  @Param({"1", "2", "6"})
+  private int receiverTypes;
+
+  @Param({"false", "true"})
+  private boolean polluted;
+
+  private Shape[] shapes;
+
+  @Setup
+  public void setUp() {
+    this.shapes = newShapes(this.receiverTypes);
+    if (this.polluted) {
+      final Shape[] allTypes = newShapes(SHAPE_FACTORIES.size());
+      for (int i = 0; i < POLLUTION_ITERATIONS; i++) {
+        instanceofChain(allTypes);
+        visitor(allTypes);
+        virtualMethod(allTypes);
+        classValueTable(allTypes);
+        sealedDispatcher(allTypes);
+      }
+    }
+  }
+
+  @Benchmark
+  public int instanceofChain() {
+    return instanceofChain(this.shapes);
+  }
+
+  @Benchmark
+  public int visitor() {
+    return visitor(this.shapes);
+  }
+
+  @Benchmark
+  public int virtualMethod() {
+    return virtualMethod(this.shapes);
+  }
+
+  @Benchmark
+  public int classValueTable() {
+    return classValueTable(this.shapes);
+  }
+
+  @Benchmark
+  public int sealedDispatcher() {
+    return sealedDispatcher(this.shapes);
+  }
+
+  // The dispatch for each approach is implemented in a single method, so that the call sites warmed up when the
+  // profile is polluted are the same as those that are measured.
+
+  private static int instanceofChain(Shape[] shapes) {
+    int corners = 0;
+    for (Shape shape : shapes) {
+      if (shape instanceof Circle)
+        corners += 0;
+      else if (shape instanceof Rectangle)
+        corners += 4;
+      else if (shape instanceof Square)
+        corners += 4;
+      else
+        throw new IllegalArgumentException("Unsupported type of shape [" + shape.getClass().getName() + "].");
+    }
+    return corners;
+  }
+
+  private static int visitor(Shape[] shapes) {
+    int corners = 0;
+    for (Shape shape : shapes)
+      corners += shape.accept(CORNERS_VISITOR);
+    return corners;
+  }
+
+  private static int virtualMethod(Shape[] shapes) {
+    int corners = 0;
+    for (Shape shape : shapes)
+      corners += shape.corners();
+    return corners;
+  }
+
+  private static int classValueTable(Shape[] shapes) {
+    int corners = 0;
+    for (Shape shape : shapes) {
+      corners += switch (CASES.get(shape.getClass())) {
+        case CIRCLE_CASE -> 0;
+        case RECTANGLE_CASE, SQUARE_CASE -> 4;
+        default -> throw new IllegalStateException("Unexpected case.");
+      };
+    }
+    return corners;
+  }
+
+  private static int sealedDispatcher(Shape[] shapes) {
+    int corners = 0;
+    for (Shape shape : shapes)
+      corners += CORNERS_DISPATCHER.dispatch(shape);
+    return corners;
+  }
+
+  /** @return A randomly ordered array of shapes, of the given number of different types. */
+  private static Shape[] newShapes(int types) {
+    final Random random = new Random(42);
+    final Shape[] shapes = new Shape[BATCH_SIZE];
+    for (int i = 0; i < BATCH_SIZE; i++)
+      shapes[i] = SHAPE_FACTORIES.get(random.nextInt(types)).get();
+    return shapes;
+  }
+}
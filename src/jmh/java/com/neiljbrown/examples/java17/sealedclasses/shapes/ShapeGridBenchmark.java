@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmark comparing the latency of finding the shapes which contain a random point (hit-testing), or overlap a
+ * random area, using a {@link ShapeGrid}, with testing every shape (a linear scan).
+ * <p>
+ * The shapes are scattered at random over the world, and the grid is sized to hold a couple of shapes per cell.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ShapeGridBenchmark {
+
+  private static final double WORLD_SIZE = 10_000;
+  private static final double MAX_SHAPE_SIZE = 20;
+  private static final double MAX_AREA_SIZE = 50;
+  private static final int QUERY_COUNT = 1 << 12;
+
+  @Param({"10000", "1000000"})
+  private int shapeCount;
+
+  private Shape[] shapes;
+  private ShapeGrid grid;
+  private double[] queryXs;
+  private double[] queryYs;
+  private Bounds[] queryAreas;
+  private int nextQuery;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    final int cells = (int) Math.ceil(Math.sqrt(this.shapeCount / 2.0));
+    this.grid = new ShapeGrid(new Bounds(0, 0, WORLD_SIZE, WORLD_SIZE), cells, cells);
+    this.shapes = new Shape[this.shapeCount];
+    for (int i = 0; i < this.shapeCount; i++) {
+      final double x = random.nextDouble() * WORLD_SIZE;
+      final double y = random.nextDouble() * WORLD_SIZE;
+      final double size = random.nextDouble() * MAX_SHAPE_SIZE;
+      this.shapes[i] = switch (random.nextInt(5)) {
+        case 0 -> new Circle(x, y, size / 2);
+        case 1 -> new Rectangle(x, y, size, size / 2);
+        case 2 -> new TransparentRectangle(x, y, size, size, 0x80FF0000);
+        case 3 -> new FilledRectangle(x, y, size / 2, size, 0x00FF00);
+        default -> new Square(x, y, size);
+      };
+      this.grid.add(this.shapes[i]);
+    }
+    this.queryXs = new double[QUERY_COUNT];
+    this.queryYs = new double[QUERY_COUNT];
+    this.queryAreas = new Bounds[QUERY_COUNT];
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      this.queryXs[i] = random.nextDouble() * WORLD_SIZE;
+      this.queryYs[i] = random.nextDouble() * WORLD_SIZE;
+      this.queryAreas[i] = new Bounds(this.queryXs[i], this.queryYs[i],
+        this.queryXs[i] + random.nextDouble() * MAX_AREA_SIZE, this.queryYs[i] + random.nextDouble() * MAX_AREA_SIZE);
+    }
+  }
+
+  @Benchmark
+  public void grid_hitTest(Blackhole blackhole) {
+    final int query = this.nextQuery++ & (QUERY_COUNT - 1);
+    this.grid.forEachContaining(this.queryXs[query], this.queryYs[query], blackhole::consume);
+  }
+
+  @Benchmark
+  public void linearScan_hitTest(Blackhole blackhole) {
+    final int query = this.nextQuery++ & (QUERY_COUNT - 1);
+    final double x = this.queryXs[query];
+    final double y = this.queryYs[query];
+    for (Shape shape : this.shapes)
+      if (shape.contains(x, y))
+        blackhole.consume(shape);
+  }
+
+  @Benchmark
+  public void grid_areaQuery(Blackhole blackhole) {
+    this.grid.forEachIntersecting(this.queryAreas[this.nextQuery++ & (QUERY_COUNT - 1)], blackhole::consume);
+  }
+
+  @Benchmark
+  public void linearScan_areaQuery(Blackhole blackhole) {
+    final Bounds area = this.queryAreas[this.nextQuery++ & (QUERY_COUNT - 1)];
+    for (Shape shape : this.shapes)
+      if (shape.intersects(area))
+        blackhole.consume(shape);
+  }
+}
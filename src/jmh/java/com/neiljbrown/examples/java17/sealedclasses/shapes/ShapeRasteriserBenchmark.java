@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark of the throughput of {@link ShapeRasteriser}, rendering a scene of random shapes of every type, as the
+ * size of the tiles, and the number of threads in the fork-join pool, vary.
+ * <p>
+ * Each operation is a pixel, so, as results are reported in ops/us, they are in megapixels per second. Thread counts
+ * greater than the number of available cores should be excluded when running the benchmark, using JMH's -p option,
+ * e.g. {@code -p threads=1,2,4}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class ShapeRasteriserBenchmark {
+
+  private static final int WIDTH = 2048;
+  private static final int HEIGHT = 2048;
+  private static final int SHAPE_COUNT = 20_000;
+  private static final double MAX_SHAPE_SIZE = 100;
+
+  @Param({"16", "64", "256"})
+  private int tileSize;
+
+  @Param({"1", "2", "4", "8"})
+  private int threads;
+
+  private List<Shape> shapes;
+  private Framebuffer framebuffer;
+  private ForkJoinPool pool;
+  private ShapeRasteriser rasteriser;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    this.shapes = new ArrayList<>(SHAPE_COUNT);
+    for (int i = 0; i < SHAPE_COUNT; i++) {
+      final double x = random.nextDouble() * WIDTH;
+      final double y = random.nextDouble() * HEIGHT;
+      final double size = random.nextDouble() * MAX_SHAPE_SIZE;
+      final int colour = random.nextInt();
+      this.shapes.add(switch (random.nextInt(6)) {
+        case 0 -> new Circle(x, y, size / 2);
+        case 1 -> new Rectangle(x, y, size, size / 2);
+        case 2 -> new TransparentRectangle(x, y, size, size, colour);
+        case 3 -> new FilledRectangle(x, y, size / 2, size, colour);
+        case 4 -> new Square(x, y, size);
+        default -> new FilledSquare(x, y, size, colour);
+      });
+    }
+    this.framebuffer = new Framebuffer(WIDTH, HEIGHT);
+    this.pool = new ForkJoinPool(this.threads);
+    this.rasteriser = new ShapeRasteriser(this.pool, this.tileSize, 0xFF000000);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.pool.shutdown();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WIDTH * HEIGHT)
+  public Framebuffer render() {
+    this.rasteriser.render(this.shapes, this.framebuffer, 0xFFFFFFFF);
+    return this.framebuffer;
+  }
+}
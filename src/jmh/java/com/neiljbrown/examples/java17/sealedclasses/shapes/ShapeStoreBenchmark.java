@@ -0,0 +1,105 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the time to compute the total area of a large number of shapes of random types, held as an
+ * array of objects, with the same shapes held in a {@link ShapeStore}.
+ * <p>
+ * The objects are shuffled after they're created, so that, as in a long-running application, the order in which
+ * they're iterated doesn't match the order in which they're laid out in the heap. The heap used by each layout is
+ * reported on setup. (It's measured approximately, as the difference in used heap after a GC, before and after
+ * creating the shapes).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ShapeStoreBenchmark {
+
+  @Param({"100000", "10000000"})
+  private int shapeCount;
+
+  private Shape[] shapes;
+  private ShapeStore store;
+
+  @Setup
+  public void setUp() {
+    final Random random = new Random(42);
+    long before = usedHeap();
+    final Shape[] shapes = new Shape[this.shapeCount];
+    for (int i = 0; i < this.shapeCount; i++) {
+      final double x = random.nextDouble() * 1000;
+      final double y = random.nextDouble() * 1000;
+      final double size = random.nextDouble() * 10;
+      shapes[i] = switch (random.nextInt(6)) {
+        case 0 -> new Circle(x, y, size);
+        case 1 -> new Rectangle(x, y, size, size);
+        case 2 -> new TransparentRectangle(x, y, size, size, 0x80FF0000);
+        case 3 -> new FilledRectangle(x, y, size, size, 0x00FF00);
+        case 4 -> new Square(x, y, size);
+        default -> new FilledSquare(x, y, size, 0x0000FF);
+      };
+    }
+    Collections.shuffle(Arrays.asList(shapes), random);
+    this.shapes = shapes;
+    System.out.printf("%nObjects heap: %,d bytes%n", usedHeap() - before);
+
+    before = usedHeap();
+    this.store = new ShapeStore();
+    for (Shape shape : this.shapes)
+      this.store.add(shape);
+    System.out.printf("ShapeStore heap: %,d bytes%n", usedHeap() - before);
+  }
+
+  @Benchmark
+  public double objects_totalArea() {
+    double area = 0;
+    for (Shape shape : this.shapes)
+      area += shape.area();
+    return area;
+  }
+
+  @Benchmark
+  public double shapeStore_totalArea() {
+    return this.store.totalArea();
+  }
+
+  private static long usedHeap() {
+    System.gc();
+    final Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.switchexpressions;
+
+import java.time.DayOfWeek;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the time to map days of the week, in random order, to the number of letters in their name,
+ * using a switch expression, an {@link EnumMap}, an {@link EnumTable} and an {@link IntEnumTable}. Results are per
+ * day.
+ * <p>
+ * The days are random so that the branches of the switch can't be predicted, as would be the case for real data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class EnumTableBenchmark {
+
+  private static final int DAY_COUNT = 1024;
+
+  private static final EnumTable<DayOfWeek, Integer> ENUM_TABLE =
+    EnumTable.of(DayOfWeek.class, EnumTableBenchmark::numberOfLetters);
+  private static final IntEnumTable<DayOfWeek> INT_ENUM_TABLE =
+    IntEnumTable.of(DayOfWeek.class, EnumTableBenchmark::numberOfLetters);
+
+  private final Map<DayOfWeek, Integer> enumMap = new EnumMap<>(DayOfWeek.class);
+  private DayOfWeek[] days;
+
+  @Setup
+  public void setUp() {
+    for (DayOfWeek day : DayOfWeek.values())
+      this.enumMap.put(day, numberOfLetters(day));
+    final Random random = new Random(42);
+    this.days = new DayOfWeek[DAY_COUNT];
+    for (int i = 0; i < DAY_COUNT; i++)
+      this.days[i] = DayOfWeek.values()[random.nextInt(DayOfWeek.values().length)];
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DAY_COUNT)
+  public int switchExpression() {
+    int sum = 0;
+    for (DayOfWeek day : this.days)
+      sum += numberOfLetters(day);
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DAY_COUNT)
+  public int enumMap() {
+    int sum = 0;
+    for (DayOfWeek day : this.days)
+      sum += this.enumMap.get(day);
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DAY_COUNT)
+  public int enumTable() {
+    int sum = 0;
+    for (DayOfWeek day : this.days)
+      sum += ENUM_TABLE.get(day);
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(DAY_COUNT)
+  public int intEnumTable() {
+    int sum = 0;
+    for (DayOfWeek day : this.days)
+      sum += INT_ENUM_TABLE.get(day);
+    return sum;
+  }
+
+  private static int numberOfLetters(DayOfWeek day) {
+    return switch (day) {
+      case MONDAY, FRIDAY, SUNDAY -> 6;
+      case TUESDAY -> 7;
+      case THURSDAY, SATURDAY -> 8;
+      case WEDNESDAY -> 9;
+    };
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.switchexpressions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmark comparing the time to match tokens of ASCII text held in a byte array, as a tokeniser would, against a
+ * set of keywords, using a switch on a string, a {@link HashMap}, and a {@link KeywordMatcher}. Results are per token.
+ * <p>
+ * The switch and the map require a String, so one is created for each token, whereas the matcher matches the bytes
+ * of the token directly. The keywords are either the 26 words of the NATO phonetic alphabet, for which a switch is
+ * practical to write, or 4096 generated words, for which it isn't. The tokens are a random mix of keywords and other
+ * words (identifiers), of the same lengths, in proportions set by a parameter, as a tokeniser mostly sees identifiers.
+ * Matching an identifier takes a different path to matching a keyword - the matcher usually rejects it by comparing
+ * hashes, without comparing its chars, and the map lookup misses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class KeywordMatcherBenchmark {
+
+  private static final int TOKEN_COUNT = 1024;
+
+  private static final List<String> NATO_ALPHABET = List.of("alfa", "bravo", "charlie", "delta", "echo", "foxtrot",
+    "golf", "hotel", "india", "juliett", "kilo", "lima", "mike", "november", "oscar", "papa", "quebec", "romeo",
+    "sierra", "tango", "uniform", "victor", "whiskey", "x-ray", "yankee", "zulu");
+
+  /** Text consisting of tokens, some of which are keywords, and the means of matching them. */
+  public abstract static class Tokens {
+    byte[] text;
+    int[] offsets;
+    int[] lengths;
+    Map<String, Integer> indexesByKeyword;
+    KeywordMatcher matcher;
+
+    void setUp(List<String> keywords, int nonKeywordPercent) {
+      this.indexesByKeyword = new HashMap<>();
+      for (int i = 0; i < keywords.size(); i++)
+        this.indexesByKeyword.put(keywords.get(i), i);
+      this.matcher = KeywordMatcher.of(keywords);
+      final Random random = new Random(42);
+      final StringBuilder text = new StringBuilder();
+      this.offsets = new int[TOKEN_COUNT];
+      this.lengths = new int[TOKEN_COUNT];
+      for (int i = 0; i < TOKEN_COUNT; i++) {
+        final String keyword = keywords.get(random.nextInt(keywords.size()));
+        String token = keyword;
+        if (random.nextInt(100) < nonKeywordPercent) {
+          do
+            token = randomWord(random, keyword.length());
+          while (this.indexesByKeyword.containsKey(token));
+        }
+        this.offsets[i] = text.length();
+        this.lengths[i] = token.length();
+        text.append(token).append(' ');
+      }
+      this.text = text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    String token(int i) {
+      return new String(this.text, this.offsets[i], this.lengths[i], StandardCharsets.ISO_8859_1);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class NatoTokens extends Tokens {
+    @Param({"0", "90"})
+    private int nonKeywordPercent;
+
+    @Setup
+    public void setUp() {
+      setUp(NATO_ALPHABET, this.nonKeywordPercent);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class LargeTokens extends Tokens {
+    @Param({"0", "90"})
+    private int nonKeywordPercent;
+
+    @Setup
+    public void setUp() {
+      final Random random = new Random(42);
+      final Set<String> keywords = new LinkedHashSet<>();
+      while (keywords.size() < 4096)
+        keywords.add(randomWord(random, 3 + random.nextInt(10)));
+      setUp(new ArrayList<>(keywords), this.nonKeywordPercent);
+    }
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOKEN_COUNT)
+  public int natoStringSwitch(NatoTokens tokens) {
+    int sum = 0;
+    for (int i = 0; i < TOKEN_COUNT; i++)
+      sum += natoIndexOf(tokens.token(i));
+    return sum;
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOKEN_COUNT)
+  public int natoHashMap(NatoTokens tokens) {
+    return hashMap(tokens);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOKEN_COUNT)
+  public int natoKeywordMatcher(NatoTokens tokens) {
+    return keywordMatcher(tokens);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOKEN_COUNT)
+  public int largeHashMap(LargeTokens tokens) {
+    return hashMap(tokens);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(TOKEN_COUNT)
+  public int largeKeywordMatcher(LargeTokens tokens) {
+    return keywordMatcher(tokens);
+  }
+
+  private static int hashMap(Tokens tokens) {
+    int sum = 0;
+    for (int i = 0; i < TOKEN_COUNT; i++)
+      sum += tokens.indexesByKeyword.getOrDefault(tokens.token(i), -1);
+    return sum;
+  }
+
+  private static int keywordMatcher(Tokens tokens) {
+    int sum = 0;
+    for (int i = 0; i < TOKEN_COUNT; i++)
+      sum += tokens.matcher.indexOf(tokens.text, tokens.offsets[i], tokens.lengths[i]);
+    return sum;
+  }
+
+  private static String randomWord(Random random, int length) {
+    final char[] chars = new char[length];
+    for (int i = 0; i < length; i++)
+      chars[i] = (char) ('a' + random.nextInt(26));
+    return new String(chars);
+  }
+
+  private static int natoIndexOf(String token) {
+    return switch (token) {
+      case "alfa" -> 0;
+      case "bravo" -> 1;
+      case "charlie" -> 2;
+      case "delta" -> 3;
+      case "echo" -> 4;
+      case "foxtrot" -> 5;
+      case "golf" -> 6;
+      case "hotel" -> 7;
+      case "india" -> 8;
+      case "juliett" -> 9;
+      case "kilo" -> 10;
+      case "lima" -> 11;
+      case "mike" -> 12;
+      case "november" -> 13;
+      case "oscar" -> 14;
+      case "papa" -> 15;
+      case "quebec" -> 16;
+      case "romeo" -> 17;
+      case "sierra" -> 18;
+      case "tango" -> 19;
+      case "uniform" -> 20;
+      case "victor" -> 21;
+      case "whiskey" -> 22;
+      case "x-ray" -> 23;
+      case "yankee" -> 24;
+      case "zulu" -> 25;
+      default -> -1;
+    };
+  }
+}
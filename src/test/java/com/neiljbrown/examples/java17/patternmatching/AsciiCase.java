@@ -0,0 +1,180 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Converts the case of ASCII letters, without regard to locale, writing the result to a buffer supplied by the caller,
+ * so without allocating, as a fast alternative to {@link String#toUpperCase(Locale)} and
+ * {@link String#toLowerCase(Locale)} for ASCII text, such as identifiers, which is processed in bulk.
+ * <p>
+ * Only the ASCII letters (a-z and A-Z) are converted. Other characters, including non-ASCII letters, are left
+ * unchanged, so, for text which isn't ASCII, the result may differ from that of the JDK, e.g. 'é' isn't converted to
+ * 'É'. (No String conversion is offered, as a new String must copy the converted chars, so can't be created more
+ * cheaply than by the JDK, which also returns the same String if it's unchanged).
+ * <p>
+ * Latin-1 text (such as the bytes of a compact String) held in a byte array is converted several bytes at a time.
+ * When the (incubating, as of JDK 17) Vector API module, jdk.incubator.vector, is available at runtime, as many bytes
+ * as fit in a vector are converted at a time, using SIMD instructions (see {@link VectorAsciiCase}). Then, or
+ * otherwise, 8 bytes are converted at a time, by treating them as a long, using SIMD-within-a-register (SWAR)
+ * arithmetic. Any remaining bytes are converted one at a time.
+ */
+public final class AsciiCase {
+
+  private static final boolean VECTOR_API_AVAILABLE =
+    ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+  private static final long HIGH_BITS = 0x8080808080808080L;
+  private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+  private static final long ONES = 0x0101010101010101L;
+  // The bit which differs between the upper and lower case of an ASCII letter
+  private static final int CASE_BIT = 0x20;
+
+  private AsciiCase() {
+  }
+
+  /**
+   * Converts the ASCII lower case letters in a range of a byte array of Latin-1 (or ASCII) text to upper case,
+   * writing the result to another byte array, or the same array, at the same offset, to convert in place.
+   *
+   * @param src The text to convert.
+   * @param srcOffset The index in the source of the first byte to convert.
+   * @param dst The array to write the converted text to.
+   * @param dstOffset The index in the destination to write the first converted byte to.
+   * @param length The number of bytes to convert.
+   * @throws IndexOutOfBoundsException if either range is not within its array.
+   */
+  public static void toUpperCase(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    convert(src, srcOffset, dst, dstOffset, length, 'a');
+  }
+
+  /**
+   * Converts the ASCII upper case letters in a range of a byte array of Latin-1 (or ASCII) text to lower case.
+   *
+   * @see #toUpperCase(byte[], int, byte[], int, int)
+   */
+  public static void toLowerCase(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    convert(src, srcOffset, dst, dstOffset, length, 'A');
+  }
+
+  /**
+   * Converts the ASCII lower case letters in a sequence of chars to upper case, writing the result to a char buffer,
+   * starting at its position, which is advanced past the converted chars.
+   *
+   * @param src The chars to convert.
+   * @param dst The buffer to write the converted chars to.
+   * @throws BufferOverflowException if the buffer has less space remaining than there are chars to convert.
+   */
+  public static void toUpperCase(CharSequence src, CharBuffer dst) {
+    convert(src, dst, 'a');
+  }
+
+  /**
+   * Converts the ASCII upper case letters in a sequence of chars to lower case.
+   *
+   * @see #toUpperCase(CharSequence, CharBuffer)
+   */
+  public static void toLowerCase(CharSequence src, CharBuffer dst) {
+    convert(src, dst, 'A');
+  }
+
+  /**
+   * Converts the bytes 8 at a time, using SWAR arithmetic, without using the Vector API.
+   *
+   * @see #toUpperCase(byte[], int, byte[], int, int)
+   */
+  static void convertSwar(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length, char first) {
+    checkRanges(src, srcOffset, dst, dstOffset, length);
+    final int converted = convertSwar(src, srcOffset, dst, dstOffset, length, first, 0);
+    convertScalar(src, srcOffset, dst, dstOffset, length, first, converted);
+  }
+
+  /** @return true if bytes are converted using the Vector API, otherwise false. */
+  static boolean isVectorised() {
+    return VECTOR_API_AVAILABLE;
+  }
+
+  private static void convert(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length, char first) {
+    checkRanges(src, srcOffset, dst, dstOffset, length);
+    int converted =
+      VECTOR_API_AVAILABLE ? VectorAsciiCase.convert(src, srcOffset, dst, dstOffset, length, (byte) first) : 0;
+    converted = convertSwar(src, srcOffset, dst, dstOffset, length, first, converted);
+    convertScalar(src, srcOffset, dst, dstOffset, length, first, converted);
+  }
+
+  /**
+   * Converts the bytes from the supplied index, 8 at a time.
+   *
+   * @return The number of bytes converted, including those before the supplied index. The caller must convert any
+   * remaining bytes, of which there are fewer than 8.
+   */
+  private static int convertSwar(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length, char first,
+    int from) {
+    // Adding these to a byte of 0x7F or less sets its high bit if and only if it's at least the first letter, or
+    // greater than the last letter (z or Z), respectively, without carrying into the next byte
+    final long geFirst = (0x80 - first) * ONES;
+    final long gtLast = (0x80 - (first + 26)) * ONES;
+    final int bound = from + ((length - from) & ~7);
+    for (int i = from; i < bound; i += 8) {
+      final long word = (long) LONGS.get(src, srcOffset + i);
+      final long low = word & LOW_BITS;
+      // The high bit of each byte is set if it's a letter to convert. A byte which has its high bit set isn't ASCII,
+      // so is excluded.
+      final long letters = (low + geFirst) & ~(low + gtLast) & ~word & HIGH_BITS;
+      LONGS.set(dst, dstOffset + i, word ^ (letters >>> 2));
+    }
+    return bound;
+  }
+
+  private static void convertScalar(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length, char first,
+    int from) {
+    for (int i = from; i < length; i++) {
+      final byte b = src[srcOffset + i];
+      dst[dstOffset + i] = isLetter(b, first) ? (byte) (b ^ CASE_BIT) : b;
+    }
+  }
+
+  private static void convert(CharSequence src, CharBuffer dst, char first) {
+    Objects.requireNonNull(src, "src must not be null.");
+    Objects.requireNonNull(dst, "dst must not be null.");
+    final int length = src.length();
+    if (dst.remaining() < length)
+      throw new BufferOverflowException();
+    for (int i = 0; i < length; i++) {
+      final char c = src.charAt(i);
+      dst.put(isLetter(c, first) ? (char) (c ^ CASE_BIT) : c);
+    }
+  }
+
+  /** @return true if the supplied char (or byte) is one of the 26 ASCII letters starting from the supplied letter. */
+  private static boolean isLetter(int c, char first) {
+    return c >= first && c < first + 26;
+  }
+
+  private static void checkRanges(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length) {
+    Objects.requireNonNull(src, "src must not be null.");
+    Objects.requireNonNull(dst, "dst must not be null.");
+    Objects.checkFromIndexSize(srcOffset, length, src.length);
+    Objects.checkFromIndexSize(dstOffset, length, dst.length);
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link AsciiCase}.
+ */
+public class AsciiCaseTest {
+
+  /**
+   * Tests that converting every possible byte value only changes the case of the ASCII letters, using both the
+   * vectorised and SWAR implementations.
+   */
+  @Test
+  public void test_toUpperCase_bytes_allValues() {
+    final byte[] src = new byte[256];
+    for (int i = 0; i < src.length; i++)
+      src[i] = (byte) i;
+    final byte[] expectedUpper = src.clone();
+    final byte[] expectedLower = src.clone();
+    for (int c = 'a'; c <= 'z'; c++) {
+      expectedUpper[c] = (byte) Character.toUpperCase(c);
+      expectedLower[Character.toUpperCase(c)] = (byte) c;
+    }
+
+    assertThat(convert(src, true, false)).isEqualTo(expectedUpper);
+    assertThat(convert(src, true, true)).isEqualTo(expectedUpper);
+    assertThat(convert(src, false, false)).isEqualTo(expectedLower);
+    assertThat(convert(src, false, true)).isEqualTo(expectedLower);
+  }
+
+  /**
+   * Tests that the vectorised and SWAR implementations agree with {@link String#toUpperCase(Locale)}, for random ASCII
+   * text, of lengths which aren't a multiple of any vector size, at offsets which aren't aligned.
+   */
+  @Test
+  public void test_toUpperCase_bytes_matchesJdk() {
+    assertThat(AsciiCase.isVectorised())
+      .as("Expected the build to make the Vector API module available to tests.")
+      .isTrue();
+    final Random random = new Random(42);
+    for (int length = 0; length < 200; length++) {
+      final byte[] src = new byte[length + 3];
+      for (int i = 0; i < src.length; i++)
+        src[i] = (byte) random.nextInt(0x80);
+      final String text = new String(src, 3, length, StandardCharsets.ISO_8859_1);
+
+      final byte[] dst = new byte[length + 1];
+      AsciiCase.toUpperCase(src, 3, dst, 1, length);
+      final byte[] swarDst = new byte[length + 1];
+      AsciiCase.convertSwar(src, 3, swarDst, 1, length, 'a');
+
+      assertThat(new String(dst, 1, length, StandardCharsets.ISO_8859_1)).isEqualTo(text.toUpperCase(Locale.ROOT));
+      assertThat(swarDst).isEqualTo(dst);
+    }
+  }
+
+  /**
+   * Tests converting bytes in place.
+   */
+  @Test
+  public void test_toLowerCase_bytes_inPlace() {
+    final byte[] bytes = "Hello, WORLD! Some_Identifier_42".getBytes(StandardCharsets.ISO_8859_1);
+
+    AsciiCase.toLowerCase(bytes, 0, bytes, 0, bytes.length);
+
+    assertThat(new String(bytes, StandardCharsets.ISO_8859_1)).isEqualTo("hello, world! some_identifier_42");
+  }
+
+  /**
+   * Tests that a range outside an array is rejected.
+   */
+  @Test
+  public void test_toUpperCase_bytes_invalidRange() {
+    assertThat(catchThrowable(() -> AsciiCase.toUpperCase(new byte[8], 4, new byte[8], 0, 5)))
+      .isInstanceOf(IndexOutOfBoundsException.class);
+    assertThat(catchThrowable(() -> AsciiCase.toUpperCase(new byte[8], 0, new byte[4], 0, 5)))
+      .isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  /**
+   * Tests converting chars into a char buffer, which only changes the case of ASCII letters.
+   */
+  @Test
+  public void test_toUpperCase_charBuffer() {
+    final CharBuffer buffer = CharBuffer.allocate(16);
+    buffer.put('>');
+
+    AsciiCase.toUpperCase("foo_bär", buffer);
+
+    assertThat(buffer.flip().toString()).isEqualTo(">FOO_BäR");
+    // A buffer which has no array, such as a view of a direct byte buffer
+    final CharBuffer direct = ByteBuffer.allocateDirect(8).asCharBuffer();
+    AsciiCase.toLowerCase(new StringBuilder("AbC"), direct);
+    assertThat(direct.flip().toString()).isEqualTo("abc");
+    assertThat(catchThrowable(() -> AsciiCase.toLowerCase("X".repeat(17), CharBuffer.allocate(16))))
+      .isInstanceOf(BufferOverflowException.class);
+  }
+
+  private static byte[] convert(byte[] src, boolean upper, boolean swar) {
+    final byte[] dst = new byte[src.length];
+    final char first = upper ? 'a' : 'A';
+    if (swar)
+      AsciiCase.convertSwar(src, 0, dst, 0, src.length, first);
+    else if (upper)
+      AsciiCase.toUpperCase(src, 0, dst, 0, src.length);
+    else
+      AsciiCase.toLowerCase(src, 0, dst, 0, src.length);
+    return dst;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A rule, comprising a type pattern and a guard, which is applied to an object, and an action, which is performed on
+ * the object if it matches.
+ * <p>
+ * A rule is the equivalent of the following instanceof pattern matching, as in
+ * {@link InstanceOfPatternMatchingExamplesTest#test_patternVariableScope_ifCondition()}, but declared as data, so that
+ * rules can be defined at runtime, and evaluated by a {@link RulesEngine} -
+ * <pre>
+ * if (obj instanceof String s &amp;&amp; s.length() &gt; 1) {
+ *   action(s);
+ * }
+ * </pre>
+ * is equivalent to the rule {@code new Rule<>("name", String.class, s -> s.length() > 1, s -> action(s))}.
+ *
+ * @param name The name of the rule, which identifies it, e.g. in logs.
+ * @param type The type an object must be an instance of to match the rule (the type pattern).
+ * @param guard The condition an object of the type must also meet to match the rule.
+ * @param action The action performed on an object which matches the rule.
+ * @param <S> The type.
+ */
+public record Rule<S>(String name, Class<S> type, Predicate<? super S> guard, Consumer<? super S> action) {
+
+  public Rule {
+    Objects.requireNonNull(name, "name must not be null.");
+    Objects.requireNonNull(type, "type must not be null.");
+    Objects.requireNonNull(guard, "guard must not be null.");
+    Objects.requireNonNull(action, "action must not be null.");
+    if (type.isPrimitive())
+      throw new IllegalArgumentException("type must not be a primitive type.");
+  }
+
+  /**
+   * @param obj The object.
+   * @return true if the object is an instance of the rule's type, and meets its guard, otherwise false.
+   */
+  public boolean matches(Object obj) {
+    return this.type.isInstance(obj) && this.guard.test(this.type.cast(obj));
+  }
+
+  /**
+   * Performs the rule's action on the supplied object, if it matches the rule.
+   *
+   * @param obj The object.
+   * @return true if the object matched the rule, otherwise false.
+   */
+  public boolean fire(Object obj) {
+    if (!matches(obj))
+      return false;
+    this.action.accept(this.type.cast(obj));
+    return true;
+  }
+
+  /**
+   * Performs the rule's action on the supplied object, if it meets the rule's guard, without testing its type. Used by
+   * a {@link RulesEngine}, whose index only yields the rule for objects known to be of its type.
+   *
+   * @param obj The object, which must be an instance of the rule's type.
+   * @return true if the object met the guard, otherwise false.
+   */
+  @SuppressWarnings("unchecked")
+  boolean fireUnchecked(Object obj) {
+    final S matched = (S) obj;
+    if (!this.guard.test(matched))
+      return false;
+    this.action.accept(matched);
+    return true;
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Evaluates a set of {@link Rule}s against objects (e.g. events), performing the action of each rule which matches,
+ * in the order the rules were added.
+ * <p>
+ * Testing every rule against every object costs time proportional to the number of rules, even though, typically, the
+ * type pattern of most rules doesn't match the object. Instead, the rules are indexed by the runtime class of the
+ * objects they're applied to. The first time an object of a class is evaluated, the rules whose type it's an instance
+ * of (including those for its superclasses and interfaces) are found, and cached in a {@link ClassValue}. From then
+ * on, evaluating an object only touches those rules, and as their type is known to match, only their guards are
+ * tested. So, the cost of evaluating an object depends on the number of rules for its type, rather than the total
+ * number of rules.
+ * <p>
+ * The rules are fixed when the engine is built. An engine is thread-safe if its rules' guards and actions are.
+ *
+ * @param <T> The type of object the rules are applied to, e.g. Object, or the root type of a hierarchy of events.
+ */
+public final class RulesEngine<T> {
+
+  private final List<Rule<?>> rules;
+  private final ClassValue<Rule<?>[]> rulesByClass = new ClassValue<>() {
+    @Override
+    protected Rule<?>[] computeValue(Class<?> type) {
+      return RulesEngine.this.rules.stream().filter(rule -> rule.type().isAssignableFrom(type)).toArray(Rule<?>[]::new);
+    }
+  };
+
+  private RulesEngine(List<Rule<?>> rules) {
+    this.rules = List.copyOf(rules);
+  }
+
+  /**
+   * @param <T> The type of object the rules are applied to.
+   * @return A builder of a rules engine.
+   */
+  public static <T> Builder<T> builder() {
+    return new Builder<>();
+  }
+
+  /**
+   * Performs the action of each rule which matches the supplied object, in the order the rules were added.
+   *
+   * @param obj The object.
+   * @return The number of rules which matched.
+   */
+  public int evaluate(T obj) {
+    Objects.requireNonNull(obj, "obj must not be null.");
+    int fired = 0;
+    for (Rule<?> rule : this.rulesByClass.get(obj.getClass())) {
+      if (rule.fireUnchecked(obj))
+        fired++;
+    }
+    return fired;
+  }
+
+  /**
+   * @param obj The object.
+   * @return The rules which could match objects of the supplied object's class, i.e. whose type it's an instance of,
+   * in the order they were added.
+   */
+  public List<Rule<?>> candidateRules(T obj) {
+    Objects.requireNonNull(obj, "obj must not be null.");
+    return List.of(this.rulesByClass.get(obj.getClass()));
+  }
+
+  /** @return All the rules, in the order they were added. */
+  public List<Rule<?>> rules() {
+    return this.rules;
+  }
+
+  /**
+   * Builder of a {@link RulesEngine}.
+   *
+   * @param <T> The type of object the rules are applied to.
+   */
+  public static final class Builder<T> {
+
+    private final List<Rule<?>> rules = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    /**
+     * @param rule The rule to add. Its type should be a subtype of the type of object the rules are applied to, or an
+     * interface, otherwise it can never match.
+     * @return This builder.
+     */
+    public Builder<T> rule(Rule<?> rule) {
+      this.rules.add(Objects.requireNonNull(rule, "rule must not be null."));
+      return this;
+    }
+
+    /**
+     * Adds a rule, created from the supplied components.
+     *
+     * @see Rule
+     */
+    public <S> Builder<T> rule(String name, Class<S> type, Predicate<? super S> guard, Consumer<? super S> action) {
+      return rule(new Rule<>(name, type, guard, action));
+    }
+
+    /** @return The rules engine. */
+    public RulesEngine<T> build() {
+      return new RulesEngine<>(this.rules);
+    }
+  }
+}
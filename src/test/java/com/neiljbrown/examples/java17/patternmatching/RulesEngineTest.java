@@ -0,0 +1,128 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RulesEngine}.
+ */
+public class RulesEngineTest {
+
+  /**
+   * Tests that the action of each rule whose type pattern and guard match an object is performed, in the order the
+   * rules were added, as for the equivalent instanceof pattern matching.
+   */
+  @Test
+  public void test_evaluate() {
+    final List<String> fired = new ArrayList<>();
+    final RulesEngine<Object> engine = RulesEngine.builder()
+      .rule("long string", String.class, s -> s.length() > 1, s -> fired.add("long string " + s))
+      .rule("positive integer", Integer.class, i -> i > 0, i -> fired.add("positive integer " + i))
+      .rule("any string", String.class, s -> true, s -> fired.add("any string " + s))
+      .build();
+
+    assertThat(engine.evaluate("foo")).isEqualTo(2);
+    assertThat(engine.evaluate("f")).isEqualTo(1);
+    assertThat(engine.evaluate(42)).isEqualTo(1);
+    assertThat(engine.evaluate(-42)).isZero();
+    assertThat(engine.evaluate(42L)).isZero();
+
+    assertThat(fired).containsExactly("long string foo", "any string foo", "any string f", "positive integer 42");
+  }
+
+  /**
+   * Tests that rules whose type is a superclass or interface of an object's class are applied to it.
+   */
+  @Test
+  public void test_evaluate_supertypes() {
+    final List<String> fired = new ArrayList<>();
+    final RulesEngine<Object> engine = RulesEngine.builder()
+      .rule("char sequence", CharSequence.class, cs -> true, cs -> fired.add("char sequence " + cs))
+      .rule("number", Number.class, n -> n.doubleValue() > 1, n -> fired.add("number " + n))
+      .rule("object", Object.class, o -> true, o -> fired.add("object " + o))
+      .build();
+
+    engine.evaluate("foo");
+    engine.evaluate(new StringBuilder("bar"));
+    engine.evaluate(1.5);
+
+    assertThat(fired).containsExactly("char sequence foo", "object foo", "char sequence bar", "object bar",
+      "number 1.5", "object 1.5");
+  }
+
+  /**
+   * Tests that only the guards of rules whose type matches an object's class are tested.
+   */
+  @Test
+  public void test_evaluate_onlyCandidateGuardsTested() {
+    final AtomicInteger stringGuards = new AtomicInteger();
+    final AtomicInteger integerGuards = new AtomicInteger();
+    final RulesEngine.Builder<Object> builder = RulesEngine.builder();
+    for (int i = 0; i < 100; i++) {
+      builder.rule("string " + i, String.class, s -> stringGuards.incrementAndGet() < 0, s -> { });
+      builder.rule("integer " + i, Integer.class, n -> integerGuards.incrementAndGet() < 0, n -> { });
+    }
+    final RulesEngine<Object> engine = builder.build();
+
+    engine.evaluate("foo");
+
+    assertThat(stringGuards).hasValue(100);
+    assertThat(integerGuards).hasValue(0);
+    assertThat(engine.candidateRules("foo")).hasSize(100).allMatch(rule -> rule.type() == String.class);
+    assertThat(engine.candidateRules(1L)).isEmpty();
+    assertThat(engine.rules()).hasSize(200);
+  }
+
+  /**
+   * Tests that evaluating rules gives the same result as applying each rule in turn, using {@link Rule#fire(Object)}.
+   */
+  @Test
+  public void test_evaluate_matchesSequentialEvaluation() {
+    final RulesEngine.Builder<Object> builder = RulesEngine.builder();
+    final List<Rule<?>> rules = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      final int threshold = i;
+      rules.add(new Rule<>("string " + i, String.class, s -> s.length() > threshold % 5, s -> { }));
+      rules.add(new Rule<>("number " + i, Number.class, n -> n.intValue() > threshold, n -> { }));
+      rules.add(new Rule<>("integer " + i, Integer.class, n -> n % (threshold + 1) == 0, n -> { }));
+    }
+    rules.forEach(builder::rule);
+    final RulesEngine<Object> engine = builder.build();
+
+    for (Object obj : List.of("", "ab", "abcdef", 0, 7, 29, 12L, 3.5, 'c')) {
+      final long expected = rules.stream().filter(rule -> rule.fire(obj)).count();
+      assertThat(engine.evaluate(obj)).as("Object [%s]", obj).isEqualTo(expected);
+    }
+  }
+
+  /**
+   * Tests that a rule can't be created for a primitive type, as no object can be an instance of one.
+   */
+  @Test
+  public void test_newRule_primitiveType() {
+    assertThat(catchThrowable(() -> new Rule<>("int", int.class, i -> true, i -> { })))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("type must not be a primitive type.");
+  }
+}
@@ -0,0 +1,247 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Classifies an object by its type, returning the index of the first of an ordered list of cases which it matches,
+ * in constant time, regardless of the number of cases, as a Java 17 equivalent of the type switch (pattern matching
+ * for switch) finalised in JDK 21.
+ * <p>
+ * Each case is a type, and optionally a guard, which an object must also meet, e.g. the case
+ * {@code caseOf(String.class, s -> s.length() > 1)} is equivalent to {@code case String s when s.length() > 1}. The
+ * result of {@link #classify(Object)} is typically used in a switch on the case index -
+ * <pre>
+ * private static final TypeSwitch SWITCH = TypeSwitch.builder()
+ *   .caseOf(String.class, s -&gt; s.length() &gt; 1)
+ *   .caseOf(Integer.class)
+ *   .build();
+ *
+ * switch (SWITCH.classify(obj)) {
+ *   case 0 -&gt; ...
+ *   case 1 -&gt; ...
+ *   default -&gt; ...
+ * }
+ * </pre>
+ * Testing an object against a chain of instanceof patterns costs time proportional to the number of cases it's tested
+ * against before one matches. Instead, as in the JDK's implementation ({@code java.lang.runtime.SwitchBootstraps}),
+ * the indexes of the cases whose type each class of object is an instance of are resolved the first time an object of
+ * that class is classified, and cached in a {@link ClassValue}. From then on, classifying an object costs a lookup,
+ * plus testing the guards of any guarded cases for its class which precede the one it matches. As each switch has
+ * its own cache, an instance should be created once per call site, and held in a static final field.
+ * <p>
+ * As with a switch statement, building a switch fails if a case can never be selected because it's dominated by an
+ * earlier, unguarded case for the same type or a supertype. A switch can also be checked for exhaustiveness, for a
+ * sealed type, at the time it's built, rather than when it's compiled (see {@link Builder#exhaustiveFor(Class)}).
+ */
+public final class TypeSwitch {
+
+  private final Class<?>[] types;
+  private final Predicate<Object>[] guards;
+  private final ClassValue<int[]> candidateCases = new ClassValue<>() {
+    @Override
+    protected int[] computeValue(Class<?> type) {
+      return IntStream.range(0, TypeSwitch.this.types.length)
+        .filter(i -> TypeSwitch.this.types[i].isAssignableFrom(type))
+        .toArray();
+    }
+  };
+
+  private TypeSwitch(Class<?>[] types, Predicate<Object>[] guards) {
+    this.types = types;
+    this.guards = guards;
+  }
+
+  /**
+   * @param types The type of each case, in order, none of which are guarded.
+   * @return A switch on the supplied types.
+   * @throws IllegalArgumentException if a case is dominated by an earlier case.
+   */
+  public static TypeSwitch of(Class<?>... types) {
+    final Builder builder = builder();
+    for (Class<?> type : types)
+      builder.caseOf(type);
+    return builder.build();
+  }
+
+  /** @return A builder of a switch. */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Classifies the supplied object.
+   *
+   * @param target The object.
+   * @return The index of the first case whose type the object is an instance of, and whose guard, if any, it meets;
+   * -1 if the object is null; or the number of cases if it matches none of them, which is the index of an (implicit)
+   * default case.
+   */
+  public int classify(Object target) {
+    if (target == null)
+      return -1;
+    for (int index : this.candidateCases.get(target.getClass())) {
+      final Predicate<Object> guard = this.guards[index];
+      if (guard == null || guard.test(target))
+        return index;
+    }
+    return this.types.length;
+  }
+
+  /**
+   * Classifies the supplied object by type alone, starting from the supplied case, with the same contract as the
+   * JDK's {@code SwitchBootstraps.typeSwitch}. Supports callers implementing their own guards, by restarting the
+   * switch from the case after one whose guard isn't met.
+   *
+   * @param target The object.
+   * @param restart The index of the case to start from.
+   * @return The index of the first case, starting from the supplied case, whose type the object is an instance of,
+   * ignoring guards; -1 if the object is null; or the number of cases if it matches none of them.
+   * @throws IndexOutOfBoundsException if the restart index is negative, or greater than the number of cases.
+   */
+  public int typeSwitch(Object target, int restart) {
+    Objects.checkIndex(restart, this.types.length + 1);
+    if (target == null)
+      return -1;
+    for (int index : this.candidateCases.get(target.getClass())) {
+      if (index >= restart)
+        return index;
+    }
+    return this.types.length;
+  }
+
+  /** @return The number of cases. */
+  public int size() {
+    return this.types.length;
+  }
+
+  /**
+   * Builder of a {@link TypeSwitch}.
+   */
+  public static final class Builder {
+
+    private final List<Class<?>> types = new ArrayList<>();
+    private final List<Predicate<Object>> guards = new ArrayList<>();
+    private final List<Class<?>> exhaustiveFor = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Adds an unguarded case for the supplied type.
+     *
+     * @param type The type.
+     * @return This builder.
+     * @throws IllegalArgumentException if the type is primitive, or the case is dominated by an earlier, unguarded
+     * case.
+     */
+    public Builder caseOf(Class<?> type) {
+      return addCase(type, null);
+    }
+
+    /**
+     * Adds a case for the supplied type, which only matches objects of that type which meet the supplied guard.
+     *
+     * @param type The type.
+     * @param guard The guard.
+     * @param <S> The type.
+     * @return This builder.
+     * @throws IllegalArgumentException if the type is primitive, or the case is dominated by an earlier, unguarded
+     * case.
+     */
+    @SuppressWarnings("unchecked")
+    public <S> Builder caseOf(Class<S> type, Predicate<? super S> guard) {
+      return addCase(type, (Predicate<Object>) Objects.requireNonNull(guard, "guard must not be null."));
+    }
+
+    /**
+     * Requires the switch to be exhaustive for the supplied sealed type, i.e. to have an unguarded case for every
+     * type of object of the sealed type, either its own, or one for a supertype. A sealed type's permitted subclasses
+     * are covered recursively, so an abstract sealed type doesn't need a case of its own, but a non-sealed type
+     * does, as it may be extended by classes which aren't known when the switch is built.
+     *
+     * @param sealedType The sealed type.
+     * @return This builder.
+     * @throws IllegalArgumentException if the supplied type is not sealed.
+     */
+    public Builder exhaustiveFor(Class<?> sealedType) {
+      Objects.requireNonNull(sealedType, "sealedType must not be null.");
+      if (!sealedType.isSealed())
+        throw new IllegalArgumentException("Type [" + sealedType.getName() + "] is not sealed.");
+      this.exhaustiveFor.add(sealedType);
+      return this;
+    }
+
+    /**
+     * @return The switch.
+     * @throws IllegalStateException if the switch is not exhaustive for a sealed type it's required to be.
+     */
+    @SuppressWarnings("unchecked")
+    public TypeSwitch build() {
+      for (Class<?> sealedType : this.exhaustiveFor) {
+        final List<Class<?>> uncovered = new ArrayList<>();
+        findUncovered(sealedType, uncovered);
+        if (!uncovered.isEmpty())
+          throw new IllegalStateException("Switch is not exhaustive for [" + sealedType.getName() + "], no case for "
+            + uncovered.stream().map(Class::getName).collect(Collectors.joining(", ", "[", "]")) + ".");
+      }
+      return new TypeSwitch(this.types.toArray(Class<?>[]::new), this.guards.toArray(Predicate[]::new));
+    }
+
+    private Builder addCase(Class<?> type, Predicate<Object> guard) {
+      Objects.requireNonNull(type, "type must not be null.");
+      if (type.isPrimitive())
+        throw new IllegalArgumentException("type must not be a primitive type.");
+      for (int i = 0; i < this.types.size(); i++) {
+        if (this.guards.get(i) == null && this.types.get(i).isAssignableFrom(type))
+          throw new IllegalArgumentException("Case [" + this.types.size() + "] for type [" + type.getName()
+            + "] is dominated by case [" + i + "] for type [" + this.types.get(i).getName() + "].");
+      }
+      this.types.add(type);
+      this.guards.add(guard);
+      return this;
+    }
+
+    /** Adds those of the supplied type and its permitted subclasses (recursively) which aren't covered by a case. */
+    private void findUncovered(Class<?> type, List<Class<?>> uncovered) {
+      if (isCovered(type))
+        return;
+      final boolean concrete = !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+      if (!type.isSealed() || concrete) {
+        uncovered.add(type);
+        return;
+      }
+      for (Class<?> subclass : type.getPermittedSubclasses())
+        findUncovered(subclass, uncovered);
+    }
+
+    /** @return true if there's an unguarded case for the supplied type, or one of its supertypes. */
+    private boolean isCovered(Class<?> type) {
+      for (int i = 0; i < this.types.size(); i++) {
+        if (this.guards.get(i) == null && this.types.get(i).isAssignableFrom(type))
+          return true;
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TypeSwitch}.
+ */
+public class TypeSwitchTest {
+
+  /**
+   * Tests classifying objects against unguarded cases, including cases for supertypes and interfaces, which are
+   * matched in order.
+   */
+  @Test
+  public void test_classify() {
+    final TypeSwitch typeSwitch = TypeSwitch.of(String.class, Integer.class, CharSequence.class, Number.class);
+
+    assertThat(typeSwitch.classify("foo")).isEqualTo(0);
+    assertThat(typeSwitch.classify(42)).isEqualTo(1);
+    assertThat(typeSwitch.classify(new StringBuilder())).isEqualTo(2);
+    assertThat(typeSwitch.classify(42L)).isEqualTo(3);
+    assertThat(typeSwitch.classify(new Object())).isEqualTo(4);
+    assertThat(typeSwitch.classify(null)).isEqualTo(-1);
+    assertThat(typeSwitch.size()).isEqualTo(4);
+  }
+
+  /**
+   * Tests classifying objects against guarded cases, equivalent to the instanceof pattern
+   * {@code obj instanceof String s && s.length() > 1} in {@link InstanceOfPatternMatchingExamplesTest}.
+   */
+  @Test
+  public void test_classify_guarded() {
+    final TypeSwitch typeSwitch = TypeSwitch.builder()
+      .caseOf(String.class, s -> s.length() > 1)
+      .caseOf(Integer.class, i -> i > 0)
+      .caseOf(String.class)
+      .build();
+
+    assertThat(typeSwitch.classify("foo")).isEqualTo(0);
+    assertThat(typeSwitch.classify("f")).isEqualTo(2);
+    assertThat(typeSwitch.classify(1)).isEqualTo(1);
+    assertThat(typeSwitch.classify(-1)).isEqualTo(3);
+  }
+
+  /**
+   * Tests that the guards of cases which don't match an object's type are not tested.
+   */
+  @Test
+  public void test_classify_onlyCandidateGuardsTested() {
+    final List<Object> tested = new ArrayList<>();
+    final TypeSwitch typeSwitch = TypeSwitch.builder()
+      .caseOf(Integer.class, i -> tested.add(i) && false)
+      .caseOf(String.class, s -> tested.add(s) && false)
+      .build();
+
+    assertThat(typeSwitch.classify("foo")).isEqualTo(2);
+    assertThat(tested).containsExactly("foo");
+  }
+
+  /**
+   * Tests classifying objects by type alone, restarting from a case, as for the JDK's
+   * {@code SwitchBootstraps.typeSwitch}.
+   */
+  @Test
+  public void test_typeSwitch() {
+    final TypeSwitch typeSwitch = TypeSwitch.builder()
+      .caseOf(String.class, s -> s.isEmpty())
+      .caseOf(Integer.class)
+      .caseOf(CharSequence.class)
+      .build();
+
+    assertThat(typeSwitch.typeSwitch("", 0)).isEqualTo(0);
+    assertThat(typeSwitch.typeSwitch("", 1)).isEqualTo(2);
+    assertThat(typeSwitch.typeSwitch("", 3)).isEqualTo(3);
+    assertThat(typeSwitch.typeSwitch(1, 2)).isEqualTo(3);
+    assertThat(typeSwitch.typeSwitch(null, 0)).isEqualTo(-1);
+    assertThat(catchThrowable(() -> typeSwitch.typeSwitch("", 4))).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  /**
+   * Tests that a case which is dominated by an earlier, unguarded, case, so can never be selected, is rejected.
+   */
+  @Test
+  public void test_build_dominatedCase() {
+    assertThat(catchThrowable(() -> TypeSwitch.of(CharSequence.class, String.class)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Case [1] for type [java.lang.String] is dominated by case [0] for type [java.lang.CharSequence].");
+    // The case is rejected when it's added, before the switch is built
+    assertThat(catchThrowable(() -> TypeSwitch.builder().caseOf(CharSequence.class).caseOf(String.class)))
+      .isInstanceOf(IllegalArgumentException.class);
+    // A guarded case doesn't dominate later cases
+    assertThat(TypeSwitch.builder().caseOf(CharSequence.class, cs -> true).caseOf(String.class).build().size())
+      .isEqualTo(2);
+  }
+
+  /**
+   * Tests checking that a switch has a case for every type of a sealed hierarchy.
+   */
+  @Test
+  public void test_build_exhaustive() {
+    // A case for each concrete type, or a supertype
+    assertThat(TypeSwitch.builder().exhaustiveFor(Shape.class)
+      .caseOf(Circle.class)
+      .caseOf(Polygon.class)
+      .caseOf(Other.class)
+      .build().size()).isEqualTo(3);
+    assertThat(TypeSwitch.builder().exhaustiveFor(Shape.class)
+      .caseOf(Circle.class)
+      .caseOf(Square.class)
+      .caseOf(Triangle.class)
+      .caseOf(Other.class)
+      .build().size()).isEqualTo(4);
+  }
+
+  /**
+   * Tests that a switch which lacks a case for one of the types of a sealed hierarchy, or only has a guarded case, is
+   * reported as not exhaustive.
+   */
+  @Test
+  public void test_build_notExhaustive() {
+    final TypeSwitch.Builder builder = TypeSwitch.builder().exhaustiveFor(Shape.class)
+      .caseOf(Circle.class, circle -> circle.radius() > 1)
+      .caseOf(Square.class);
+
+    assertThat(catchThrowable(builder::build))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Switch is not exhaustive for [" + Shape.class.getName() + "], no case for ["
+        + Circle.class.getName() + ", " + Triangle.class.getName() + ", " + Other.class.getName() + "].");
+    assertThat(catchThrowable(() -> TypeSwitch.builder().exhaustiveFor(Object.class)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Type [java.lang.Object] is not sealed.");
+  }
+
+  sealed interface Shape permits Circle, Polygon, Other {
+  }
+
+  record Circle(double radius) implements Shape {
+  }
+
+  sealed interface Polygon extends Shape permits Square, Triangle {
+  }
+
+  record Square(double side) implements Polygon {
+  }
+
+  record Triangle(double base, double height) implements Polygon {
+  }
+
+  // Non-sealed, so may be extended by unknown classes, and can only be covered by a case of its own (or the root)
+  static non-sealed class Other implements Shape {
+  }
+}
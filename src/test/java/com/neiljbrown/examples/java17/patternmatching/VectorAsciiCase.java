@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.patternmatching;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of {@link AsciiCase} using the Vector API, which converts as many bytes at a time as fit in the
+ * platform's preferred vector size (e.g. 32 bytes for 256-bit AVX2 registers).
+ * <p>
+ * This class references the jdk.incubator.vector module, so must only be loaded if that is available at runtime.
+ */
+final class VectorAsciiCase {
+
+  private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+  private VectorAsciiCase() {
+  }
+
+  /**
+   * Converts the case of the 26 ASCII letters starting from the supplied letter, for as many bytes as fill a whole
+   * number of vectors.
+   *
+   * @return The number of bytes converted. The caller is responsible for converting any remaining bytes.
+   */
+  static int convert(byte[] src, int srcOffset, byte[] dst, int dstOffset, int length, byte first) {
+    final int bound = SPECIES.loopBound(length);
+    final byte last = (byte) (first + 25);
+    for (int i = 0; i < bound; i += SPECIES.length()) {
+      final ByteVector bytes = ByteVector.fromArray(SPECIES, src, srcOffset + i);
+      // Bytes are signed, so those which aren't ASCII are negative, and never letters
+      final VectorMask<Byte> letters =
+        bytes.compare(VectorOperators.GE, first).and(bytes.compare(VectorOperators.LE, last));
+      bytes.lanewise(VectorOperators.XOR, (byte) 0x20, letters).intoArray(dst, dstOffset + i);
+    }
+    return bound;
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+/**
+ * Represents an operation that accepts two int-valued arguments and returns no result. This is the primitive
+ * specialisation of {@link java.util.function.BiConsumer} for a pair of ints, which the JDK doesn't provide. It
+ * supports iterating over the components of a two-int Record, such as {@link Range}, without boxing or creating an
+ * instance of the Record.
+ */
+@FunctionalInterface
+public interface IntIntConsumer {
+
+  /**
+   * Performs this operation on the given arguments.
+   *
+   * @param first The first argument.
+   * @param second The second argument.
+   */
+  void accept(int first, int second);
+}
@@ -0,0 +1,248 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A hash map whose keys are a pair of ints, such as the components of a two-int Record used as a composite key, e.g.
+ * {@link Range}, which stores the keys inline, rather than as objects.
+ * <p>
+ * Using a Record as the key of a {@link java.util.HashMap} costs an object for each key, plus an object (node) for each
+ * entry, and a pointer chase from the table to the node, and from the node to the key, on every lookup. This map
+ * instead packs the two ints of each key into a single long, stored in a primitive array, alongside a parallel array
+ * of values. Collisions are resolved using open addressing (linear probing), and entries are removed by shifting
+ * later entries of the same probe sequence back, so that there are no tombstones. As a result, lookups, inserts and
+ * removals don't box or allocate, and each entry occupies a slot in each of the two arrays (12 bytes with compressed
+ * references, at a load factor of up to 0.75).
+ * <p>
+ * Null values are not supported. This class is not thread-safe.
+ *
+ * @param <V> The type of value.
+ */
+public final class IntPairMap<V> {
+
+  private static final int MIN_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  private long[] keys;
+  // An empty slot is denoted by a null value
+  private Object[] values;
+  private int mask;
+  private int size;
+  private int resizeThreshold;
+
+  /** Creates an empty map with a default initial capacity. */
+  public IntPairMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * @param expectedSize The number of entries the map is expected to hold, used to size it so that it doesn't need to
+   * be resized until that number is exceeded.
+   */
+  public IntPairMap(int expectedSize) {
+    if (expectedSize < 0)
+      throw new IllegalArgumentException("expectedSize must be zero or greater.");
+    allocate(tableSizeFor(expectedSize));
+  }
+
+  /** @return The number of entries in the map. */
+  public int size() {
+    return this.size;
+  }
+
+  /** @return true if the map contains no entries, otherwise false. */
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * @param first The first int of the key.
+   * @param second The second int of the key.
+   * @return The value mapped to the key, or null if there is none.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(int first, int second) {
+    final int slot = findSlot(pack(first, second));
+    return slot < 0 ? null : (V) this.values[slot];
+  }
+
+  /**
+   * @param first The first int of the key.
+   * @param second The second int of the key.
+   * @return true if the map contains a value for the key, otherwise false.
+   */
+  public boolean containsKey(int first, int second) {
+    return findSlot(pack(first, second)) >= 0;
+  }
+
+  /**
+   * Maps the supplied key to the supplied value, replacing any existing value.
+   *
+   * @param first The first int of the key.
+   * @param second The second int of the key.
+   * @param value The value.
+   * @return The previous value mapped to the key, or null if there was none.
+   */
+  @SuppressWarnings("unchecked")
+  public V put(int first, int second, V value) {
+    Objects.requireNonNull(value, "value must not be null.");
+    final long key = pack(first, second);
+    int slot = hash(key) & this.mask;
+    while (this.values[slot] != null) {
+      if (this.keys[slot] == key) {
+        final V previous = (V) this.values[slot];
+        this.values[slot] = value;
+        return previous;
+      }
+      slot = (slot + 1) & this.mask;
+    }
+    if (this.size == this.resizeThreshold) {
+      resize();
+      slot = hash(key) & this.mask;
+      while (this.values[slot] != null)
+        slot = (slot + 1) & this.mask;
+    }
+    this.keys[slot] = key;
+    this.values[slot] = value;
+    this.size++;
+    return null;
+  }
+
+  /**
+   * Removes the mapping for the supplied key, if any.
+   *
+   * @param first The first int of the key.
+   * @param second The second int of the key.
+   * @return The value that was mapped to the key, or null if there was none.
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(int first, int second) {
+    int slot = findSlot(pack(first, second));
+    if (slot < 0)
+      return null;
+    final V removed = (V) this.values[slot];
+    this.size--;
+    // Shift back any later entries in the probe sequence which would otherwise no longer be reachable
+    int next = (slot + 1) & this.mask;
+    while (this.values[next] != null) {
+      final int home = hash(this.keys[next]) & this.mask;
+      // The entry can be moved to the vacated slot if its home slot is not (cyclically) within (slot, next]
+      if (((next - home) & this.mask) >= ((next - slot) & this.mask)) {
+        this.keys[slot] = this.keys[next];
+        this.values[slot] = this.values[next];
+        slot = next;
+      }
+      next = (next + 1) & this.mask;
+    }
+    this.values[slot] = null;
+    return removed;
+  }
+
+  /** Removes all the entries in the map. */
+  public void clear() {
+    Arrays.fill(this.values, null);
+    this.size = 0;
+  }
+
+  /**
+   * Performs the given action for each entry in the map, in no particular order.
+   *
+   * @param action The action to perform.
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(EntryConsumer<? super V> action) {
+    Objects.requireNonNull(action, "action must not be null.");
+    for (int slot = 0; slot < this.values.length; slot++) {
+      if (this.values[slot] != null)
+        action.accept((int) (this.keys[slot] >>> 32), (int) this.keys[slot], (V) this.values[slot]);
+    }
+  }
+
+  /**
+   * An operation performed on an entry of the map.
+   *
+   * @param <V> The type of value.
+   */
+  @FunctionalInterface
+  public interface EntryConsumer<V> {
+    /**
+     * @param first The first int of the entry's key.
+     * @param second The second int of the entry's key.
+     * @param value The entry's value.
+     */
+    void accept(int first, int second, V value);
+  }
+
+  /** @return The slot holding the supplied key, or -1 if it's not in the map. */
+  private int findSlot(long key) {
+    int slot = hash(key) & this.mask;
+    while (this.values[slot] != null) {
+      if (this.keys[slot] == key)
+        return slot;
+      slot = (slot + 1) & this.mask;
+    }
+    return -1;
+  }
+
+  private void resize() {
+    if (this.keys.length == MAX_CAPACITY)
+      throw new IllegalStateException("Map has reached its maximum capacity.");
+    final long[] oldKeys = this.keys;
+    final Object[] oldValues = this.values;
+    allocate(oldKeys.length * 2);
+    for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+      if (oldValues[oldSlot] != null) {
+        int slot = hash(oldKeys[oldSlot]) & this.mask;
+        while (this.values[slot] != null)
+          slot = (slot + 1) & this.mask;
+        this.keys[slot] = oldKeys[oldSlot];
+        this.values[slot] = oldValues[oldSlot];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    this.keys = new long[capacity];
+    this.values = new Object[capacity];
+    this.mask = capacity - 1;
+    this.resizeThreshold = capacity / 4 * 3;
+  }
+
+  /** @return The power of two table size required to hold the expected number of entries. */
+  private static int tableSizeFor(int expectedSize) {
+    final long required = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / 0.75));
+    if (required >= MAX_CAPACITY)
+      return MAX_CAPACITY;
+    return Integer.highestOneBit((int) required - 1) << 1;
+  }
+
+  private static long pack(int first, int second) {
+    return ((long) first << 32) | (second & 0xFFFFFFFFL);
+  }
+
+  /** @return A well-distributed hash of the key (the finalisation step of MurmurHash3). */
+  private static int hash(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+}
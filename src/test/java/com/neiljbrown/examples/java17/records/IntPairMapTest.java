@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IntPairMap}.
+ */
+public class IntPairMapTest {
+
+  /**
+   * Tests the basic operations of the map, using the components of a two-int Record as the key.
+   */
+  @Test
+  public void test_putGetRemove() {
+    final IntPairMap<String> map = new IntPairMap<>();
+    final Range range = new Range(1, 2);
+
+    assertThat(map.put(range.min(), range.max(), "a")).isNull();
+    assertThat(map.put(range.min(), range.max(), "b")).isEqualTo("a");
+    assertThat(map.put(-1, Integer.MIN_VALUE, "c")).isNull();
+
+    assertThat(map.size()).isEqualTo(2);
+    assertThat(map.get(1, 2)).isEqualTo("b");
+    assertThat(map.get(2, 1)).as("Expected order of key components to be significant.").isNull();
+    assertThat(map.get(-1, Integer.MIN_VALUE)).isEqualTo("c");
+    assertThat(map.containsKey(-1, Integer.MIN_VALUE)).isTrue();
+
+    assertThat(map.remove(1, 2)).isEqualTo("b");
+    assertThat(map.remove(1, 2)).isNull();
+    assertThat(map.containsKey(1, 2)).isFalse();
+    assertThat(map.size()).isEqualTo(1);
+
+    map.clear();
+    assertThat(map.isEmpty()).isTrue();
+  }
+
+  /**
+   * Tests a large, random sequence of operations, which causes the map to be resized and entries to be shifted on
+   * removal, against a {@link HashMap} keyed by a Record.
+   */
+  @Test
+  public void test_randomOperationsMatchHashMap() {
+    record Key(int first, int second) { }
+    final Random random = new Random(42);
+    final IntPairMap<Integer> map = new IntPairMap<>();
+    final Map<Key, Integer> expected = new HashMap<>();
+
+    for (int i = 0; i < 200_000; i++) {
+      final int first = random.nextInt(200), second = random.nextInt(200);
+      if (random.nextInt(3) == 0)
+        assertThat(map.remove(first, second)).isEqualTo(expected.remove(new Key(first, second)));
+      else
+        assertThat(map.put(first, second, i)).isEqualTo(expected.put(new Key(first, second), i));
+    }
+
+    assertThat(map.size()).isEqualTo(expected.size());
+    expected.forEach((key, value) -> assertThat(map.get(key.first(), key.second())).isEqualTo(value));
+    final Map<Key, Integer> actual = new HashMap<>();
+    map.forEach((first, second, value) -> actual.put(new Key(first, second), value));
+    assertThat(actual).isEqualTo(expected);
+  }
+}
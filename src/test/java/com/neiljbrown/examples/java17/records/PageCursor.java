@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A cursor over the sequence of {@link PagedResult} pages of a query, fetched from a {@link PageSource}, which
+ * prefetches the next page in the background whilst the caller consumes the current one.
+ * <p>
+ * The cursor follows each page's {@link PagedResult#moreItems() moreItems} flag to decide whether there's a next page.
+ * As soon as a page is returned to the caller, the next page (if any) is fetched using the supplied {@link Executor},
+ * so that fetching and processing pages overlap, rather than the caller stalling at every page boundary. Fetching the
+ * first page starts when the cursor is created.
+ * <p>
+ * The pages can be consumed one at a time, using {@link #hasNextPage()} and {@link #nextPage()}, or the items of all
+ * the pages can be consumed as a lazy {@link Stream}, using {@link #stream()}.
+ * <p>
+ * A cursor should be closed if it's abandoned before its last page is consumed, to cancel any outstanding prefetch.
+ * This class is not thread-safe.
+ */
+public final class PageCursor implements AutoCloseable {
+
+  private final PageSource source;
+  private final Executor executor;
+  // The page being prefetched, or null if there are no more pages
+  private CompletableFuture<PagedResult> nextPage;
+  private int nextPageIndex;
+
+  /**
+   * @param source The source of the pages.
+   * @param executor The executor used to fetch pages in the background.
+   */
+  public PageCursor(PageSource source, Executor executor) {
+    this.source = Objects.requireNonNull(source, "source must not be null.");
+    this.executor = Objects.requireNonNull(executor, "executor must not be null.");
+    this.nextPage = prefetch();
+  }
+
+  /** @return true if there's another page to consume, otherwise false. */
+  public boolean hasNextPage() {
+    return this.nextPage != null;
+  }
+
+  /**
+   * Returns the next page, waiting for it to be fetched if necessary, and starts prefetching the page after it.
+   *
+   * @return The next page.
+   * @throws NoSuchElementException if there are no more pages.
+   * @throws RuntimeException if the page source failed to fetch the page, in which case the cursor has no more pages.
+   */
+  public PagedResult nextPage() {
+    if (this.nextPage == null)
+      throw new NoSuchElementException("No more pages.");
+    final PagedResult page;
+    try {
+      page = this.nextPage.join();
+    } catch (CompletionException e) {
+      this.nextPage = null;
+      throw e.getCause() instanceof RuntimeException cause ? cause : e;
+    }
+    this.nextPage = page.moreItems() ? prefetch() : null;
+    return page;
+  }
+
+  /**
+   * Returns a sequential, lazy stream of the items of all the remaining pages, in order. Pages are consumed from this
+   * cursor as the stream is traversed. Closing the stream closes this cursor.
+   *
+   * @return The stream.
+   */
+  public Stream<String> stream() {
+    return StreamSupport.stream(new ItemSpliterator(), false).onClose(this::close);
+  }
+
+  /** Cancels the prefetch of the next page, if any. After closing, the cursor has no more pages. */
+  @Override
+  public void close() {
+    if (this.nextPage != null) {
+      this.nextPage.cancel(false);
+      this.nextPage = null;
+    }
+  }
+
+  private CompletableFuture<PagedResult> prefetch() {
+    final int pageIndex = this.nextPageIndex++;
+    return CompletableFuture.supplyAsync(() -> this.source.fetchPage(pageIndex), this.executor);
+  }
+
+  /**
+   * Spliterator over the items of the remaining pages. Splitting hands off the remaining items of the current page (a
+   * prefix of the sequence), supporting processing them in parallel whilst this spliterator moves on to the next page.
+   */
+  private final class ItemSpliterator implements Spliterator<String> {
+    private List<String> items = List.of();
+    private int index;
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+      while (this.index == this.items.size()) {
+        if (!hasNextPage())
+          return false;
+        this.items = nextPage().items();
+        this.index = 0;
+      }
+      action.accept(this.items.get(this.index++));
+      return true;
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+      if (this.index == this.items.size())
+        return null;
+      final List<String> remaining = this.items.subList(this.index, this.items.size());
+      this.items = List.of();
+      this.index = 0;
+      return Spliterators.spliterator(remaining, characteristics());
+    }
+
+    @Override
+    public long estimateSize() {
+      return hasNextPage() ? Long.MAX_VALUE : this.items.size() - this.index;
+    }
+
+    @Override
+    public int characteristics() {
+      return ORDERED | NONNULL;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PageCursor}, using an in-memory {@link PageSource}. Tests of prefetching wrap the source in
+ * one which is gated by latches, to prove that pages are fetched whilst the caller consumes the previous page, without
+ * relying on timings.
+ */
+public class PageCursorTest {
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  public void setUp() {
+    this.executor = Executors.newCachedThreadPool();
+  }
+
+  @AfterEach
+  public void tearDown() {
+    this.executor.shutdownNow();
+  }
+
+  /**
+   * Tests consuming the pages one at a time.
+   */
+  @Test
+  public void test_nextPage() {
+    final InMemoryPageSource source = new InMemoryPageSource(3, 2);
+    try (PageCursor cursor = new PageCursor(source, this.executor)) {
+      assertThat(cursor.nextPage().items()).containsExactly("item0", "item1");
+      assertThat(cursor.nextPage().items()).containsExactly("item2", "item3");
+      final PagedResult lastPage = cursor.nextPage();
+      assertThat(lastPage.moreItems()).isFalse();
+      assertThat(cursor.hasNextPage()).isFalse();
+      assertThat(catchThrowable(cursor::nextPage)).isInstanceOf(NoSuchElementException.class);
+    }
+  }
+
+  /**
+   * Tests that the next page is fetched in the background whilst the current page is being consumed. The source
+   * blocks fetching page 1 until the test releases it, which it only does once page 0 has been returned to it, and the
+   * fetch of page 1 has started. This proves the fetch of page 1 starts without the caller asking for it, and doesn't
+   * hold up the return of page 0.
+   */
+  @Test
+  public void test_nextPage_prefetches() {
+    final CountDownLatch page1Requested = new CountDownLatch(1);
+    final CountDownLatch page1Released = new CountDownLatch(1);
+    final InMemoryPageSource delegate = new InMemoryPageSource(2, 1);
+    final PageSource source = pageIndex -> {
+      if (pageIndex == 1) {
+        page1Requested.countDown();
+        if (!await(page1Released))
+          throw new IllegalStateException("Page 1 fetched before page 0 was returned to the caller.");
+      }
+      return delegate.fetchPage(pageIndex);
+    };
+    try (PageCursor cursor = new PageCursor(source, this.executor)) {
+      assertThat(cursor.nextPage().items()).containsExactly("item0");
+      assertThat(await(page1Requested))
+        .as("Expected page 1 to be fetched whilst the caller consumes page 0.")
+        .isTrue();
+      page1Released.countDown();
+      assertThat(cursor.nextPage().items()).containsExactly("item1");
+    }
+  }
+
+  /**
+   * Tests consuming all the items of all the pages as a lazy stream, with fetching overlapping processing. The source
+   * blocks fetching each page (after the first) until processing of the previous page has started, and processing of
+   * each page (before the last) waits for the fetch of the next page to start, so the test only completes if each page
+   * is fetched whilst the previous one is processed.
+   */
+  @Test
+  public void test_stream() {
+    final int pageCount = 5;
+    final int pageSize = 10;
+    final CountDownLatch[] fetchStarted = newLatches(pageCount);
+    final CountDownLatch[] processingStarted = newLatches(pageCount);
+    final InMemoryPageSource delegate = new InMemoryPageSource(pageCount, pageSize);
+    final PageSource source = pageIndex -> {
+      fetchStarted[pageIndex].countDown();
+      if (pageIndex > 0 && !await(processingStarted[pageIndex - 1]))
+        throw new IllegalStateException("Page [" + pageIndex + "] fetched before page [" + (pageIndex - 1) +
+          "] was processed.");
+      return delegate.fetchPage(pageIndex);
+    };
+
+    final List<String> items;
+    try (Stream<String> stream = new PageCursor(source, this.executor).stream()) {
+      items = stream.peek(item -> {
+        final int itemIndex = Integer.parseInt(item.substring("item".length()));
+        if (itemIndex % pageSize == 0) {
+          final int pageIndex = itemIndex / pageSize;
+          processingStarted[pageIndex].countDown();
+          if (pageIndex < pageCount - 1)
+            assertThat(await(fetchStarted[pageIndex + 1]))
+              .as("Expected page [%d] to be fetched whilst page [%d] is processed.", pageIndex + 1, pageIndex)
+              .isTrue();
+        }
+      }).collect(Collectors.toList());
+    }
+
+    assertThat(items).containsExactlyElementsOf(
+      IntStream.range(0, pageCount * pageSize).mapToObj(i -> "item" + i).collect(Collectors.toList()));
+  }
+
+  /**
+   * Tests that a failure to fetch a page is reported to the caller.
+   */
+  @Test
+  public void test_nextPage_sourceFails() {
+    final PageSource source = pageIndex -> {
+      throw new IllegalStateException("Fetch failed.");
+    };
+    try (PageCursor cursor = new PageCursor(source, this.executor)) {
+      assertThat(catchThrowable(cursor::nextPage))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("Fetch failed.");
+      assertThat(cursor.hasNextPage()).isFalse();
+    }
+  }
+
+  private static CountDownLatch[] newLatches(int count) {
+    final CountDownLatch[] latches = new CountDownLatch[count];
+    for (int i = 0; i < count; i++)
+      latches[i] = new CountDownLatch(1);
+    return latches;
+  }
+
+  /** @return true if the latch reached zero, or false if waiting timed out, so that a broken test fails, not hangs. */
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** An in-memory source of pages of generated items. */
+  private record InMemoryPageSource(int pageCount, int pageSize) implements PageSource {
+    @Override
+    public PagedResult fetchPage(int pageIndex) {
+      final List<String> items = IntStream.range(pageIndex * this.pageSize, (pageIndex + 1) * this.pageSize)
+        .mapToObj(i -> "item" + i)
+        .collect(Collectors.toList());
+      return new PagedResult(items, pageIndex < this.pageCount - 1);
+    }
+  }
+}
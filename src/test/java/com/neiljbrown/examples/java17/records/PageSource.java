@@ -0,0 +1,32 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+/**
+ * A source of the pages of results of a query, such as a remote API or a database, which are fetched one at a time.
+ * Used by {@link PageCursor}.
+ */
+@FunctionalInterface
+public interface PageSource {
+
+  /**
+   * Fetches a page of results. The source is only asked for a page if the preceding page reported it has more items.
+   *
+   * @param pageIndex The zero-based index of the page to fetch.
+   * @return The page.
+   */
+  PagedResult fetchPage(int pageIndex);
+}
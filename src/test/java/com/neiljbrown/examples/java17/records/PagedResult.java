@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.List;
+
+/**
+ * One page of the results of a query, declared as a Record.
+ * <p>
+ * This is a top-level version of the Record declared in
+ * {@link RecordsExamplesTest#test_overrideCanonicalConstructor()}, so that it can be shared by the classes which build
+ * on it, such as {@link RecordCodec}.
+ * <p>
+ * The items are defensively copied, unless they're supplied as a {@link PersistentList}, which supports accumulating
+ * the items of many pages without repeatedly copying them. See {@link #concat(PagedResult)}.
+ *
+ * @param items The items in the page.
+ * @param moreItems true if there are further pages of items, otherwise false.
+ */
+public record PagedResult(List<String> items, boolean moreItems) {
+
+  public PagedResult(List<String> items, boolean moreItems) {
+    // Items already held in a PersistentList are immutable, so can be shared rather than copied
+    this.items = items instanceof PersistentList<String> persistentItems ? persistentItems : List.copyOf(items);
+    this.moreItems = moreItems;
+  }
+
+  /**
+   * Concatenates the items of this page with those of the next page, in O(log n) time (plus the cost of copying the
+   * items of the next page, only if they're not already held in a {@link PersistentList}).
+   *
+   * @param next The next page.
+   * @return A new result containing the items of this page followed by those of the next page, which has more items
+   * only if the next page does.
+   */
+  public PagedResult concat(PagedResult next) {
+    return new PagedResult(PersistentList.copyOf(this.items).concat(next.items), next.moreItems);
+  }
+}
@@ -0,0 +1,289 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * An immutable (persistent) {@link List}, which supports creating a new list by appending an element, or
+ * concatenating another list, in O(log n) time, by sharing the structure of the existing list(s) rather than copying
+ * their elements.
+ * <p>
+ * The list is implemented as a height-balanced (AVL) binary tree, whose leaves hold the elements in chunks (arrays) of
+ * up to {@link #MAX_LEAF_SIZE} elements. Concatenating two lists joins their trees, rebalancing only along the spine
+ * of the taller one. Accessing an element by index takes O(log n) time, whilst iterating over all the elements takes
+ * O(n) time, so (unlike an {@link java.util.ArrayList}) the list doesn't implement {@link java.util.RandomAccess},
+ * and should be iterated rather than looped over by index.
+ * <p>
+ * Like the lists returned by {@link List#of()} and {@link List#copyOf(Collection)}, the list does not permit null
+ * elements, and all its mutator methods throw {@link UnsupportedOperationException}.
+ *
+ * @param <E> The type of element in the list.
+ */
+public final class PersistentList<E> extends AbstractList<E> {
+
+  /** The maximum number of elements held in each leaf of the tree. */
+  static final int MAX_LEAF_SIZE = 32;
+
+  private static final PersistentList<?> EMPTY = new PersistentList<>(null);
+
+  // The root of the tree, or null if the list is empty
+  private final Node root;
+
+  private PersistentList(Node root) {
+    this.root = root;
+  }
+
+  /**
+   * @param <E> The type of element in the list.
+   * @return An empty list.
+   */
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentList<E> empty() {
+    return (PersistentList<E>) EMPTY;
+  }
+
+  /**
+   * @param elements The elements of the list.
+   * @param <E> The type of element in the list.
+   * @return A new list containing the supplied elements, in order.
+   * @throws NullPointerException if any of the elements is null.
+   */
+  @SafeVarargs
+  @SuppressWarnings("varargs")
+  public static <E> PersistentList<E> of(E... elements) {
+    return copyOf(Arrays.asList(elements));
+  }
+
+  /**
+   * Returns a list containing the elements of the supplied collection, in its iteration order. If the collection is
+   * itself a {@link PersistentList} it's returned, rather than copied.
+   *
+   * @param elements The elements of the list.
+   * @param <E> The type of element in the list.
+   * @return A list containing the supplied elements.
+   * @throws NullPointerException if any of the elements is null.
+   */
+  @SuppressWarnings("unchecked")
+  public static <E> PersistentList<E> copyOf(Collection<? extends E> elements) {
+    if (elements instanceof PersistentList<?> list)
+      return (PersistentList<E>) list;
+    final Object[] array = elements.toArray();
+    for (Object element : array)
+      Objects.requireNonNull(element, "elements must not be null.");
+    Node root = null;
+    for (int start = 0; start < array.length; start += MAX_LEAF_SIZE)
+      root = join(root, new Leaf(Arrays.copyOfRange(array, start, Math.min(start + MAX_LEAF_SIZE, array.length))));
+    return new PersistentList<>(root);
+  }
+
+  /**
+   * @param element The element to append.
+   * @return A new list containing the elements of this list followed by the supplied element.
+   * @throws NullPointerException if the element is null.
+   */
+  public PersistentList<E> append(E element) {
+    Objects.requireNonNull(element, "element must not be null.");
+    final Node appended = this.root == null ? null : appendToLastLeaf(this.root, element);
+    return new PersistentList<>(appended != null ? appended : join(this.root, new Leaf(new Object[] {element})));
+  }
+
+  /**
+   * @param elements The list to concatenate.
+   * @return A new list containing the elements of this list followed by the elements of the supplied list. The
+   * supplied list is only copied if it's not itself a {@link PersistentList}.
+   * @throws NullPointerException if any of the supplied elements is null.
+   */
+  public PersistentList<E> concat(List<? extends E> elements) {
+    final PersistentList<? extends E> other = copyOf(elements);
+    if (other.root == null)
+      return this;
+    return new PersistentList<>(join(this.root, other.root));
+  }
+
+  @Override
+  public E get(int index) {
+    Objects.checkIndex(index, size());
+    Node node = this.root;
+    while (node instanceof Branch branch) {
+      final int leftSize = branch.left().size();
+      if (index < leftSize) {
+        node = branch.left();
+      } else {
+        index -= leftSize;
+        node = branch.right();
+      }
+    }
+    return elementAt((Leaf) node, index);
+  }
+
+  @Override
+  public int size() {
+    return this.root == null ? 0 : this.root.size();
+  }
+
+  /** @return The height of the list's tree, where a single leaf has a height of zero, or -1 if the list is empty. */
+  int height() {
+    return this.root == null ? -1 : this.root.height();
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new LeafIterator();
+  }
+
+  @Override
+  public void forEach(Consumer<? super E> action) {
+    Objects.requireNonNull(action, "action must not be null.");
+    for (Iterator<E> iterator = iterator(); iterator.hasNext(); )
+      action.accept(iterator.next());
+  }
+
+  /** A node of the tree. */
+  private sealed interface Node permits Leaf, Branch {
+    int size();
+
+    int height();
+  }
+
+  /** A leaf node, holding a chunk of elements. */
+  private record Leaf(Object[] elements) implements Node {
+    @Override
+    public int size() {
+      return this.elements.length;
+    }
+
+    @Override
+    public int height() {
+      return 0;
+    }
+  }
+
+  /** A branch node, whose elements are those of its left subtree followed by those of its right subtree. */
+  private record Branch(Node left, Node right, int size, int height) implements Node {
+    Branch(Node left, Node right) {
+      this(left, right, Math.addExact(left.size(), right.size()), Math.max(left.height(), right.height()) + 1);
+    }
+  }
+
+  /** @return A tree containing the elements of the left tree followed by those of the right tree. */
+  private static Node join(Node left, Node right) {
+    if (left == null)
+      return right;
+    if (right == null)
+      return left;
+    if (left instanceof Leaf leftLeaf && right instanceof Leaf rightLeaf
+      && leftLeaf.size() + rightLeaf.size() <= MAX_LEAF_SIZE) {
+      final Object[] elements = Arrays.copyOf(leftLeaf.elements(), leftLeaf.size() + rightLeaf.size());
+      System.arraycopy(rightLeaf.elements(), 0, elements, leftLeaf.size(), rightLeaf.size());
+      return new Leaf(elements);
+    }
+    if (left.height() > right.height() + 1) {
+      final Branch branch = (Branch) left;
+      return balance(branch.left(), join(branch.right(), right));
+    }
+    if (right.height() > left.height() + 1) {
+      final Branch branch = (Branch) right;
+      return balance(join(left, branch.left()), branch.right());
+    }
+    return new Branch(left, right);
+  }
+
+  /** @return A branch of the supplied subtrees, whose heights differ by at most 2, rotated if necessary. */
+  private static Node balance(Node left, Node right) {
+    if (left.height() > right.height() + 1) {
+      final Branch branch = (Branch) left;
+      if (branch.left().height() >= branch.right().height())
+        return new Branch(branch.left(), new Branch(branch.right(), right));
+      final Branch inner = (Branch) branch.right();
+      return new Branch(new Branch(branch.left(), inner.left()), new Branch(inner.right(), right));
+    }
+    if (right.height() > left.height() + 1) {
+      final Branch branch = (Branch) right;
+      if (branch.right().height() >= branch.left().height())
+        return new Branch(new Branch(left, branch.left()), branch.right());
+      final Branch inner = (Branch) branch.left();
+      return new Branch(new Branch(left, inner.left()), new Branch(inner.right(), branch.right()));
+    }
+    return new Branch(left, right);
+  }
+
+  /**
+   * @return A copy of the supplied tree with the element appended to its last leaf, copying only the path to that
+   * leaf, or null if the last leaf is full.
+   */
+  private static Node appendToLastLeaf(Node node, Object element) {
+    if (node instanceof Branch branch) {
+      final Node right = appendToLastLeaf(branch.right(), element);
+      return right == null ? null : new Branch(branch.left(), right);
+    }
+    final Leaf leaf = (Leaf) node;
+    if (leaf.size() == MAX_LEAF_SIZE)
+      return null;
+    final Object[] elements = Arrays.copyOf(leaf.elements(), leaf.size() + 1);
+    elements[leaf.size()] = element;
+    return new Leaf(elements);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <E> E elementAt(Leaf leaf, int index) {
+    return (E) leaf.elements()[index];
+  }
+
+  /** Iterates over the elements of the list, visiting each of its leaves in order. */
+  private final class LeafIterator implements Iterator<E> {
+    private final Deque<Node> pending = new ArrayDeque<>();
+    private Leaf leaf;
+    private int index;
+
+    LeafIterator() {
+      if (PersistentList.this.root != null)
+        this.pending.push(PersistentList.this.root);
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (this.leaf == null || this.index == this.leaf.size()) {
+        if (this.pending.isEmpty())
+          return false;
+        Node node = this.pending.pop();
+        while (node instanceof Branch branch) {
+          this.pending.push(branch.right());
+          node = branch.left();
+        }
+        this.leaf = (Leaf) node;
+        this.index = 0;
+      }
+      return true;
+    }
+
+    @Override
+    public E next() {
+      if (!hasNext())
+        throw new NoSuchElementException();
+      return elementAt(this.leaf, this.index++);
+    }
+  }
+}
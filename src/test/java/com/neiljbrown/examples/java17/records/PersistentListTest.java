@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PersistentList}, and its use by {@link PagedResult}.
+ */
+public class PersistentListTest {
+
+  /**
+   * Tests appending elements, checking the original list is unchanged and that the list behaves as a {@link List}.
+   */
+  @Test
+  public void test_append() {
+    final PersistentList<String> empty = PersistentList.empty();
+    final PersistentList<String> one = empty.append("a");
+    final PersistentList<String> two = one.append("b");
+
+    assertThat(empty).isEmpty();
+    assertThat(one).containsExactly("a");
+    assertThat(two).containsExactly("a", "b");
+    assertThat(two).isEqualTo(List.of("a", "b"));
+    assertThat(two.hashCode()).isEqualTo(List.of("a", "b").hashCode());
+    assertThat(catchThrowable(() -> two.add("c"))).isInstanceOf(UnsupportedOperationException.class);
+    assertThat(catchThrowable(() -> two.append(null))).isInstanceOf(NullPointerException.class);
+    assertThat(catchThrowable(() -> two.get(2))).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  /**
+   * Tests building a large list by repeatedly appending and concatenating lists of random sizes, checking its
+   * contents against an {@link ArrayList}, and that its tree remains balanced.
+   */
+  @Test
+  public void test_concat() {
+    final Random random = new Random(42);
+    final List<Integer> expected = new ArrayList<>();
+    PersistentList<Integer> list = PersistentList.empty();
+    int next = 0;
+    for (int i = 0; i < 2_000; i++) {
+      if (random.nextBoolean()) {
+        list = list.append(next);
+        expected.add(next++);
+      } else {
+        final List<Integer> page = IntStream.range(next, next + random.nextInt(100)).boxed()
+          .collect(Collectors.toList());
+        if (random.nextBoolean()) {
+          list = list.concat(page);
+          expected.addAll(page);
+        } else {
+          list = PersistentList.copyOf(page).concat(list);
+          expected.addAll(0, page);
+        }
+        next += page.size();
+      }
+    }
+
+    assertThat(list).containsExactlyElementsOf(expected);
+    for (int i = 0; i < expected.size(); i += 97)
+      assertThat(list.get(i)).isEqualTo(expected.get(i));
+    final int minLeaves = (expected.size() + PersistentList.MAX_LEAF_SIZE - 1) / PersistentList.MAX_LEAF_SIZE;
+    assertThat(list.height())
+      .as("Expected AVL bound on height of tree.")
+      .isLessThanOrEqualTo((int) (1.45 * (Math.log(expected.size()) / Math.log(2))) + 2)
+      .isGreaterThanOrEqualTo((int) Math.ceil(Math.log(minLeaves) / Math.log(2)));
+  }
+
+  /**
+   * Tests that {@link PagedResult} shares, rather than copies, items held in a {@link PersistentList}, and
+   * accumulates the items of successive pages.
+   */
+  @Test
+  public void test_pagedResultConcat() {
+    final PersistentList<String> items = PersistentList.of("item1", "item2");
+    assertThat(new PagedResult(items, true).items()).isSameAs(items);
+
+    final PagedResult result = new PagedResult(List.of("item1"), true)
+      .concat(new PagedResult(List.of("item2", "item3"), true))
+      .concat(new PagedResult(List.of("item4"), false));
+
+    assertThat(result.items()).containsExactly("item1", "item2", "item3", "item4");
+    assertThat(result.moreItems()).isFalse();
+  }
+}
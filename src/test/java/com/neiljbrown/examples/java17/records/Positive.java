@@ -19,7 +19,8 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 
 /**
- * Dummy implementation of an annotation used to support implementing {@link RecordsExamplesTest}.
+ * Annotation used to support implementing {@link RecordsExamplesTest}, which declares that the value of an annotated
+ * numeric Record component must be greater than zero. The constraint is enforced by {@link RecordValidator}.
  */
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Positive {
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+/**
+ * A validated, inclusive range of permitted values, declared as a Record.
+ * <p>
+ * This is a top-level version of the Record declared in {@link RecordsExamplesTest#test_compactConstructor()}, with the
+ * same validation, so that it can be shared by the classes which build on it, such as {@link RangeIntervalIndex}.
+ *
+ * @param min The lowest value in the range. Must be zero or greater.
+ * @param max The highest value in the range. Must be greater than or equal to min.
+ */
+public record Range(int min, int max) {
+
+  // The result of each type of validation failure is immutable, so is shared, avoiding allocating one per failure
+  private static final RangeValidation.Invalid INVALID_MIN =
+    new RangeValidation.Invalid("min must be zero or greater.");
+  private static final RangeValidation.Invalid INVALID_MAX =
+    new RangeValidation.Invalid("max must be greater than min.");
+
+  public Range {
+    validateMinAndMaxArgs(min, max);
+  }
+
+  /**
+   * @param value The value to test.
+   * @return true if the supplied value is within this range (inclusive of both min and max), otherwise false.
+   */
+  public boolean contains(int value) {
+    return this.min <= value && value <= this.max;
+  }
+
+  /**
+   * Validates the supplied min and max values, applying the same rules as the Record's constructor, and creates a
+   * range if they're valid. Unlike the constructor, invalid values are reported without throwing an exception. This
+   * avoids the cost of creating (and filling in the stack trace of) an exception when invalid values are common.
+   *
+   * @param min The lowest value in the range.
+   * @param max The highest value in the range.
+   * @return {@link RangeValidation.Valid} holding the created range, or {@link RangeValidation.Invalid} holding the
+   * reason the values are invalid.
+   */
+  public static RangeValidation validate(int min, int max) {
+    final RangeValidation.Invalid invalid = findViolation(min, max);
+    return invalid != null ? invalid : new RangeValidation.Valid(new Range(min, max));
+  }
+
+  /**
+   * Validates the supplied min and max values, applying the same rules as the Record's constructor. Supports
+   * validating the components of a range without needing to create an instance of one.
+   *
+   * @param min The lowest value in the range.
+   * @param max The highest value in the range.
+   * @throws IllegalArgumentException if either the min or max is invalid.
+   */
+  static void validateMinAndMaxArgs(int min, int max) {
+    final RangeValidation.Invalid invalid = findViolation(min, max);
+    if (invalid != null)
+      throw new IllegalArgumentException(invalid.reason());
+  }
+
+  /** @return The (shared) result reporting the rule violated by the supplied values, or null if they're valid. */
+  private static RangeValidation.Invalid findViolation(int min, int max) {
+    if (min < 0)
+      return INVALID_MIN;
+    if (max < min)
+      return INVALID_MAX;
+    return null;
+  }
+}
@@ -0,0 +1,214 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Objects;
+
+/**
+ * A fixed-capacity array of {@link Range}, whose components are stored off-heap, rather than as objects on
+ * the Java heap. This supports holding a very large number of ranges without the memory overhead of an object per
+ * range, or the cost of the garbage collector having to trace and copy them.
+ * <p>
+ * The ranges are laid out column by column - the min of every range is stored in one direct buffer, and the max of
+ * every range in another - so that a pass over one component only reads the memory it needs. Each column can hold up
+ * to {@link #MAX_CAPACITY} ranges.
+ * <p>
+ * Ranges can be read as a new {@link Range} using {@link #get(int)}; without allocating, using a reusable {@link View}
+ * (a flyweight); or in bulk using {@link #forEach(IntIntConsumer)}.
+ * <p>
+ * The off-heap memory is released when the array is garbage collected. This class is not thread-safe.
+ */
+public final class RangeArray {
+
+  /** The maximum number of ranges that an array can hold, limited by the max size of a direct buffer. */
+  public static final int MAX_CAPACITY = Integer.MAX_VALUE / Integer.BYTES;
+
+  private final IntBuffer mins;
+  private final IntBuffer maxs;
+  private final int capacity;
+  private int size;
+
+  /**
+   * @param capacity The maximum number of ranges the array can hold.
+   * @throws IllegalArgumentException if the capacity is negative or greater than {@link #MAX_CAPACITY}.
+   */
+  public RangeArray(int capacity) {
+    if (capacity < 0 || capacity > MAX_CAPACITY)
+      throw new IllegalArgumentException("capacity must be between 0 and " + MAX_CAPACITY + ".");
+    this.capacity = capacity;
+    this.mins = allocateColumn(capacity);
+    this.maxs = allocateColumn(capacity);
+  }
+
+  /** @return The number of ranges in the array. */
+  public int size() {
+    return this.size;
+  }
+
+  /** @return The maximum number of ranges the array can hold. */
+  public int capacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Appends a range to the end of the array.
+   *
+   * @param range The range to append.
+   * @return The index of the appended range.
+   * @throws IllegalStateException if the array is full.
+   */
+  public int add(Range range) {
+    Objects.requireNonNull(range, "range must not be null.");
+    return add(range.min(), range.max());
+  }
+
+  /**
+   * Appends a range to the end of the array, from its components, without needing to create an instance of
+   * {@link Range}. The same validation rules apply.
+   *
+   * @param min The lowest value in the range.
+   * @param max The highest value in the range.
+   * @return The index of the appended range.
+   * @throws IllegalArgumentException if either the min or max is invalid.
+   * @throws IllegalStateException if the array is full.
+   */
+  public int add(int min, int max) {
+    Range.validateMinAndMaxArgs(min, max);
+    if (this.size == this.capacity)
+      throw new IllegalStateException("Array is full, capacity [" + this.capacity + "].");
+    final int index = this.size++;
+    this.mins.put(index, min);
+    this.maxs.put(index, max);
+    return index;
+  }
+
+  /**
+   * Replaces the range at the given index.
+   *
+   * @param index The index of the range.
+   * @param min The lowest value in the range.
+   * @param max The highest value in the range.
+   * @throws IndexOutOfBoundsException if the index is not less than the size of the array.
+   * @throws IllegalArgumentException if either the min or max is invalid.
+   */
+  public void set(int index, int min, int max) {
+    Objects.checkIndex(index, this.size);
+    Range.validateMinAndMaxArgs(min, max);
+    this.mins.put(index, min);
+    this.maxs.put(index, max);
+  }
+
+  /**
+   * @param index The index of the range.
+   * @return The min of the range at the given index.
+   * @throws IndexOutOfBoundsException if the index is not less than the size of the array.
+   */
+  public int min(int index) {
+    return this.mins.get(Objects.checkIndex(index, this.size));
+  }
+
+  /**
+   * @param index The index of the range.
+   * @return The max of the range at the given index.
+   * @throws IndexOutOfBoundsException if the index is not less than the size of the array.
+   */
+  public int max(int index) {
+    return this.maxs.get(Objects.checkIndex(index, this.size));
+  }
+
+  /**
+   * @param index The index of the range.
+   * @return A new {@link Range} containing the components of the range at the given index.
+   * @throws IndexOutOfBoundsException if the index is not less than the size of the array.
+   */
+  public Range get(int index) {
+    Objects.checkIndex(index, this.size);
+    return new Range(this.mins.get(index), this.maxs.get(index));
+  }
+
+  /**
+   * Performs the given action with the components of each range in the array, in index order.
+   *
+   * @param action The action to perform, accepting the min and max of each range.
+   */
+  public void forEach(IntIntConsumer action) {
+    Objects.requireNonNull(action, "action must not be null.");
+    final int size = this.size;
+    for (int i = 0; i < size; i++)
+      action.accept(this.mins.get(i), this.maxs.get(i));
+  }
+
+  /** @return A new {@link View} of the array, initially positioned at index zero. */
+  public View newView() {
+    return new View();
+  }
+
+  /**
+   * A reusable, read-only view of one range in the array (a flyweight), which provides the same accessors as the
+   * {@link Range} record. A single view can be moved from one index to another, so that the ranges in the array can
+   * be read without allocating an object per range.
+   */
+  public final class View {
+    private int index;
+
+    private View() {
+    }
+
+    /**
+     * Moves the view to the range at the given index.
+     *
+     * @param index The index of the range.
+     * @return This view.
+     * @throws IndexOutOfBoundsException if the index is not less than the size of the array.
+     */
+    public View moveTo(int index) {
+      this.index = Objects.checkIndex(index, RangeArray.this.size);
+      return this;
+    }
+
+    /** @return The index of the range the view is positioned at. */
+    public int index() {
+      return this.index;
+    }
+
+    /** @return The min of the range the view is positioned at. */
+    public int min() {
+      return RangeArray.this.mins.get(this.index);
+    }
+
+    /** @return The max of the range the view is positioned at. */
+    public int max() {
+      return RangeArray.this.maxs.get(this.index);
+    }
+
+    /** @return A new {@link Range} containing the components of the range the view is positioned at. */
+    public Range toRange() {
+      return new Range(min(), max());
+    }
+
+    @Override
+    public String toString() {
+      return "RangeArray.View[index=" + this.index + ", min=" + min() + ", max=" + max() + "]";
+    }
+  }
+
+  private static IntBuffer allocateColumn(int capacity) {
+    return ByteBuffer.allocateDirect(capacity * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+  }
+}
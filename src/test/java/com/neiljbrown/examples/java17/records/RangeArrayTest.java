@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RangeArray}.
+ */
+public class RangeArrayTest {
+
+  /**
+   * Tests adding ranges and reading them back, both as records and using a flyweight view.
+   */
+  @Test
+  public void test_addAndGet() {
+    final RangeArray array = new RangeArray(3);
+    assertThat(array.add(new Range(1, 2))).isZero();
+    assertThat(array.add(3, 7)).isEqualTo(1);
+
+    assertThat(array.size()).isEqualTo(2);
+    assertThat(array.get(0)).isEqualTo(new Range(1, 2));
+    assertThat(array.min(1)).isEqualTo(3);
+    assertThat(array.max(1)).isEqualTo(7);
+
+    final RangeArray.View view = array.newView();
+    assertThat(view.moveTo(1).toRange()).isEqualTo(new Range(3, 7));
+    assertThat(view.moveTo(0).max()).isEqualTo(2);
+
+    array.set(0, 5, 5);
+    assertThat(view.min()).as("Expected view to reflect the updated range.").isEqualTo(5);
+    assertThat(catchThrowable(() -> view.moveTo(2))).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  /**
+   * Tests bulk iteration over the components of the ranges in the array.
+   */
+  @Test
+  public void test_forEach() {
+    final RangeArray array = new RangeArray(10);
+    for (int i = 0; i < 10; i++)
+      array.add(i, i * 2);
+
+    final List<Range> ranges = new ArrayList<>();
+    array.forEach((min, max) -> ranges.add(new Range(min, max)));
+
+    assertThat(ranges).hasSize(10);
+    assertThat(ranges.get(9)).isEqualTo(new Range(9, 18));
+  }
+
+  /**
+   * Tests that the validation rules of the {@link Range} record are applied, and that the capacity is enforced.
+   */
+  @Test
+  public void test_add_invalid() {
+    final RangeArray array = new RangeArray(1);
+    assertThat(catchThrowable(() -> array.add(-1, 2)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("min");
+    assertThat(array.size()).isZero();
+
+    array.add(1, 2);
+    assertThat(catchThrowable(() -> array.add(1, 2))).isInstanceOf(IllegalStateException.class);
+    assertThat(catchThrowable(() -> new RangeArray(RangeArray.MAX_CAPACITY + 1)))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.Objects;
+
+/**
+ * Validates the components of a batch of ranges, supplied as a pair of parallel arrays, applying the same rules as the
+ * {@link Range} record, without creating a record for each range.
+ * <p>
+ * When the (incubating, as of JDK 17) Vector API module, jdk.incubator.vector, is available at runtime, the ranges
+ * are validated using SIMD instructions, several ranges at a time (see {@link VectorRangeValidator}). Otherwise, or
+ * for any remaining ranges which don't fill a vector, they're validated one at a time by a scalar loop.
+ * <p>
+ * The result is a bitmask with a bit per range, which is set if the range is invalid. Bit {@code i} is bit
+ * {@code i % 64} of element {@code i / 64} of the returned array, the same layout as used by
+ * {@link java.util.BitSet#valueOf(long[])}.
+ */
+public final class RangeBulkValidator {
+
+  private static final boolean VECTOR_API_AVAILABLE =
+    ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+  private RangeBulkValidator() {
+  }
+
+  /**
+   * @param mins The min of each range.
+   * @param maxs The max of each range. Must be the same length as mins.
+   * @return A bitmask with the bit for each invalid range set.
+   * @throws IllegalArgumentException if the arrays are of different lengths.
+   */
+  public static long[] findInvalid(int[] mins, int[] maxs) {
+    final long[] invalid = newBitmask(mins, maxs);
+    final int validated = VECTOR_API_AVAILABLE ? VectorRangeValidator.findInvalid(mins, maxs, invalid) : 0;
+    findInvalidScalar(mins, maxs, validated, invalid);
+    return invalid;
+  }
+
+  /**
+   * Validates the supplied ranges one at a time, without using the Vector API.
+   *
+   * @see #findInvalid(int[], int[])
+   */
+  static long[] findInvalidScalar(int[] mins, int[] maxs) {
+    final long[] invalid = newBitmask(mins, maxs);
+    findInvalidScalar(mins, maxs, 0, invalid);
+    return invalid;
+  }
+
+  /** @return true if validation uses the Vector API, otherwise false. */
+  static boolean isVectorised() {
+    return VECTOR_API_AVAILABLE;
+  }
+
+  private static void findInvalidScalar(int[] mins, int[] maxs, int from, long[] invalid) {
+    for (int i = from; i < mins.length; i++) {
+      final int min = mins[i];
+      if (min < 0 || maxs[i] < min)
+        invalid[i >>> 6] |= 1L << i;
+    }
+  }
+
+  private static long[] newBitmask(int[] mins, int[] maxs) {
+    Objects.requireNonNull(mins, "mins must not be null.");
+    Objects.requireNonNull(maxs, "maxs must not be null.");
+    if (mins.length != maxs.length)
+      throw new IllegalArgumentException("mins and maxs must be the same length.");
+    return new long[(mins.length + 63) >>> 6];
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RangeBulkValidator}.
+ */
+public class RangeBulkValidatorTest {
+
+  /**
+   * Tests that each rule of the {@link Range} record is applied.
+   */
+  @Test
+  public void test_findInvalid() {
+    final int[] mins = {0, -1, 5, 5, Integer.MIN_VALUE};
+    final int[] maxs = {0, 2, 4, 6, 0};
+
+    final BitSet invalid = BitSet.valueOf(RangeBulkValidator.findInvalid(mins, maxs));
+
+    assertThat(invalid.stream().toArray()).containsExactly(1, 2, 4);
+    assertThat(catchThrowable(() -> RangeBulkValidator.findInvalid(new int[1], new int[2])))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Tests that the vectorised and scalar implementations agree with the {@link Range} constructor, for a batch of
+   * random ranges whose size is not a multiple of any vector size.
+   */
+  @Test
+  public void test_findInvalid_matchesRangeConstructor() {
+    assertThat(RangeBulkValidator.isVectorised())
+      .as("Expected the build to make the Vector API module available to tests.")
+      .isTrue();
+    final Random random = new Random(42);
+    final int size = 10_007;
+    final int[] mins = random.ints(size, -10, 100).toArray();
+    final int[] maxs = random.ints(size, -10, 100).toArray();
+    final BitSet expected = new BitSet(size);
+    for (int i = 0; i < size; i++) {
+      if (!Range.validate(mins[i], maxs[i]).isValid())
+        expected.set(i);
+    }
+
+    assertThat(BitSet.valueOf(RangeBulkValidator.findInvalid(mins, maxs))).isEqualTo(expected);
+    assertThat(BitSet.valueOf(RangeBulkValidator.findInvalidScalar(mins, maxs))).isEqualTo(expected);
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * An immutable index of a (potentially very large) set of {@link Range}, which supports efficiently finding the ranges
+ * which contain a given value (a 'stabbing' query), or which overlap another range, in O(log n + k) time, where k is
+ * the number of matching ranges.
+ * <p>
+ * The index is implemented as a centered interval tree. To avoid the memory overhead (object headers and references)
+ * and pointer chasing of an object graph, both the ranges and the nodes of the tree are stored in primitive int arrays.
+ * Each node of the tree owns a contiguous segment of two arrays, holding the ranges which span the node's center value,
+ * ordered by ascending min and descending max respectively. The key (min or max) is stored alongside each range's id,
+ * so that scanning a segment only reads sequential memory.
+ * <p>
+ * Ranges are identified by their id - their zero-based position in the collection or arrays from which the index was
+ * built. Query results are reported as ids, to an {@link IntConsumer}, so that queries don't allocate.
+ */
+public final class RangeIntervalIndex {
+
+  private static final int NO_NODE = -1;
+
+  // Components of each range, indexed by id
+  private final int[] mins;
+  private final int[] maxs;
+
+  // Ranges ordered by min, for overlap queries
+  private final int[] sortedMins;
+  private final int[] sortedMinIds;
+
+  // Per node segments of ranges spanning the node's center, ordered by ascending min and descending max respectively
+  private final int[] byMinKeys;
+  private final int[] byMinIds;
+  private final int[] byMaxKeys;
+  private final int[] byMaxIds;
+
+  // The tree's nodes
+  private final int[] nodeCenters;
+  private final int[] nodeSegmentStarts;
+  private final int[] nodeSegmentEnds;
+  private final int[] nodeLefts;
+  private final int[] nodeRights;
+  private int nodeCount;
+  private final int root;
+
+  private RangeIntervalIndex(int[] mins, int[] maxs) {
+    final int size = mins.length;
+    this.mins = mins;
+    this.maxs = maxs;
+
+    // Sort the range ids by min, and by max, by packing each (key, id) pair into a long. Keys are never negative.
+    final long[] packed = new long[size];
+    this.sortedMins = new int[size];
+    this.sortedMinIds = new int[size];
+    for (int id = 0; id < size; id++)
+      packed[id] = pack(mins[id], id);
+    Arrays.sort(packed);
+    for (int i = 0; i < size; i++) {
+      this.sortedMins[i] = (int) (packed[i] >>> 32);
+      this.sortedMinIds[i] = (int) packed[i];
+    }
+    this.byMinIds = this.sortedMinIds.clone();
+
+    for (int id = 0; id < size; id++)
+      packed[id] = pack(maxs[id], id);
+    Arrays.sort(packed);
+    this.byMaxIds = new int[size];
+    for (int i = 0; i < size; i++)
+      this.byMaxIds[i] = (int) packed[size - 1 - i];
+
+    this.nodeCenters = new int[size];
+    this.nodeSegmentStarts = new int[size];
+    this.nodeSegmentEnds = new int[size];
+    this.nodeLefts = new int[size];
+    this.nodeRights = new int[size];
+    this.root = buildNode(0, size, new int[size]);
+
+    this.byMinKeys = new int[size];
+    this.byMaxKeys = new int[size];
+    for (int i = 0; i < size; i++) {
+      this.byMinKeys[i] = mins[this.byMinIds[i]];
+      this.byMaxKeys[i] = maxs[this.byMaxIds[i]];
+    }
+  }
+
+  /**
+   * Creates an index of the supplied ranges.
+   *
+   * @param ranges The ranges to index. The id of each range is its position in the collection's iteration order.
+   * @return The created index.
+   */
+  public static RangeIntervalIndex of(Collection<Range> ranges) {
+    Objects.requireNonNull(ranges, "ranges must not be null.");
+    final int[] mins = new int[ranges.size()];
+    final int[] maxs = new int[ranges.size()];
+    int id = 0;
+    for (Range range : ranges) {
+      mins[id] = range.min();
+      maxs[id] = range.max();
+      id++;
+    }
+    return new RangeIntervalIndex(mins, maxs);
+  }
+
+  /**
+   * Creates an index of the ranges whose components are supplied in a pair of parallel arrays, without needing to
+   * create an instance of {@link Range} for each.
+   *
+   * @param mins The min of each range.
+   * @param maxs The max of each range. Must be the same length as mins.
+   * @return The created index.
+   * @throws IllegalArgumentException if the arrays are of different lengths, or any of the ranges are invalid (as
+   * defined by {@link Range}).
+   */
+  public static RangeIntervalIndex of(int[] mins, int[] maxs) {
+    Objects.requireNonNull(mins, "mins must not be null.");
+    Objects.requireNonNull(maxs, "maxs must not be null.");
+    if (mins.length != maxs.length)
+      throw new IllegalArgumentException("mins and maxs must be the same length.");
+    for (int i = 0; i < mins.length; i++)
+      Range.validateMinAndMaxArgs(mins[i], maxs[i]);
+    return new RangeIntervalIndex(mins.clone(), maxs.clone());
+  }
+
+  /** @return The number of ranges in the index. */
+  public int size() {
+    return this.mins.length;
+  }
+
+  /**
+   * @param id The id of a range in the index.
+   * @return A new {@link Range} containing the components of the identified range.
+   * @throws IndexOutOfBoundsException if the id is not in the index.
+   */
+  public Range get(int id) {
+    Objects.checkIndex(id, this.mins.length);
+    return new Range(this.mins[id], this.maxs[id]);
+  }
+
+  /**
+   * Finds all the ranges in the index which contain the supplied value.
+   *
+   * @param value The value.
+   * @param action The action to perform with the id of each matching range. Ids are not reported in any defined order.
+   */
+  public void forEachContaining(int value, IntConsumer action) {
+    int node = this.root;
+    while (node != NO_NODE) {
+      final int center = this.nodeCenters[node];
+      final int start = this.nodeSegmentStarts[node];
+      final int end = this.nodeSegmentEnds[node];
+      if (value < center) {
+        // All ranges in the segment end at or after the center, so contain the value if they start at or before it
+        for (int i = start; i < end && this.byMinKeys[i] <= value; i++)
+          action.accept(this.byMinIds[i]);
+        node = this.nodeLefts[node];
+      } else if (value > center) {
+        // All ranges in the segment start at or before the center, so contain the value if they end at or after it
+        for (int i = start; i < end && this.byMaxKeys[i] >= value; i++)
+          action.accept(this.byMaxIds[i]);
+        node = this.nodeRights[node];
+      } else {
+        for (int i = start; i < end; i++)
+          action.accept(this.byMinIds[i]);
+        node = NO_NODE;
+      }
+    }
+  }
+
+  /**
+   * Finds all the ranges in the index which overlap (share at least one value with) the supplied range.
+   *
+   * @param from The lowest value of the range to test, inclusive.
+   * @param to The highest value of the range to test, inclusive.
+   * @param action The action to perform with the id of each matching range. Ids are not reported in any defined order.
+   * @throws IllegalArgumentException if to is less than from.
+   */
+  public void forEachOverlapping(int from, int to, IntConsumer action) {
+    if (to < from)
+      throw new IllegalArgumentException("to must be greater than or equal to from.");
+    // An overlapping range either contains 'from', or else starts after 'from' but no later than 'to'. The two sets
+    // are disjoint, so each matching range is reported once.
+    forEachContaining(from, action);
+    for (int i = firstMinAfter(from); i < this.sortedMins.length && this.sortedMins[i] <= to; i++)
+      action.accept(this.sortedMinIds[i]);
+  }
+
+  /**
+   * Builds the (sub)tree for the ranges in the segment [start, end) of the byMinIds and byMaxIds arrays. Each of the
+   * segments is stably partitioned into the ranges of the left subtree, this node and the right subtree, in that order.
+   *
+   * @return The index of the built node, or {@link #NO_NODE} if the segment is empty.
+   */
+  private int buildNode(int start, int end, int[] scratch) {
+    if (start == end)
+      return NO_NODE;
+    // Using the median min as the center ensures that neither subtree holds more than half of the ranges
+    final int center = this.mins[this.byMinIds[(start + end) >>> 1]];
+    int leftCount = 0, centerCount = 0;
+    for (int i = start; i < end; i++) {
+      final int id = this.byMinIds[i];
+      if (this.maxs[id] < center)
+        leftCount++;
+      else if (this.mins[id] <= center)
+        centerCount++;
+    }
+    partition(this.byMinIds, start, end, center, leftCount, centerCount, scratch);
+    partition(this.byMaxIds, start, end, center, leftCount, centerCount, scratch);
+
+    final int node = this.nodeCount++;
+    this.nodeCenters[node] = center;
+    this.nodeSegmentStarts[node] = start + leftCount;
+    this.nodeSegmentEnds[node] = start + leftCount + centerCount;
+    this.nodeLefts[node] = buildNode(start, start + leftCount, scratch);
+    this.nodeRights[node] = buildNode(start + leftCount + centerCount, end, scratch);
+    return node;
+  }
+
+  private void partition(int[] ids, int start, int end, int center, int leftCount, int centerCount, int[] scratch) {
+    System.arraycopy(ids, start, scratch, start, end - start);
+    int left = start, middle = start + leftCount, right = start + leftCount + centerCount;
+    for (int i = start; i < end; i++) {
+      final int id = scratch[i];
+      if (this.maxs[id] < center)
+        ids[left++] = id;
+      else if (this.mins[id] <= center)
+        ids[middle++] = id;
+      else
+        ids[right++] = id;
+    }
+  }
+
+  /** @return The index of the first range in the sortedMins array whose min is greater than the supplied value. */
+  private int firstMinAfter(int value) {
+    int low = 0, high = this.sortedMins.length;
+    while (low < high) {
+      final int mid = (low + high) >>> 1;
+      if (this.sortedMins[mid] <= value)
+        low = mid + 1;
+      else
+        high = mid;
+    }
+    return low;
+  }
+
+  private static long pack(int key, int id) {
+    return ((long) key << 32) | (id & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RangeIntervalIndex}.
+ */
+public class RangeIntervalIndexTest {
+
+  /**
+   * Tests stabbing queries against a small set of ranges, including ranges which share end-points.
+   */
+  @Test
+  public void test_forEachContaining() {
+    final List<Range> ranges = List.of(new Range(0, 10), new Range(5, 5), new Range(5, 20), new Range(11, 15),
+      new Range(30, 40));
+    final RangeIntervalIndex index = RangeIntervalIndex.of(ranges);
+
+    assertThat(index.size()).isEqualTo(ranges.size());
+    assertThat(containing(index, 5)).containsExactlyInAnyOrder(0, 1, 2);
+    assertThat(containing(index, 10)).containsExactlyInAnyOrder(0, 2);
+    assertThat(containing(index, 15)).containsExactlyInAnyOrder(2, 3);
+    assertThat(containing(index, 25)).isEmpty();
+    assertThat(containing(index, 40)).containsExactly(4);
+    assertThat(index.get(3)).isEqualTo(new Range(11, 15));
+  }
+
+  /**
+   * Tests overlap queries against a small set of ranges, checking each overlapping range is only reported once.
+   */
+  @Test
+  public void test_forEachOverlapping() {
+    final RangeIntervalIndex index = RangeIntervalIndex.of(new int[] {0, 5, 5, 11, 30}, new int[] {10, 5, 20, 15, 40});
+
+    assertThat(overlapping(index, 6, 12)).containsExactlyInAnyOrder(0, 2, 3);
+    assertThat(overlapping(index, 21, 29)).isEmpty();
+    assertThat(overlapping(index, 0, 100)).containsExactlyInAnyOrder(0, 1, 2, 3, 4);
+    assertThat(catchThrowable(() -> overlapping(index, 2, 1))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Tests that the same validation rules as the {@link Range} record are applied when building an index from arrays.
+   */
+  @Test
+  public void test_ofArrays_invalidRange() {
+    assertThat(catchThrowable(() -> RangeIntervalIndex.of(new int[] {-1}, new int[] {2})))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("min");
+    assertThat(catchThrowable(() -> RangeIntervalIndex.of(new int[] {1, 2}, new int[] {2})))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  /**
+   * Tests the results of both types of query match those of a linear scan over a large, random set of ranges.
+   */
+  @Test
+  public void test_queriesMatchLinearScan() {
+    final Random random = new Random(42);
+    final List<Range> ranges = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      final int min = random.nextInt(100_000);
+      ranges.add(new Range(min, min + random.nextInt(1_000)));
+    }
+    final RangeIntervalIndex index = RangeIntervalIndex.of(ranges);
+
+    for (int i = 0; i < 500; i++) {
+      final int from = random.nextInt(101_000);
+      final int to = from + random.nextInt(500);
+      final List<Integer> expectedContaining = new ArrayList<>();
+      final List<Integer> expectedOverlapping = new ArrayList<>();
+      for (int id = 0; id < ranges.size(); id++) {
+        final Range range = ranges.get(id);
+        if (range.contains(from))
+          expectedContaining.add(id);
+        if (range.min() <= to && range.max() >= from)
+          expectedOverlapping.add(id);
+      }
+      assertThat(containing(index, from)).containsExactlyInAnyOrderElementsOf(expectedContaining);
+      assertThat(overlapping(index, from, to)).containsExactlyInAnyOrderElementsOf(expectedOverlapping);
+    }
+  }
+
+  private static List<Integer> containing(RangeIntervalIndex index, int value) {
+    final List<Integer> ids = new ArrayList<>();
+    index.forEachContaining(value, ids::add);
+    return ids;
+  }
+
+  private static List<Integer> overlapping(RangeIntervalIndex index, int from, int to) {
+    final List<Integer> ids = new ArrayList<>();
+    index.forEachOverlapping(from, to, ids::add);
+    return ids;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link Range}.
+ */
+public class RangeTest {
+
+  /**
+   * Tests that the constructor continues to report invalid components by throwing an exception.
+   */
+  @Test
+  public void test_constructor_invalid() {
+    assertThat(catchThrowable(() -> new Range(-1, 2)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("min must be zero or greater.");
+    assertThat(catchThrowable(() -> new Range(2, 1)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("max must be greater than min.");
+  }
+
+  /**
+   * Tests the non-throwing validation of valid and invalid components, and handling its result using pattern
+   * matching.
+   */
+  @Test
+  public void test_validate() {
+    final RangeValidation valid = Range.validate(1, 2);
+    assertThat(valid.isValid()).isTrue();
+    if (valid instanceof RangeValidation.Valid v)
+      assertThat(v.range()).isEqualTo(new Range(1, 2));
+
+    assertThat(Range.validate(-1, 2)).isEqualTo(new RangeValidation.Invalid("min must be zero or greater."));
+    assertThat(Range.validate(2, 1)).isEqualTo(new RangeValidation.Invalid("max must be greater than min."));
+    assertThat(Range.validate(-1, 2))
+      .as("Expected the result of a validation failure to be shared rather than allocated.")
+      .isSameAs(Range.validate(-5, 7));
+  }
+}
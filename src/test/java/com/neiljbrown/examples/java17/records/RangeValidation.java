@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+/**
+ * The result of validating the components of a {@link Range} using {@link Range#validate(int, int)} - either
+ * {@link Valid}, holding the created range, or {@link Invalid}, holding the reason the components are invalid.
+ * <p>
+ * Declared as a sealed interface whose only implementations are Records, so that callers can handle both outcomes
+ * with pattern matching, e.g. {@code if (result instanceof RangeValidation.Valid valid) ...}.
+ */
+public sealed interface RangeValidation {
+
+  /** @return true if the components are valid, otherwise false. */
+  boolean isValid();
+
+  /**
+   * The result of validating valid components.
+   *
+   * @param range The range created from the components.
+   */
+  record Valid(Range range) implements RangeValidation {
+    @Override
+    public boolean isValid() {
+      return true;
+    }
+  }
+
+  /**
+   * The result of validating invalid components.
+   *
+   * @param reason The reason the components are invalid. The same as the message of the exception thrown by the
+   * {@link Range} constructor.
+   */
+  record Invalid(String reason) implements RangeValidation {
+    @Override
+    public boolean isValid() {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,390 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Encodes Records to, and decodes them from, a compact binary format, using a {@link ByteBuffer} supplied by the
+ * caller, so that buffers can be reused.
+ * <p>
+ * A Record is encoded as the sequence of its component values, in the order they're declared. No type or component
+ * names are written. The encoding of each value depends on its (static) type -
+ * <br>
+ * - int, long, short and char - A variable length (LEB128) integer, zig-zag encoded for signed types, so that values
+ * of small magnitude occupy few bytes.
+ * <br>
+ * - boolean and byte - A single byte. float and double - Their IEEE 754 bits, in 4 and 8 bytes respectively.
+ * <br>
+ * - String - The number of UTF-8 encoded bytes plus one, as a varint, followed by the bytes. Zero signifies null.
+ * <br>
+ * - Enum - The ordinal plus one, as a varint. Zero signifies null.
+ * <br>
+ * - Record - A presence byte, followed by its components.
+ * <br>
+ * - List - The number of elements plus one, as a varint, followed by the elements. Zero signifies null. Elements may
+ * be any of the supported reference types, including boxed primitives, but must not be null. Lists are decoded as
+ * unmodifiable lists.
+ * <p>
+ * The codec for a Record class is built (using reflection) the first time it's used, from the class's
+ * {@link Class#getRecordComponents() components}, and cached using a {@link ClassValue}. The codec comprises a
+ * {@link MethodHandle} for the accessor of each component and for the canonical constructor, so that subsequent
+ * encoding and decoding doesn't use reflection.
+ *
+ * @param <R> The type of Record.
+ */
+public final class RecordCodec<R extends Record> {
+
+  private static final ClassValue<RecordCodec<?>> CODECS = new ClassValue<>() {
+    @Override
+    protected RecordCodec<?> computeValue(Class<?> type) {
+      return new RecordCodec<>(type.asSubclass(Record.class));
+    }
+  };
+
+  private final Class<R> type;
+  private final Component[] components;
+  // The canonical constructor, of type (Object[])Object
+  private final MethodHandle constructor;
+
+  private RecordCodec(Class<R> type) {
+    final RecordComponent[] recordComponents = type.getRecordComponents();
+    if (recordComponents == null)
+      throw new IllegalArgumentException("Class [" + type.getName() + "] is not a record.");
+    this.type = type;
+    this.components = new Component[recordComponents.length];
+    final Class<?>[] parameterTypes = new Class<?>[recordComponents.length];
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      for (int i = 0; i < recordComponents.length; i++) {
+        final RecordComponent recordComponent = recordComponents[i];
+        parameterTypes[i] = recordComponent.getType();
+        // Records are commonly declared with restricted access (e.g. as local classes), so suppress access checks
+        recordComponent.getAccessor().setAccessible(true);
+        final MethodHandle accessor = lookup.unreflect(recordComponent.getAccessor());
+        this.components[i] = new Component(accessor.asType(methodType(Object.class, Object.class)),
+          valueCodecFor(recordComponent.getGenericType(), recordComponent));
+      }
+      final Constructor<R> canonicalConstructor = type.getDeclaredConstructor(parameterTypes);
+      canonicalConstructor.setAccessible(true);
+      this.constructor = lookup.unreflectConstructor(canonicalConstructor)
+        .asType(methodType(Object.class, parameterTypes))
+        .asSpreader(Object[].class, parameterTypes.length);
+    } catch (IllegalAccessException | NoSuchMethodException e) {
+      throw new IllegalStateException("Failed to access members of record [" + type.getName() + "].", e);
+    }
+  }
+
+  /**
+   * Returns the codec for the given type of Record, creating it if this is its first use.
+   *
+   * @param type The type of Record.
+   * @param <R> The type of Record.
+   * @return The codec.
+   * @throws IllegalArgumentException if any of the Record's components are of an unsupported type.
+   */
+  @SuppressWarnings("unchecked")
+  public static <R extends Record> RecordCodec<R> of(Class<R> type) {
+    Objects.requireNonNull(type, "type must not be null.");
+    return (RecordCodec<R>) CODECS.get(type);
+  }
+
+  /**
+   * Encodes the supplied record, writing it to the supplied buffer, starting at its current position.
+   *
+   * @param record The record to encode.
+   * @param buffer The buffer to write to. On return, its position is advanced past the encoded record.
+   * @throws java.nio.BufferOverflowException if the buffer has insufficient space remaining.
+   */
+  public void encode(R record, ByteBuffer buffer) {
+    Objects.requireNonNull(record, "record must not be null.");
+    for (Component component : this.components) {
+      final Object value;
+      try {
+        value = component.accessor.invokeExact((Object) record);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new IllegalStateException("Failed to access component of record [" + this.type.getName() + "].", t);
+      }
+      component.codec.write(value, buffer);
+    }
+  }
+
+  /**
+   * Decodes a record from the supplied buffer, starting at its current position.
+   *
+   * @param buffer The buffer to read from. On return, its position is advanced past the decoded record.
+   * @return The decoded record.
+   * @throws java.nio.BufferUnderflowException if the buffer ends before the record.
+   * @throws IllegalArgumentException if the buffer does not contain a valid encoding of the record, including if the
+   * record's constructor rejects the decoded values.
+   */
+  public R decode(ByteBuffer buffer) {
+    final Object[] values = new Object[this.components.length];
+    for (int i = 0; i < values.length; i++)
+      values[i] = this.components[i].codec.read(buffer);
+    try {
+      return this.type.cast(this.constructor.invokeExact(values));
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException("Failed to construct record [" + this.type.getName() + "].", t);
+    }
+  }
+
+  private record Component(MethodHandle accessor, ValueCodec codec) {}
+
+  /** Encodes and decodes values of one type. Primitive values are supplied and returned boxed. */
+  private interface ValueCodec {
+    void write(Object value, ByteBuffer buffer);
+
+    Object read(ByteBuffer buffer);
+  }
+
+  private static ValueCodec valueCodecFor(Type genericType, RecordComponent component) {
+    if (genericType instanceof ParameterizedType parameterizedType && parameterizedType.getRawType() == List.class
+      && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementType && !elementType.isPrimitive())
+      return new ListCodec(valueCodecFor(elementType, component));
+    if (!(genericType instanceof Class<?> type))
+      throw unsupportedType(genericType, component);
+    if (type == int.class || type == Integer.class)
+      return nullable(type, new ValueCodec() {
+        public void write(Object value, ByteBuffer buffer) { writeVarLong(buffer, zigZag((Integer) value)); }
+        public Object read(ByteBuffer buffer) { return (int) unZigZag(readVarLong(buffer)); }
+      });
+    if (type == long.class || type == Long.class)
+      return nullable(type, new ValueCodec() {
+        public void write(Object value, ByteBuffer buffer) { writeVarLong(buffer, zigZag((Long) value)); }
+        public Object read(ByteBuffer buffer) { return unZigZag(readVarLong(buffer)); }
+      });
+    if (type == short.class || type == Short.class)
+      return nullable(type, new ValueCodec() {
+        public void write(Object value, ByteBuffer buffer) { writeVarLong(buffer, zigZag((Short) value)); }
+        public Object read(ByteBuffer buffer) { return (short) unZigZag(readVarLong(buffer)); }
+      });
+    if (type == char.class || type == Character.class)
+      return nullable(type, new ValueCodec() {
+        public void write(Object value, ByteBuffer buffer) { writeVarLong(buffer, (Character) value); }
+        public Object read(ByteBuffer buffer) { return (char) readVarLong(buffer); }
+      });
+    if (type == byte.class || type == Byte.class)
+      return nullable(type, new ValueCodec() {
+        public void write(Object value, ByteBuffer buffer) { buffer.put((Byte) value); }
+        public Object read(ByteBuffer buffer) { return buffer.get(); }
+      });
+    if (type == boolean.class || type == Boolean.class)
+      return nullable(type, new ValueCodec() {
+        public void write(Object value, ByteBuffer buffer) { buffer.put((byte) ((Boolean) value ? 1 : 0)); }
+        public Object read(ByteBuffer buffer) { return buffer.get() != 0; }
+      });
+    if (type == float.class || type == Float.class)
+      return nullable(type, new ValueCodec() {
+        public void write(Object value, ByteBuffer buffer) { buffer.putFloat((Float) value); }
+        public Object read(ByteBuffer buffer) { return buffer.getFloat(); }
+      });
+    if (type == double.class || type == Double.class)
+      return nullable(type, new ValueCodec() {
+        public void write(Object value, ByteBuffer buffer) { buffer.putDouble((Double) value); }
+        public Object read(ByteBuffer buffer) { return buffer.getDouble(); }
+      });
+    if (type == String.class)
+      return new StringCodec();
+    if (type.isEnum())
+      return new EnumCodec(type.getEnumConstants());
+    if (type.isRecord())
+      return new NestedRecordCodec(type.asSubclass(Record.class));
+    throw unsupportedType(type, component);
+  }
+
+  /** Wraps the codec of a boxed primitive type so that it also encodes null, using a presence byte. */
+  private static ValueCodec nullable(Class<?> type, ValueCodec codec) {
+    if (type.isPrimitive())
+      return codec;
+    return new ValueCodec() {
+      public void write(Object value, ByteBuffer buffer) {
+        buffer.put((byte) (value == null ? 0 : 1));
+        if (value != null)
+          codec.write(value, buffer);
+      }
+
+      public Object read(ByteBuffer buffer) {
+        return buffer.get() == 0 ? null : codec.read(buffer);
+      }
+    };
+  }
+
+  private static final class StringCodec implements ValueCodec {
+    @Override
+    public void write(Object value, ByteBuffer buffer) {
+      if (value == null) {
+        buffer.put((byte) 0);
+        return;
+      }
+      final String s = (String) value;
+      final int length = s.length();
+      // Fast path for ASCII, which encodes as one byte per char, avoiding creating an intermediate byte array
+      if (isAscii(s)) {
+        writeVarLong(buffer, length + 1L);
+        for (int i = 0; i < length; i++)
+          buffer.put((byte) s.charAt(i));
+      } else {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(buffer, bytes.length + 1L);
+        buffer.put(bytes);
+      }
+    }
+
+    @Override
+    public Object read(ByteBuffer buffer) {
+      final int length = readLength(buffer);
+      if (length < 0)
+        return null;
+      if (length > buffer.remaining())
+        throw new BufferUnderflowException();
+      if (buffer.hasArray()) {
+        final String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+          StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return s;
+      }
+      final byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static boolean isAscii(String s) {
+      for (int i = 0; i < s.length(); i++) {
+        if (s.charAt(i) >= 0x80)
+          return false;
+      }
+      return true;
+    }
+  }
+
+  private record EnumCodec(Object[] constants) implements ValueCodec {
+    @Override
+    public void write(Object value, ByteBuffer buffer) {
+      writeVarLong(buffer, value == null ? 0 : ((Enum<?>) value).ordinal() + 1L);
+    }
+
+    @Override
+    public Object read(ByteBuffer buffer) {
+      final int ordinal = readLength(buffer);
+      if (ordinal >= this.constants.length)
+        throw new IllegalArgumentException("Invalid enum ordinal [" + ordinal + "].");
+      return ordinal < 0 ? null : this.constants[ordinal];
+    }
+  }
+
+  private record NestedRecordCodec(Class<? extends Record> type) implements ValueCodec {
+    // The codec for the nested record is looked up on each use, rather than when building the enclosing codec, to
+    // support recursive record types
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void write(Object value, ByteBuffer buffer) {
+      buffer.put((byte) (value == null ? 0 : 1));
+      if (value != null)
+        ((RecordCodec) RecordCodec.of(this.type)).encode((Record) value, buffer);
+    }
+
+    @Override
+    public Object read(ByteBuffer buffer) {
+      return buffer.get() == 0 ? null : RecordCodec.of(this.type).decode(buffer);
+    }
+  }
+
+  private record ListCodec(ValueCodec elementCodec) implements ValueCodec {
+    @Override
+    public void write(Object value, ByteBuffer buffer) {
+      if (value == null) {
+        buffer.put((byte) 0);
+        return;
+      }
+      final List<?> list = (List<?>) value;
+      writeVarLong(buffer, list.size() + 1L);
+      for (Object element : list)
+        this.elementCodec.write(Objects.requireNonNull(element, "List elements must not be null."), buffer);
+    }
+
+    @Override
+    public Object read(ByteBuffer buffer) {
+      final int size = readLength(buffer);
+      if (size < 0)
+        return null;
+      // Every element is encoded as at least one byte, so checking the size against the bytes remaining avoids
+      // allocating an array of an arbitrary size for a truncated or corrupt encoding
+      if (size > buffer.remaining())
+        throw new BufferUnderflowException();
+      final Object[] elements = new Object[size];
+      for (int i = 0; i < size; i++)
+        elements[i] = this.elementCodec.read(buffer);
+      return List.of(elements);
+    }
+  }
+
+  private static IllegalArgumentException unsupportedType(Type type, RecordComponent component) {
+    return new IllegalArgumentException("Unsupported type [" + type.getTypeName() + "] of component [" +
+      component.getName() + "] in record [" + component.getDeclaringRecord().getName() + "].");
+  }
+
+  /** @return The length (or ordinal) encoded as a varint, plus one, or -1 if it's null. */
+  private static int readLength(ByteBuffer buffer) {
+    final long value = readVarLong(buffer);
+    if (value < 0 || value > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Invalid length [" + value + "].");
+    return (int) value - 1;
+  }
+
+  static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  static void writeVarLong(ByteBuffer buffer, long value) {
+    while ((value & ~0x7FL) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  static long readVarLong(ByteBuffer buffer) {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      final byte b = buffer.get();
+      value |= (long) (b & 0x7F) << shift;
+      if (b >= 0)
+        return value;
+    }
+    throw new IllegalArgumentException("Malformed varint.");
+  }
+}
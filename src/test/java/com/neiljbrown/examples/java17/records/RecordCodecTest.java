@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RecordCodec}.
+ */
+public class RecordCodecTest {
+
+  /**
+   * Tests round-tripping records through a single reused buffer, and the compactness of the encoding.
+   */
+  @Test
+  public void test_encodeAndDecode() {
+    final ByteBuffer buffer = ByteBuffer.allocate(256);
+    final RecordCodec<Range> rangeCodec = RecordCodec.of(Range.class);
+    final RecordCodec<PagedResult> pagedResultCodec = RecordCodec.of(PagedResult.class);
+
+    rangeCodec.encode(new Range(1, 2), buffer);
+    assertThat(buffer.position()).as("Expected each small int to be encoded in a single byte.").isEqualTo(2);
+    pagedResultCodec.encode(new PagedResult(List.of("item1", "itém2"), true), buffer);
+
+    buffer.flip();
+    assertThat(rangeCodec.decode(buffer)).isEqualTo(new Range(1, 2));
+    assertThat(pagedResultCodec.decode(buffer)).isEqualTo(new PagedResult(List.of("item1", "itém2"), true));
+    assertThat(buffer.hasRemaining()).isFalse();
+
+    buffer.clear();
+    rangeCodec.encode(new Range(0, Integer.MAX_VALUE), buffer);
+    buffer.flip();
+    assertThat(rangeCodec.decode(buffer)).isEqualTo(new Range(0, Integer.MAX_VALUE));
+  }
+
+  /**
+   * Tests round-tripping a record with components of each of the supported types, including nested records, nulls and
+   * extreme values, using a direct buffer.
+   */
+  @Test
+  public void test_encodeAndDecode_supportedTypes() {
+    record Inner(String name, List<Range> ranges) { }
+    record Outer(int i, long l, short s, char c, byte b, boolean z, float f, double d, Integer boxed, Long nullLong,
+                 String nullString, DayOfWeek day, Inner inner, Inner nullInner, List<Integer> ints) { }
+
+    final Outer outer = new Outer(Integer.MIN_VALUE, Long.MAX_VALUE, (short) -1, 'x', (byte) -128, true, 1.5f, -2.25,
+      -7, null, null, DayOfWeek.FRIDAY, new Inner("inner", List.of(new Range(3, 4))), null, List.of(1, -1, 300));
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(256);
+    final RecordCodec<Outer> codec = RecordCodec.of(Outer.class);
+
+    codec.encode(outer, buffer);
+    buffer.flip();
+
+    assertThat(codec.decode(buffer)).isEqualTo(outer);
+  }
+
+  /**
+   * Tests that the constructor of the decoded record is invoked, applying its validation, and that records with
+   * components of unsupported types are rejected.
+   */
+  @Test
+  public void test_decode_invalid() {
+    record UncheckedRange(int min, int max) { }
+    record Lookup(Map<String, String> entries) { }
+
+    final ByteBuffer buffer = ByteBuffer.allocate(16);
+    RecordCodec.of(UncheckedRange.class).encode(new UncheckedRange(-1, 2), buffer);
+    buffer.flip();
+
+    assertThat(catchThrowable(() -> RecordCodec.of(Range.class).decode(buffer)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("min");
+    assertThat(catchThrowable(() -> RecordCodec.of(Lookup.class)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining("entries");
+  }
+
+  /**
+   * Tests that decoding a truncated encoding fails with a {@link BufferUnderflowException}, whether the buffer is a
+   * heap or a direct buffer, rather than reporting the encoding as invalid.
+   */
+  @Test
+  public void test_decode_truncated() {
+    record Tags(List<String> tags) { }
+    final RecordCodec<PagedResult> pagedResultCodec = RecordCodec.of(PagedResult.class);
+    final RecordCodec<Tags> tagsCodec = RecordCodec.of(Tags.class);
+
+    for (ByteBuffer buffer : List.of(ByteBuffer.allocate(32), ByteBuffer.allocateDirect(32))) {
+      pagedResultCodec.encode(new PagedResult(List.of("item1", "item2"), true), buffer);
+      buffer.flip().limit(5);
+      assertThat(catchThrowable(() -> pagedResultCodec.decode(buffer)))
+        .as("Buffer [%s]", buffer)
+        .isInstanceOf(BufferUnderflowException.class);
+
+      // An encoding of a list whose size (a varint, here 1,000,000 + 1) exceeds the bytes remaining
+      buffer.clear().put((byte) 0xC1).put((byte) 0x84).put((byte) 0x3D).flip();
+      assertThat(catchThrowable(() -> tagsCodec.decode(buffer)))
+        .as("Buffer [%s]", buffer)
+        .isInstanceOf(BufferUnderflowException.class);
+    }
+  }
+}
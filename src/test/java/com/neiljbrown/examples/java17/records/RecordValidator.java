@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.Objects;
+
+/**
+ * Validates the state of a Record against the constraints declared by annotating its components with
+ * {@link Positive}.
+ * <p>
+ * The first time a Record class is validated, its components are inspected (using reflection) and a validator is
+ * built for the class, comprising a single {@link MethodHandle} which combines a call to the accessor of each
+ * constrained component with a check of the returned value. The validator is cached per class using a
+ * {@link ClassValue}, so subsequent validations of the same class don't use reflection.
+ * <p>
+ * The {@link Positive} constraint is supported for components of type int, long, short, byte, float and double.
+ */
+public final class RecordValidator {
+
+  private static final MethodHandle CHECK_INT;
+  private static final MethodHandle CHECK_LONG;
+  private static final MethodHandle CHECK_DOUBLE;
+  private static final MethodHandle IS_NULL;
+  private static final MethodHandle NO_VIOLATION;
+
+  static {
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    try {
+      CHECK_INT = lookup.findStatic(RecordValidator.class, "checkPositive",
+        methodType(String.class, String.class, int.class));
+      CHECK_LONG = lookup.findStatic(RecordValidator.class, "checkPositive",
+        methodType(String.class, String.class, long.class));
+      CHECK_DOUBLE = lookup.findStatic(RecordValidator.class, "checkPositive",
+        methodType(String.class, String.class, double.class));
+      IS_NULL = lookup.findStatic(Objects.class, "isNull", methodType(boolean.class, Object.class))
+        .asType(methodType(boolean.class, String.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+    NO_VIOLATION = MethodHandles.dropArguments(MethodHandles.constant(String.class, null), 0, Object.class);
+  }
+
+  private static final ClassValue<MethodHandle> VALIDATORS = new ClassValue<>() {
+    @Override
+    protected MethodHandle computeValue(Class<?> type) {
+      return buildValidator(type);
+    }
+  };
+
+  private RecordValidator() {
+  }
+
+  /**
+   * Validates the supplied Record.
+   *
+   * @param record The Record to validate.
+   * @throws IllegalArgumentException if any of the Record's constraints are violated. The exception's message is that
+   * of the first violated constraint, in the order the Record's components are declared.
+   * @throws IllegalStateException if a constraint is declared on a component of an unsupported type.
+   */
+  public static void validate(Record record) {
+    final String violation = findViolation(record);
+    if (violation != null)
+      throw new IllegalArgumentException(violation);
+  }
+
+  /**
+   * Validates the supplied Record, without throwing an exception if it is invalid.
+   *
+   * @param record The Record to validate.
+   * @return The message of the first violated constraint, in the order the Record's components are declared, or null
+   * if the Record is valid.
+   * @throws IllegalStateException if a constraint is declared on a component of an unsupported type.
+   */
+  public static String findViolation(Record record) {
+    Objects.requireNonNull(record, "record must not be null.");
+    try {
+      return (String) VALIDATORS.get(record.getClass()).invokeExact((Object) record);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException("Unexpected error validating record [" + record.getClass() + "].", t);
+    }
+  }
+
+  /**
+   * Builds the validator for a Record class - a method handle of type (Object)String which returns the message of
+   * the first constraint violated by a supplied record, or null.
+   */
+  private static MethodHandle buildValidator(Class<?> type) {
+    final RecordComponent[] components = type.getRecordComponents();
+    if (components == null)
+      throw new IllegalArgumentException("Class [" + type.getName() + "] is not a record.");
+    MethodHandle validator = NO_VIOLATION;
+    // Build the chain from the last component backwards, so that components are checked in the declared order
+    for (int i = components.length - 1; i >= 0; i--) {
+      final Positive positive = components[i].getAnnotation(Positive.class);
+      if (positive != null)
+        validator = checkThen(buildCheck(components[i], positive), validator);
+    }
+    return validator;
+  }
+
+  /** @return A method handle of type (Object)String which checks the supplied component of a record. */
+  private static MethodHandle buildCheck(RecordComponent component, Positive positive) {
+    final Class<?> type = component.getType();
+    final MethodHandle check;
+    if (type == int.class || type == short.class || type == byte.class)
+      check = CHECK_INT;
+    else if (type == long.class)
+      check = CHECK_LONG;
+    else if (type == double.class || type == float.class)
+      check = CHECK_DOUBLE;
+    else
+      throw new IllegalStateException("@Positive is not supported for component [" + component.getName() + "] of " +
+        "type [" + type.getName() + "] in record [" + component.getDeclaringRecord().getName() + "].");
+
+    final Method accessor = component.getAccessor();
+    // Records are commonly declared with restricted access (e.g. as local classes), so suppress access checks
+    accessor.setAccessible(true);
+    final MethodHandle accessorHandle;
+    try {
+      accessorHandle = MethodHandles.lookup().unreflect(accessor);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Failed to access accessor of component [" + component.getName() + "].", e);
+    }
+    final MethodHandle boundCheck = MethodHandles.insertArguments(check, 0, positive.message());
+    return MethodHandles.filterArguments(boundCheck, 0,
+      accessorHandle.asType(methodType(boundCheck.type().parameterType(0), Object.class)));
+  }
+
+  /**
+   * @return A method handle of type (Object)String which applies the supplied check, and only if that returns null
+   * applies the next.
+   */
+  private static MethodHandle checkThen(MethodHandle check, MethodHandle next) {
+    // (String, Object)String - returns the violation if there is one, else applies the next check
+    final MethodHandle returnViolation = MethodHandles.dropArguments(MethodHandles.identity(String.class), 1,
+      Object.class);
+    final MethodHandle applyNext = MethodHandles.dropArguments(next, 0, String.class);
+    final MethodHandle continuation = MethodHandles.guardWithTest(IS_NULL, applyNext, returnViolation);
+    return MethodHandles.foldArguments(continuation, check);
+  }
+
+  private static String checkPositive(String message, int value) {
+    return value > 0 ? null : message;
+  }
+
+  private static String checkPositive(String message, long value) {
+    return value > 0 ? null : message;
+  }
+
+  private static String checkPositive(String message, double value) {
+    return value > 0 ? null : message;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RecordValidator}.
+ */
+public class RecordValidatorTest {
+
+  /**
+   * Tests validating a record whose components are annotated with {@link Positive}, as declared in
+   * {@link RecordsExamplesTest#test_annotationsAreByDefaultAppliedToAllGeneratedRecordMembers()}.
+   */
+  @Test
+  public void test_validate() {
+    record Range(@Positive(message = "min must be greater than zero.") int min,
+                 @Positive(message = "max must be greater than zero.") int max) { }
+
+    RecordValidator.validate(new Range(1, 2));
+    assertThat(RecordValidator.findViolation(new Range(1, 2))).isNull();
+
+    assertThat(catchThrowable(() -> RecordValidator.validate(new Range(0, 2))))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("min must be greater than zero.");
+    assertThat(RecordValidator.findViolation(new Range(1, -1))).isEqualTo("max must be greater than zero.");
+    assertThat(RecordValidator.findViolation(new Range(0, 0)))
+      .as("Expected first violation in component declaration order.")
+      .isEqualTo("min must be greater than zero.");
+  }
+
+  /**
+   * Tests validating records with components of each of the supported types, plus unconstrained components.
+   */
+  @Test
+  public void test_validate_supportedTypes() {
+    record Measurement(String name,
+                       @Positive(message = "count") long count,
+                       @Positive(message = "weight") double weight,
+                       @Positive(message = "ratio") float ratio,
+                       @Positive(message = "size") short size) { }
+
+    assertThat(RecordValidator.findViolation(new Measurement(null, 1L, 0.1, 0.5f, (short) 1))).isNull();
+    assertThat(RecordValidator.findViolation(new Measurement("a", 0L, 0.1, 0.5f, (short) 1))).isEqualTo("count");
+    assertThat(RecordValidator.findViolation(new Measurement("a", 1L, -0.1, 0.5f, (short) 1))).isEqualTo("weight");
+    assertThat(RecordValidator.findViolation(new Measurement("a", 1L, 0.1, 0f, (short) 1))).isEqualTo("ratio");
+    assertThat(RecordValidator.findViolation(new Measurement("a", 1L, 0.1, 0.5f, (short) -1))).isEqualTo("size");
+  }
+
+  /**
+   * Tests that a record with no constrained components is always valid, and that declaring the constraint on a
+   * component of an unsupported type is reported.
+   */
+  @Test
+  public void test_validate_unconstrainedAndUnsupported() {
+    record Name(String value) { }
+    record Label(@Positive(message = "text") String text) { }
+
+    assertThat(RecordValidator.findViolation(new Name("foo"))).isNull();
+    assertThat(catchThrowable(() -> RecordValidator.validate(new Label("foo"))))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("text");
+  }
+}
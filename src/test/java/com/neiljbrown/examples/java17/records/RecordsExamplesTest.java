@@ -86,7 +86,7 @@ public class RecordsExamplesTest {
 
       @Override
       public int hashCode() {
-        return Objects.hash(this, min, this.max);
+        return Objects.hash(this.min, this.max);
       }
 
       @Override
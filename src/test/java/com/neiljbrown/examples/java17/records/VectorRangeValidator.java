@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.records;
+
+import java.util.stream.IntStream;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementation of {@link RangeBulkValidator} using the Vector API, which validates as many ranges at a time as fit
+ * in the platform's preferred vector size (e.g. 8 ints for 256-bit AVX2 registers).
+ * <p>
+ * This class references the jdk.incubator.vector module, so must only be loaded if that is available at runtime.
+ */
+final class VectorRangeValidator {
+
+  private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+  // The index of each lane (0, 1, 2...), used to shift each lane's bit into position
+  private static final IntVector LANE_INDEXES = IntVector.fromArray(SPECIES,
+    IntStream.range(0, SPECIES.length()).toArray(), 0);
+
+  private VectorRangeValidator() {
+  }
+
+  /**
+   * Sets the bit in the supplied bitmask for each invalid range, for as many ranges as fill a whole number of vectors.
+   *
+   * @return The number of ranges validated. The caller is responsible for validating any remaining ranges.
+   */
+  static int findInvalid(int[] mins, int[] maxs, long[] invalid) {
+    final int bound = SPECIES.loopBound(mins.length);
+    final int lanes = SPECIES.length();
+    for (int i = 0; i < bound; i += lanes) {
+      final IntVector min = IntVector.fromArray(SPECIES, mins, i);
+      final IntVector max = IntVector.fromArray(SPECIES, maxs, i);
+      // Rather than comparing each lane twice, compute a value whose sign bit is set if and only if the range is
+      // invalid. If min is negative the sign bit is set. Otherwise, if max is negative it's less than min, and the sign
+      // bit is also set. Otherwise both are zero or greater, so max - min can't overflow, and is negative if and only
+      // if max is less than min.
+      final IntVector signs = min.or(max).or(max.sub(min));
+      // Invalid ranges are expected to be rare, so only convert the lanes to bits when at least one is invalid. The
+      // lane count is a power of two no greater than 64, so a vector's bits never span two elements of the bitmask.
+      if (signs.compare(VectorOperators.LT, 0).anyTrue()) {
+        final long bits = signs.lanewise(VectorOperators.LSHR, 31).lanewise(VectorOperators.LSHL, LANE_INDEXES)
+          .reduceLanes(VectorOperators.OR);
+        invalid[i >>> 6] |= (bits & 0xFFFFFFFFL) << (i & 63);
+      }
+    }
+    return bound;
+  }
+}
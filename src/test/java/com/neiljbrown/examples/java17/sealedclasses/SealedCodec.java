@@ -0,0 +1,247 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses;
+
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import com.neiljbrown.examples.java17.records.RecordCodec;
+
+/**
+ * Encodes objects of a sealed hierarchy to, and decodes them from, a compact binary format, using a {@link ByteBuffer}
+ * supplied by the caller, so that buffers can be reused.
+ * <p>
+ * An object is encoded as a one-byte tag identifying its class, followed by its fields, as written by the writer
+ * registered for its class. No class names are written, so, for objects with few fields, the encoding is several
+ * times smaller than that of formats which identify classes by name, such as Java serialization.
+ * <p>
+ * By default, each concrete class in the hierarchy is tagged with its position amongst them, in depth-first order of
+ * their declaration in the permits clause of their supertype (see {@link Class#getPermittedSubclasses()}), so
+ * encoders and decoders agree on tags without any configuration. As adding, removing or reordering permitted
+ * subclasses would change the tags of others, breaking compatibility with previously encoded data, a class's tag may
+ * be overridden with a fixed value, as the hierarchy evolves. A class which isn't part of the sealed hierarchy, but
+ * extends one of its non-sealed types, may also be encoded, but must be explicitly registered, and given a tag.
+ * <p>
+ * A permitted subclass which is a Record doesn't need a writer and reader to be registered, as by default, it's
+ * encoded using a {@link RecordCodec}.
+ *
+ * @param <T> The root type of the sealed hierarchy.
+ */
+public final class SealedCodec<T> {
+
+  /** The max number of classes that can be tagged using a single (unsigned) byte. */
+  public static final int MAX_TAGS = 256;
+
+  private final Class<T> root;
+  private final Codec<?>[] codecsByTag;
+  private final ClassValue<Codec<?>> codecsByClass;
+
+  private SealedCodec(Class<T> root, Map<Class<?>, Codec<?>> codecs) {
+    this.root = root;
+    this.codecsByTag = new Codec<?>[MAX_TAGS];
+    codecs.values().forEach(codec -> this.codecsByTag[codec.tag()] = codec);
+    this.codecsByClass = new ClassValue<>() {
+      @Override
+      protected Codec<?> computeValue(Class<?> type) {
+        final Codec<?> codec = codecs.get(type);
+        if (codec == null)
+          throw new IllegalArgumentException("No tag for class [" + type.getName() + "].");
+        return codec;
+      }
+    };
+  }
+
+  /**
+   * @param root The root type of the sealed hierarchy.
+   * @param <T> The root type of the sealed hierarchy.
+   * @return A builder of a codec for the supplied sealed hierarchy.
+   * @throws IllegalArgumentException if the supplied root type is not sealed.
+   */
+  public static <T> Builder<T> builder(Class<T> root) {
+    return new Builder<>(root);
+  }
+
+  /**
+   * Encodes the supplied object, writing it to the supplied buffer, at its current position.
+   *
+   * @param value The object.
+   * @param buffer The buffer.
+   * @throws IllegalArgumentException if there's no tag for the class of the supplied object.
+   * @throws java.nio.BufferOverflowException if there's insufficient space remaining in the buffer.
+   */
+  public void encode(T value, ByteBuffer buffer) {
+    Objects.requireNonNull(value, "value must not be null.");
+    final Codec<?> codec = this.codecsByClass.get(value.getClass());
+    buffer.put((byte) codec.tag());
+    codec.write(value, buffer);
+  }
+
+  /**
+   * Decodes an object, reading it from the supplied buffer, at its current position.
+   *
+   * @param buffer The buffer.
+   * @return The decoded object.
+   * @throws IllegalArgumentException if the buffer doesn't contain a known tag.
+   * @throws java.nio.BufferUnderflowException if the buffer doesn't contain a whole encoded object.
+   */
+  public T decode(ByteBuffer buffer) {
+    final int tag = Byte.toUnsignedInt(buffer.get());
+    final Codec<?> codec = this.codecsByTag[tag];
+    if (codec == null)
+      throw new IllegalArgumentException("Unknown tag [" + tag + "] for [" + this.root.getName() + "].");
+    return this.root.cast(codec.reader().apply(buffer));
+  }
+
+  /**
+   * @param type A class which this codec can encode.
+   * @return The tag of the supplied class.
+   * @throws IllegalArgumentException if there's no tag for the supplied class.
+   */
+  public int tagOf(Class<? extends T> type) {
+    return this.codecsByClass.get(type).tag();
+  }
+
+  /** The tag of a class, and how to write and read its objects. */
+  private record Codec<S>(int tag, BiConsumer<? super S, ByteBuffer> writer,
+    Function<ByteBuffer, ? extends S> reader) {
+    @SuppressWarnings("unchecked")
+    void write(Object value, ByteBuffer buffer) {
+      this.writer.accept((S) value, buffer);
+    }
+  }
+
+  /**
+   * Builder of a {@link SealedCodec}.
+   *
+   * @param <T> The root type of the sealed hierarchy.
+   */
+  public static final class Builder<T> {
+
+    private final Class<T> root;
+    private final Map<Class<?>, Codec<?>> codecs = new HashMap<>();
+    private final Map<Class<?>, Integer> tags = new HashMap<>();
+
+    private Builder(Class<T> root) {
+      Objects.requireNonNull(root, "root must not be null.");
+      if (!root.isSealed())
+        throw new IllegalArgumentException("Type [" + root.getName() + "] is not sealed.");
+      this.root = root;
+    }
+
+    /**
+     * Registers how to write and read objects of the supplied class.
+     *
+     * @param type The class, which must be a concrete subclass of the root type.
+     * @param writer Writes the fields of an object of the class to a buffer.
+     * @param reader Reads the fields of an object of the class from a buffer, and creates the object.
+     * @param <S> The class.
+     * @return This builder.
+     * @throws IllegalArgumentException if the supplied class is not a concrete subclass of the root type, or is
+     * already registered.
+     */
+    public <S extends T> Builder<T> type(Class<S> type, BiConsumer<? super S, ByteBuffer> writer,
+      Function<ByteBuffer, ? extends S> reader) {
+      Objects.requireNonNull(type, "type must not be null.");
+      Objects.requireNonNull(writer, "writer must not be null.");
+      Objects.requireNonNull(reader, "reader must not be null.");
+      requireConcreteSubtype(type);
+      if (this.codecs.putIfAbsent(type, new Codec<>(-1, writer, reader)) != null)
+        throw new IllegalArgumentException("Class [" + type.getName() + "] is already registered.");
+      return this;
+    }
+
+    /**
+     * Overrides the tag of the supplied class, which is otherwise its position amongst the concrete classes of the
+     * sealed hierarchy. A tag is required for a class which isn't part of the sealed hierarchy.
+     *
+     * @param type The class, which must be a concrete subclass of the root type.
+     * @param tag The tag, from 0 to {@link #MAX_TAGS} - 1.
+     * @return This builder.
+     * @throws IllegalArgumentException if the supplied class is not a concrete subclass of the root type, or the tag
+     * is out of range.
+     */
+    public Builder<T> tag(Class<? extends T> type, int tag) {
+      Objects.requireNonNull(type, "type must not be null.");
+      requireConcreteSubtype(type);
+      if (tag < 0 || tag >= MAX_TAGS)
+        throw new IllegalArgumentException("tag must be between 0 and " + (MAX_TAGS - 1) + ".");
+      this.tags.put(type, tag);
+      return this;
+    }
+
+    /**
+     * @return The codec.
+     * @throws IllegalStateException if a concrete class of the sealed hierarchy, other than a Record, has no writer
+     * and reader; a class which isn't part of the sealed hierarchy has no tag; or more than one class has the same
+     * tag.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SealedCodec<T> build() {
+      final Map<Class<?>, Codec<?>> tagged = new LinkedHashMap<>();
+      final List<Class<?>> concreteTypes = SealedTypes.findTypes(this.root).stream()
+        .filter(type -> !Modifier.isAbstract(type.getModifiers()))
+        .toList();
+      for (int position = 0; position < concreteTypes.size(); position++) {
+        final Class<?> type = concreteTypes.get(position);
+        Codec<?> codec = this.codecs.get(type);
+        if (codec == null && type.isRecord()) {
+          final RecordCodec recordCodec = RecordCodec.of((Class<? extends Record>) type);
+          codec = new Codec<>(-1, (BiConsumer<Record, ByteBuffer>) recordCodec::encode, recordCodec::decode);
+        }
+        if (codec == null)
+          throw new IllegalStateException("No writer and reader for class [" + type.getName() + "].");
+        tagged.put(type, new Codec(this.tags.getOrDefault(type, position), codec.writer(), codec.reader()));
+      }
+      for (Map.Entry<Class<?>, Codec<?>> entry : this.codecs.entrySet()) {
+        final Class<?> type = entry.getKey();
+        if (tagged.containsKey(type))
+          continue;
+        final Integer tag = this.tags.get(type);
+        if (tag == null)
+          throw new IllegalStateException("Class [" + type.getName() + "] isn't in the sealed hierarchy of ["
+            + this.root.getName() + "], so must be given a tag.");
+        tagged.put(type, new Codec(tag, entry.getValue().writer(), entry.getValue().reader()));
+      }
+      for (Class<?> type : this.tags.keySet())
+        if (!tagged.containsKey(type))
+          throw new IllegalStateException("Class [" + type.getName() + "] has a tag, but no writer and reader.");
+
+      final Map<Integer, Class<?>> typesByTag = new HashMap<>();
+      tagged.forEach((type, codec) -> {
+        if (codec.tag() >= MAX_TAGS)
+          throw new IllegalStateException("Sealed hierarchy has more than " + MAX_TAGS + " classes.");
+        final Class<?> existing = typesByTag.putIfAbsent(codec.tag(), type);
+        if (existing != null)
+          throw new IllegalStateException("Classes [" + existing.getName() + "] and [" + type.getName()
+            + "] have the same tag [" + codec.tag() + "].");
+      });
+      return new SealedCodec<>(this.root, Map.copyOf(tagged));
+    }
+
+    private void requireConcreteSubtype(Class<?> type) {
+      if (!this.root.isAssignableFrom(type) || Modifier.isAbstract(type.getModifiers()))
+        throw new IllegalArgumentException(
+          "Class [" + type.getName() + "] is not a concrete subclass of [" + this.root.getName() + "].");
+    }
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.neiljbrown.examples.java17.sealedclasses.shapes.Circle;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.FilledRectangle;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.FilledSquare;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.Rectangle;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.Shape;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.ShapeCodec;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.Square;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.TransparentRectangle;
+
+/**
+ * Unit tests for {@link SealedCodec}.
+ */
+public class SealedCodecTest {
+
+  /**
+   * Tests encoding and decoding each type of shape, using the codec for {@link Shape}, and that each is encoded as a
+   * one-byte tag, derived from the permits clauses of the hierarchy, followed by its fields.
+   */
+  @Test
+  public void test_encodeAndDecode_shapes() {
+    final SealedCodec<Shape> codec = ShapeCodec.codec();
+    final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    codec.encode(new Circle(1, 2, 3), buffer);
+    assertThat(buffer.position()).isEqualTo(1 + 3 * Double.BYTES);
+    assertThat(buffer.get(0)).isEqualTo((byte) 0);
+    codec.encode(new Rectangle(1, 2, 3, 4), buffer);
+    codec.encode(new TransparentRectangle(1, 2, 3, 4, 0x80FF0000), buffer);
+    codec.encode(new FilledRectangle(1, 2, 3, 4, 0x00FF00), buffer);
+    codec.encode(new Square(1, 2, 3), buffer);
+    codec.encode(new FilledSquare(1, 2, 3, 0x0000FF), buffer);
+    buffer.flip();
+
+    assertThat(codec.decode(buffer)).isInstanceOfSatisfying(Circle.class, circle ->
+      assertThat(List.of(circle.centreX(), circle.centreY(), circle.radius())).containsExactly(1.0, 2.0, 3.0));
+    assertThat(codec.decode(buffer)).isExactlyInstanceOf(Rectangle.class);
+    assertThat(codec.decode(buffer)).isInstanceOfSatisfying(TransparentRectangle.class,
+      rectangle -> assertThat(rectangle.colour()).isEqualTo(0x80FF0000));
+    assertThat(codec.decode(buffer)).isInstanceOfSatisfying(FilledRectangle.class,
+      rectangle -> assertThat(rectangle.height()).isEqualTo(4));
+    assertThat(codec.decode(buffer)).isExactlyInstanceOf(Square.class);
+    assertThat(codec.decode(buffer)).isInstanceOfSatisfying(FilledSquare.class,
+      square -> assertThat(square.colour()).isEqualTo(0xFF0000FF));
+    assertThat(buffer.hasRemaining()).isFalse();
+
+    assertThat(List.of(Circle.class, Rectangle.class, TransparentRectangle.class, FilledRectangle.class, Square.class,
+      FilledSquare.class)).extracting(codec::tagOf).containsExactly(0, 1, 2, 3, 4, 5);
+  }
+
+  /**
+   * Tests that an object of a class which isn't part of the sealed hierarchy, and hasn't been registered, can't be
+   * encoded.
+   */
+  @Test
+  public void test_encode_unregisteredSubclassOfNonSealedType() {
+    final Square square = new Square(0, 0, 1) { };
+
+    assertThat(catchThrowable(() -> ShapeCodec.codec().encode(square, ByteBuffer.allocate(64))))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageStartingWith("No tag for class");
+  }
+
+  /**
+   * Tests that decoding fails if the buffer doesn't contain a known tag.
+   */
+  @Test
+  public void test_decode_unknownTag() {
+    assertThat(catchThrowable(() -> ShapeCodec.codec().decode(ByteBuffer.wrap(new byte[] {(byte) 200}))))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Unknown tag [200] for [" + Shape.class.getName() + "].");
+  }
+
+  /**
+   * Tests encoding and decoding a hierarchy of records, which are encoded by default, without registering a writer and
+   * reader for each.
+   */
+  @Test
+  public void test_encodeAndDecode_records() {
+    final SealedCodec<Event> codec = SealedCodec.builder(Event.class).build();
+    final ByteBuffer buffer = ByteBuffer.allocate(64);
+
+    codec.encode(new Created("alpha", 1), buffer);
+    codec.encode(new Deleted("alpha"), buffer);
+    buffer.flip();
+
+    assertThat(codec.decode(buffer)).isEqualTo(new Created("alpha", 1));
+    assertThat(codec.decode(buffer)).isEqualTo(new Deleted("alpha"));
+  }
+
+  /**
+   * Tests that overriding the tags of classes keeps them stable when the sealed hierarchy evolves. Here, data encoded
+   * before {@link Renamed} was inserted between {@link Created} and {@link Deleted} in the permits clause is still
+   * decoded correctly, by fixing the tag of Deleted at its previous position, and giving Renamed a new tag.
+   */
+  @Test
+  public void test_tag_override() {
+    final ByteBuffer encodedBeforeRenamedAdded = ByteBuffer.wrap(new byte[] {1, 3, 'a', 'b'});
+    final SealedCodec<Event> codec = SealedCodec.builder(Event.class)
+      .tag(Deleted.class, 1)
+      .tag(Renamed.class, 2)
+      .build();
+
+    assertThat(codec.decode(encodedBeforeRenamedAdded)).isEqualTo(new Deleted("ab"));
+    // Without the overrides, the tags are derived from the current permits clause
+    assertThat(SealedCodec.builder(Event.class).build().tagOf(Deleted.class)).isEqualTo(2);
+  }
+
+  /**
+   * Tests that building a codec fails if two classes have the same tag.
+   */
+  @Test
+  public void test_build_duplicateTag() {
+    final SealedCodec.Builder<Event> builder = SealedCodec.builder(Event.class).tag(Renamed.class, 0);
+
+    assertThat(catchThrowable(builder::build))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining("have the same tag [0]");
+  }
+
+  /**
+   * Tests that building a codec fails if a concrete class of the hierarchy which isn't a record has no writer and
+   * reader, or a registered class which isn't part of the sealed hierarchy has no tag.
+   */
+  @Test
+  public void test_build_incomplete() {
+    assertThat(catchThrowable(() -> SealedCodec.builder(Shape.class).build()))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("No writer and reader for class [" + Circle.class.getName() + "].");
+
+    final SealedCodec.Builder<Event> builder = SealedCodec.builder(Event.class)
+      .type(Audited.class, (event, buffer) -> { }, buffer -> new Audited());
+    assertThat(catchThrowable(builder::build))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessageContaining(Audited.class.getName() + "] isn't in the sealed hierarchy");
+  }
+
+  sealed interface Event permits Created, Renamed, Deleted, Open { }
+
+  record Created(String name, int version) implements Event { }
+
+  record Renamed(String from, String to) implements Event { }
+
+  record Deleted(String name) implements Event { }
+
+  non-sealed interface Open extends Event { }
+
+  static final class Audited implements Open { }
+}
@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Dispatches an object of a sealed type to a handler for its type, in constant time, regardless of the number of types
+ * in the hierarchy.
+ * <p>
+ * When built, the dispatcher walks the hierarchy from its root, using {@link Class#getPermittedSubclasses()}, and
+ * numbers each type it finds, in depth-first order, to give a dense table of ordinals, with the handler for each. The
+ * ordinal of each class of object that's dispatched is resolved once, and cached in a {@link ClassValue}, so that
+ * dispatching costs a lookup and an array access, rather than a chain of instanceof tests, whose cost grows with the
+ * number of types.
+ * <p>
+ * A handler may be registered for any type in the hierarchy, and handles that type and any of its subtypes which don't
+ * have a handler of their own. Building fails if any type which can have instances lacks a handler. This includes a
+ * concrete type that's extended by other permitted subclasses, such as {@code Rectangle}, and a non-sealed type, such
+ * as {@code Square}, as it may be extended by classes which aren't known when the dispatcher is built. An object of an
+ * unknown class, such as a subclass of a non-sealed type, is dispatched to the handler of its nearest known ancestor.
+ *
+ * @param <T> The root type of the sealed hierarchy.
+ * @param <R> The type of result returned by the handlers.
+ */
+public final class SealedDispatcher<T, R> {
+
+  private final Class<T> root;
+  private final List<Class<?>> types;
+  private final Function<Object, ? extends R>[] handlers;
+  private final ClassValue<Integer> ordinals = new ClassValue<>() {
+    @Override
+    protected Integer computeValue(Class<?> type) {
+      return resolveOrdinal(type);
+    }
+  };
+
+  private SealedDispatcher(Class<T> root, List<Class<?>> types, Function<Object, ? extends R>[] handlers) {
+    this.root = root;
+    this.types = types;
+    this.handlers = handlers;
+  }
+
+  /**
+   * @param root The root type of the sealed hierarchy.
+   * @param <T> The root type of the sealed hierarchy.
+   * @param <R> The type of result returned by the handlers.
+   * @return A builder of a dispatcher for the supplied sealed hierarchy.
+   * @throws IllegalArgumentException if the supplied root type is not sealed.
+   */
+  public static <T, R> Builder<T, R> builder(Class<T> root) {
+    return new Builder<>(root);
+  }
+
+  /**
+   * Dispatches the supplied object to the handler for its type.
+   *
+   * @param value The object.
+   * @return The result returned by the handler.
+   * @throws IllegalArgumentException if the supplied object is not of the root type of the hierarchy.
+   */
+  public R dispatch(T value) {
+    return this.handlers[ordinalOf(value)].apply(value);
+  }
+
+  /**
+   * Returns the ordinal of the (nearest known) type of the supplied object. Supports callers implementing their own
+   * dispatch, e.g. using a switch, or an array indexed by ordinal.
+   *
+   * @param value The object.
+   * @return The ordinal, which is the index of the type in {@link #types()}.
+   * @throws IllegalArgumentException if the supplied object is not of the root type of the hierarchy.
+   */
+  public int ordinalOf(T value) {
+    Objects.requireNonNull(value, "value must not be null.");
+    return this.ordinals.get(value.getClass());
+  }
+
+  /** @return The types in the sealed hierarchy, including the root, in order of their ordinal. */
+  public List<Class<?>> types() {
+    return this.types;
+  }
+
+  private int resolveOrdinal(Class<?> type) {
+    final int ordinal = SealedTypes.mostSpecificAncestor(type, this.types);
+    if (ordinal < 0)
+      throw new IllegalArgumentException(
+        "Type [" + type.getName() + "] is not a subtype of [" + this.root.getName() + "].");
+    return ordinal;
+  }
+
+  /** @return true if there may be instances of the supplied type, which aren't instances of a known subtype. */
+  private static boolean requiresHandler(Class<?> type) {
+    final boolean open = !type.isSealed() && !Modifier.isFinal(type.getModifiers());
+    return open || !Modifier.isAbstract(type.getModifiers());
+  }
+
+  /**
+   * Builder of a {@link SealedDispatcher}.
+   *
+   * @param <T> The root type of the sealed hierarchy.
+   * @param <R> The type of result returned by the handlers.
+   */
+  public static final class Builder<T, R> {
+
+    private final Class<T> root;
+    private final Map<Class<?>, Function<Object, ? extends R>> handlers = new HashMap<>();
+
+    private Builder(Class<T> root) {
+      Objects.requireNonNull(root, "root must not be null.");
+      if (!root.isSealed())
+        throw new IllegalArgumentException("Type [" + root.getName() + "] is not sealed.");
+      this.root = root;
+    }
+
+    /**
+     * Registers the handler for the supplied type, and any of its subtypes which don't have a handler of their own.
+     *
+     * @param type The type, which must be the root type, or one of its sealed subtypes.
+     * @param handler The handler.
+     * @param <S> The type.
+     * @return This builder.
+     * @throws IllegalArgumentException if the supplied type is not a subtype of the root type, or already has a
+     * handler.
+     */
+    @SuppressWarnings("unchecked")
+    public <S extends T> Builder<T, R> on(Class<S> type, Function<? super S, ? extends R> handler) {
+      Objects.requireNonNull(type, "type must not be null.");
+      Objects.requireNonNull(handler, "handler must not be null.");
+      if (!this.root.isAssignableFrom(type))
+        throw new IllegalArgumentException(
+          "Type [" + type.getName() + "] is not a subtype of [" + this.root.getName() + "].");
+      if (this.handlers.putIfAbsent(type, (Function<Object, ? extends R>) handler) != null)
+        throw new IllegalArgumentException("Type [" + type.getName() + "] already has a handler.");
+      return this;
+    }
+
+    /**
+     * @return The dispatcher.
+     * @throws IllegalArgumentException if a handler was registered for a type which is not in the sealed hierarchy,
+     * i.e. an unknown subclass of a non-sealed type.
+     * @throws IllegalStateException if any type which may have instances doesn't have a handler, either of its own,
+     * or of one of its ancestors.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public SealedDispatcher<T, R> build() {
+      final List<Class<?>> types = SealedTypes.findTypes(this.root);
+      for (Class<?> type : this.handlers.keySet())
+        if (!types.contains(type))
+          throw new IllegalArgumentException("Type [" + type.getName() + "] is not in the sealed hierarchy of ["
+            + this.root.getName() + "].");
+
+      final List<Class<?>> handledTypes = List.copyOf(this.handlers.keySet());
+      final Function<Object, ? extends R>[] resolved = new Function[types.size()];
+      final List<Class<?>> unhandled = new ArrayList<>();
+      for (int ordinal = 0; ordinal < types.size(); ordinal++) {
+        final Class<?> type = types.get(ordinal);
+        final int handler = SealedTypes.mostSpecificAncestor(type, handledTypes);
+        if (handler >= 0)
+          resolved[ordinal] = this.handlers.get(handledTypes.get(handler));
+        else if (requiresHandler(type))
+          unhandled.add(type);
+      }
+      if (!unhandled.isEmpty())
+        throw new IllegalStateException("No handler for type(s) "
+          + unhandled.stream().map(Class::getName).collect(Collectors.joining(", ", "[", "]")) + ".");
+      return new SealedDispatcher<>(this.root, types, resolved);
+    }
+  }
+}
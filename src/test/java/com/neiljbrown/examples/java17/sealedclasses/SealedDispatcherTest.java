@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.junit.jupiter.api.Test;
+
+import com.neiljbrown.examples.java17.sealedclasses.shapes.Circle;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.FilledRectangle;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.FilledSquare;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.Rectangle;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.Shape;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.Square;
+import com.neiljbrown.examples.java17.sealedclasses.shapes.TransparentRectangle;
+
+/**
+ * Unit tests for {@link SealedDispatcher}, using the {@link Shape} hierarchy.
+ */
+public class SealedDispatcherTest {
+
+  /**
+   * Tests dispatching each type of shape to a handler registered for its own type.
+   */
+  @Test
+  public void test_dispatch() {
+    final SealedDispatcher<Shape, String> dispatcher = SealedDispatcher.<Shape, String>builder(Shape.class)
+      .on(Circle.class, circle -> "circle")
+      .on(Rectangle.class, rectangle -> "rectangle")
+      .on(TransparentRectangle.class, rectangle -> "transparent rectangle")
+      .on(FilledRectangle.class, rectangle -> "filled rectangle")
+      .on(Square.class, square -> "square")
+      .build();
+
+    assertThat(dispatcher.dispatch(new Circle(0, 0, 1))).isEqualTo("circle");
+    assertThat(dispatcher.dispatch(new Rectangle(0, 0, 1, 2))).isEqualTo("rectangle");
+    assertThat(dispatcher.dispatch(new TransparentRectangle(0, 0, 1, 2, 0x80FF0000)))
+      .isEqualTo("transparent rectangle");
+    assertThat(dispatcher.dispatch(new FilledRectangle(0, 0, 1, 2, 0xFF0000))).isEqualTo("filled rectangle");
+    assertThat(dispatcher.dispatch(new Square(0, 0, 1))).isEqualTo("square");
+  }
+
+  /**
+   * Tests that an object of a class which isn't known to the sealed hierarchy, because it extends a non-sealed type,
+   * is dispatched to the handler of its nearest known ancestor, and has that ancestor's ordinal.
+   */
+  @Test
+  public void test_dispatch_subclassOfNonSealedType() {
+    final SealedDispatcher<Shape, String> dispatcher = SealedDispatcher.<Shape, String>builder(Shape.class)
+      .on(Shape.class, shape -> "shape")
+      .on(Square.class, square -> "square")
+      .build();
+
+    assertThat(dispatcher.dispatch(new FilledSquare(0, 0, 1, 0xFF0000))).isEqualTo("square");
+    assertThat(dispatcher.dispatch(new Square(0, 0, 1) { })).isEqualTo("square");
+    assertThat(dispatcher.ordinalOf(new FilledSquare(0, 0, 1, 0xFF0000)))
+      .isEqualTo(dispatcher.types().indexOf(Square.class));
+  }
+
+  /**
+   * Tests that a handler registered for a type handles any of its subtypes which don't have a handler of their own.
+   */
+  @Test
+  public void test_dispatch_handlerForAncestor() {
+    final SealedDispatcher<Shape, String> dispatcher = SealedDispatcher.<Shape, String>builder(Shape.class)
+      .on(Shape.class, shape -> "shape")
+      .on(FilledRectangle.class, rectangle -> "filled rectangle")
+      .build();
+
+    assertThat(dispatcher.dispatch(new Circle(0, 0, 1))).isEqualTo("shape");
+    assertThat(dispatcher.dispatch(new Rectangle(0, 0, 1, 2))).isEqualTo("shape");
+    assertThat(dispatcher.dispatch(new TransparentRectangle(0, 0, 1, 2, 0x80FF0000))).isEqualTo("shape");
+    assertThat(dispatcher.dispatch(new FilledRectangle(0, 0, 1, 2, 0xFF0000))).isEqualTo("filled rectangle");
+  }
+
+  /**
+   * Tests that the types in the sealed hierarchy are numbered densely, in depth-first order of their declaration.
+   */
+  @Test
+  public void test_types() {
+    final SealedDispatcher<Shape, String> dispatcher = SealedDispatcher.<Shape, String>builder(Shape.class)
+      .on(Shape.class, shape -> "shape")
+      .build();
+
+    assertThat(dispatcher.types()).containsExactly(Shape.class, Circle.class, Rectangle.class,
+      TransparentRectangle.class, FilledRectangle.class, Square.class);
+    assertThat(dispatcher.ordinalOf(new FilledRectangle(0, 0, 1, 2, 0xFF0000))).isEqualTo(4);
+  }
+
+  /**
+   * Tests that building a dispatcher fails if a concrete type which is extended by other permitted subclasses doesn't
+   * have a handler, even though each of its subclasses do.
+   */
+  @Test
+  public void test_build_missingHandlerForConcreteSealedType() {
+    final SealedDispatcher.Builder<Shape, String> builder = SealedDispatcher.<Shape, String>builder(Shape.class)
+      .on(Circle.class, circle -> "circle")
+      .on(TransparentRectangle.class, rectangle -> "transparent rectangle")
+      .on(FilledRectangle.class, rectangle -> "filled rectangle")
+      .on(Square.class, square -> "square");
+
+    assertThat(catchThrowable(builder::build))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("No handler for type(s) [" + Rectangle.class.getName() + "].");
+  }
+
+  /**
+   * Tests that building a dispatcher fails if a non-sealed type doesn't have a handler.
+   */
+  @Test
+  public void test_build_missingHandlerForNonSealedType() {
+    final SealedDispatcher.Builder<Shape, String> builder = SealedDispatcher.<Shape, String>builder(Shape.class)
+      .on(Circle.class, circle -> "circle")
+      .on(Rectangle.class, rectangle -> "rectangle");
+
+    assertThat(catchThrowable(builder::build))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("No handler for type(s) [" + Square.class.getName() + "].");
+  }
+
+  /**
+   * Tests that building a dispatcher fails if a handler is registered for a subclass of a non-sealed type, which
+   * isn't part of the sealed hierarchy, so can't be assigned an ordinal.
+   */
+  @Test
+  public void test_build_handlerForTypeNotInSealedHierarchy() {
+    final SealedDispatcher.Builder<Shape, String> builder = SealedDispatcher.<Shape, String>builder(Shape.class)
+      .on(Shape.class, shape -> "shape")
+      .on(FilledSquare.class, square -> "filled square");
+
+    assertThat(catchThrowable(builder::build))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessageContaining(FilledSquare.class.getName());
+  }
+
+  /**
+   * Tests that a builder can't be created for a type which isn't sealed.
+   */
+  @Test
+  public void test_builder_rootNotSealed() {
+    assertThat(catchThrowable(() -> SealedDispatcher.builder(Square.class)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Type [" + Square.class.getName() + "] is not sealed.");
+  }
+
+  /**
+   * Tests dispatching over a hierarchy of sealed interfaces, in which a type is a subtype of more than one sealed
+   * interface, so is reached more than once when walking the hierarchy.
+   */
+  @Test
+  public void test_dispatch_sealedInterfaces() {
+    final SealedDispatcher<Event, String> dispatcher = SealedDispatcher.<Event, String>builder(Event.class)
+      .on(Created.class, created -> "created")
+      .on(Deleted.class, deleted -> "deleted")
+      .build();
+
+    assertThat(dispatcher.types()).containsExactly(Event.class, Created.class, Lifecycle.class, Deleted.class);
+    assertThat(dispatcher.dispatch(new Created())).isEqualTo("created");
+    assertThat(dispatcher.dispatch(new Deleted())).isEqualTo("deleted");
+  }
+
+  sealed interface Event permits Created, Lifecycle { }
+
+  sealed interface Lifecycle extends Event permits Created, Deleted { }
+
+  record Created() implements Event, Lifecycle { }
+
+  record Deleted() implements Lifecycle { }
+}
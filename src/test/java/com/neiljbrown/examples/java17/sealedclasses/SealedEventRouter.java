@@ -0,0 +1,392 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Routes events of a sealed hierarchy from a single producer to consumers registered for their type, via a lock-free
+ * ring buffer, in the style of the LMAX Disruptor.
+ * <p>
+ * The ring buffer's slots are preallocated, and each event is published by writing it to the next slot, then advancing
+ * a cursor (sequence number). Each consumer runs on its own thread, and reads the events in order, up to the cursor,
+ * advancing a sequence of its own as it goes. The producer only overwrites a slot once every consumer has passed it.
+ * Unlike a {@link java.util.concurrent.BlockingQueue}, publishing and consuming don't acquire locks or allocate nodes,
+ * the producer and consumers only share the sequences, each of which is padded to occupy its own cache line, and
+ * consumers which fall behind catch up by processing all the available events as a batch.
+ * <p>
+ * Every consumer sees every event, so an event may be handled by several consumers (e.g. one to persist it, and
+ * another to update a view). A consumer is registered for a type in the hierarchy, and handles events of that type and
+ * its subtypes. Routing doesn't test the event against each type, using instanceof. Instead, when an event is
+ * published, the ordinal of its type is resolved (once per class, as for {@link SealedDispatcher}), and stored
+ * alongside it, and each consumer has a table, indexed by ordinal, of the types it handles.
+ * <p>
+ * Consumers which find no events waiting spin briefly, then yield, then park, so that an idle router uses little CPU,
+ * at the expense of the latency of the first event after a pause. A producer which finds the buffer full waits in the
+ * same way.
+ * <p>
+ * Events may only be published by one thread at a time. An exception thrown by a consumer's handler is passed to the
+ * router's error handler, and the consumer carries on with the next event. If a handler throws an {@link Error}, or
+ * the error handler throws, the consumer stops, propagating it to its thread's uncaught exception handler. A stopped
+ * consumer is no longer waited for by the producer, so the router carries on routing events to the other consumers,
+ * but the stopped consumer misses them. The ring buffer holds a reference to each event until its slot is reused.
+ * <p>
+ * By default, the consumers' threads are daemon threads, so a router which isn't closed doesn't prevent the JVM from
+ * exiting, but any events which haven't been consumed when it exits are lost. Closing the router waits for them to
+ * be consumed.
+ *
+ * @param <T> The root type of the sealed hierarchy.
+ */
+public final class SealedEventRouter<T> implements AutoCloseable {
+
+  /** The default number of slots in the ring buffer. */
+  public static final int DEFAULT_BUFFER_SIZE = 1024;
+
+  private static final int SPIN_ATTEMPTS = 100;
+  private static final int YIELD_ATTEMPTS = 100;
+  private static final long PARK_NANOS = 50_000;
+
+  private final Class<T> root;
+  private final List<Class<?>> types;
+  private final ClassValue<Integer> ordinals = new ClassValue<>() {
+    @Override
+    protected Integer computeValue(Class<?> type) {
+      return resolveOrdinal(type);
+    }
+  };
+  private final Object[] events;
+  private final int[] eventOrdinals;
+  private final int mask;
+  // The sequence of the last published event
+  private final Sequence cursor = new Sequence();
+  private final List<EventConsumer> consumers;
+  private final List<Thread> threads;
+  private volatile boolean closed;
+
+  // State only accessed by the producer - the sequence of the last published event, and the lowest consumer sequence,
+  // as of when it was last read, so that the consumers' sequences only need to be read when the buffer appears full
+  private long published = -1;
+  private long minConsumed = -1;
+
+  private SealedEventRouter(Builder<T> builder, List<Class<?>> types) {
+    this.root = builder.root;
+    this.types = types;
+    this.events = new Object[builder.bufferSize];
+    this.eventOrdinals = new int[builder.bufferSize];
+    this.mask = builder.bufferSize - 1;
+    this.consumers = new ArrayList<>();
+    for (Registration registration : builder.registrations)
+      this.consumers.add(new EventConsumer(registration, builder.errorHandler));
+    this.threads = new ArrayList<>();
+    for (EventConsumer consumer : this.consumers)
+      this.threads.add(builder.threadFactory.newThread(consumer));
+    this.threads.forEach(Thread::start);
+  }
+
+  /**
+   * @param root The root type of the sealed hierarchy.
+   * @param <T> The root type of the sealed hierarchy.
+   * @return A builder of a router for the supplied sealed hierarchy.
+   * @throws IllegalArgumentException if the supplied root type is not sealed.
+   */
+  public static <T> Builder<T> builder(Class<T> root) {
+    return new Builder<>(root);
+  }
+
+  /**
+   * Publishes the supplied event to the consumers, waiting for space in the ring buffer if it's full. Must only be
+   * called by one thread at a time.
+   *
+   * @param event The event.
+   * @throws IllegalStateException if the router has been closed.
+   */
+  public void publish(T event) {
+    Objects.requireNonNull(event, "event must not be null.");
+    if (this.closed)
+      throw new IllegalStateException("Router is closed.");
+    final int ordinal = this.ordinals.get(event.getClass());
+    final long sequence = this.published + 1;
+    // The slot can only be reused once every consumer has consumed the event last published to it
+    final long wrapPoint = sequence - this.events.length;
+    if (wrapPoint > this.minConsumed) {
+      int attempt = 0;
+      while (wrapPoint > (this.minConsumed = minConsumed()))
+        idle(attempt++);
+    }
+    final int slot = (int) sequence & this.mask;
+    this.events[slot] = event;
+    this.eventOrdinals[slot] = ordinal;
+    // Publish the event with release semantics, so consumers which see the new cursor also see the event
+    this.cursor.setRelease(sequence);
+    this.published = sequence;
+  }
+
+  /**
+   * Stops the router, once each consumer has consumed all the events that have been published, and waits for the
+   * consumers' threads to finish. Must be called by the thread which publishes events.
+   */
+  @Override
+  public void close() {
+    if (this.closed)
+      return;
+    this.closed = true;
+    for (Thread thread : this.threads) {
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private long minConsumed() {
+    long min = Long.MAX_VALUE;
+    for (EventConsumer consumer : this.consumers)
+      min = Math.min(min, consumer.sequence.getAcquire());
+    return min;
+  }
+
+  private int resolveOrdinal(Class<?> type) {
+    final int ordinal = SealedTypes.mostSpecificAncestor(type, this.types);
+    if (ordinal < 0)
+      throw new IllegalArgumentException(
+        "Type [" + type.getName() + "] is not a subtype of [" + this.root.getName() + "].");
+    return ordinal;
+  }
+
+  /** Waits for progress by another thread, backing off from spinning, to yielding, to parking, as attempts grow. */
+  private static void idle(int attempt) {
+    if (attempt < SPIN_ATTEMPTS)
+      Thread.onSpinWait();
+    else if (attempt < SPIN_ATTEMPTS + YIELD_ATTEMPTS)
+      Thread.yield();
+    else
+      LockSupport.parkNanos(PARK_NANOS);
+  }
+
+  /** A consumer of the events of one type, and its subtypes, which runs on its own thread. */
+  private final class EventConsumer implements Runnable {
+
+    // The sequence of the last event consumed
+    private final Sequence sequence = new Sequence();
+    // Whether the consumer handles events of each type, indexed by ordinal
+    private final boolean[] handles;
+    private final Consumer<Object> handler;
+    private final BiConsumer<Object, RuntimeException> errorHandler;
+
+    private EventConsumer(Registration registration, BiConsumer<Object, RuntimeException> errorHandler) {
+      this.handles = new boolean[SealedEventRouter.this.types.size()];
+      for (int ordinal = 0; ordinal < this.handles.length; ordinal++)
+        this.handles[ordinal] = registration.type().isAssignableFrom(SealedEventRouter.this.types.get(ordinal));
+      this.handler = registration.handler();
+      this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public void run() {
+      final Object[] events = SealedEventRouter.this.events;
+      final int[] eventOrdinals = SealedEventRouter.this.eventOrdinals;
+      final int mask = SealedEventRouter.this.mask;
+      final Sequence cursor = SealedEventRouter.this.cursor;
+      long next = this.sequence.getAcquire() + 1;
+      int attempt = 0;
+      try {
+        while (true) {
+          final long available = cursor.getAcquire();
+          if (available >= next) {
+            // Consume all the available events as a batch, only advancing the sequence once, at the end
+            for (; next <= available; next++) {
+              final int slot = (int) next & mask;
+              if (this.handles[eventOrdinals[slot]])
+                handle(events[slot]);
+            }
+            this.sequence.setRelease(available);
+            attempt = 0;
+          } else if (SealedEventRouter.this.closed) {
+            // Events published before the router was closed are visible once it's seen to be closed
+            if (cursor.getAcquire() < next)
+              return;
+          } else {
+            idle(attempt++);
+          }
+        }
+      } finally {
+        // However the consumer stops, move its sequence past any event the producer could publish, so that the
+        // producer never waits for it, rather than waiting forever once the buffer wraps
+        this.sequence.setRelease(Long.MAX_VALUE);
+      }
+    }
+
+    private void handle(Object event) {
+      try {
+        this.handler.accept(event);
+      } catch (RuntimeException e) {
+        this.errorHandler.accept(event, e);
+      }
+    }
+  }
+
+  /** A consumer's handler, and the type of event it handles, as registered with the builder. */
+  private record Registration(Class<?> type, Consumer<Object> handler) {
+  }
+
+  // A sequence number, padded on either side, so that it occupies its own cache line (assuming 64-byte lines), and
+  // isn't invalidated by writes to neighbouring fields, such as other sequences (false sharing). Superclass fields
+  // are laid out before those of a subclass, so the padding can't be reordered around the value.
+  @SuppressWarnings("unused")
+  private static class LeftPadding {
+    protected long p1, p2, p3, p4, p5, p6, p7;
+  }
+
+  private static class SequenceValue extends LeftPadding {
+    protected volatile long value = -1;
+  }
+
+  @SuppressWarnings("unused")
+  private static final class Sequence extends SequenceValue {
+
+    private static final VarHandle VALUE;
+
+    static {
+      try {
+        VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+      } catch (ReflectiveOperationException e) {
+        throw new ExceptionInInitializerError(e);
+      }
+    }
+
+    protected long p9, p10, p11, p12, p13, p14, p15;
+
+    long getAcquire() {
+      return (long) VALUE.getAcquire(this);
+    }
+
+    void setRelease(long value) {
+      VALUE.setRelease(this, value);
+    }
+  }
+
+  /**
+   * Builder of a {@link SealedEventRouter}.
+   *
+   * @param <T> The root type of the sealed hierarchy.
+   */
+  public static final class Builder<T> {
+
+    private final Class<T> root;
+    private final List<Registration> registrations = new ArrayList<>();
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private ThreadFactory threadFactory = runnable -> {
+      final Thread thread = Executors.defaultThreadFactory().newThread(runnable);
+      thread.setDaemon(true);
+      return thread;
+    };
+    private BiConsumer<Object, RuntimeException> errorHandler = (event, e) -> {
+      final Thread thread = Thread.currentThread();
+      thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    };
+
+    private Builder(Class<T> root) {
+      Objects.requireNonNull(root, "root must not be null.");
+      if (!root.isSealed())
+        throw new IllegalArgumentException("Type [" + root.getName() + "] is not sealed.");
+      this.root = root;
+    }
+
+    /**
+     * @param bufferSize The number of slots in the ring buffer. Must be a power of two, so that the slot of a sequence
+     * can be found by masking, rather than a (slower) remainder operation. Defaults to {@link #DEFAULT_BUFFER_SIZE}.
+     * @return This builder.
+     */
+    public Builder<T> bufferSize(int bufferSize) {
+      if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1)
+        throw new IllegalArgumentException("bufferSize must be a power of two.");
+      this.bufferSize = bufferSize;
+      return this;
+    }
+
+    /**
+     * @param threadFactory The factory used to create the thread for each consumer. Defaults to
+     * {@link Executors#defaultThreadFactory()}, but creating daemon threads.
+     * @return This builder.
+     */
+    public Builder<T> threadFactory(ThreadFactory threadFactory) {
+      this.threadFactory = Objects.requireNonNull(threadFactory, "threadFactory must not be null.");
+      return this;
+    }
+
+    /**
+     * @param errorHandler The handler of an exception thrown by a consumer, which is passed the event being handled,
+     * and the exception. Defaults to passing the exception to the consumer thread's uncaught exception handler.
+     * @return This builder.
+     */
+    @SuppressWarnings("unchecked")
+    public Builder<T> onError(BiConsumer<? super T, ? super RuntimeException> errorHandler) {
+      Objects.requireNonNull(errorHandler, "errorHandler must not be null.");
+      this.errorHandler = (BiConsumer<Object, RuntimeException>) errorHandler;
+      return this;
+    }
+
+    /**
+     * Registers a consumer of events of the supplied type, and its subtypes. Each consumer runs on its own thread.
+     *
+     * @param type The type, which must be the root type, or one of its sealed subtypes.
+     * @param handler The consumer's handler of each event.
+     * @param <S> The type.
+     * @return This builder.
+     * @throws IllegalArgumentException if the supplied type is not a subtype of the root type.
+     */
+    @SuppressWarnings("unchecked")
+    public <S extends T> Builder<T> on(Class<S> type, Consumer<? super S> handler) {
+      Objects.requireNonNull(type, "type must not be null.");
+      Objects.requireNonNull(handler, "handler must not be null.");
+      if (!this.root.isAssignableFrom(type))
+        throw new IllegalArgumentException(
+          "Type [" + type.getName() + "] is not a subtype of [" + this.root.getName() + "].");
+      this.registrations.add(new Registration(type, (Consumer<Object>) handler));
+      return this;
+    }
+
+    /**
+     * Builds the router, and starts its consumers' threads.
+     *
+     * @return The router.
+     * @throws IllegalArgumentException if a consumer was registered for a type which is not in the sealed hierarchy,
+     * i.e. an unknown subclass of a non-sealed type.
+     * @throws IllegalStateException if no consumers have been registered.
+     */
+    public SealedEventRouter<T> build() {
+      if (this.registrations.isEmpty())
+        throw new IllegalStateException("No consumers registered.");
+      final List<Class<?>> types = SealedTypes.findTypes(this.root);
+      for (Registration registration : this.registrations)
+        if (!types.contains(registration.type()))
+          throw new IllegalArgumentException("Type [" + registration.type().getName()
+            + "] is not in the sealed hierarchy of [" + this.root.getName() + "].");
+      return new SealedEventRouter<>(this, types);
+    }
+  }
+}
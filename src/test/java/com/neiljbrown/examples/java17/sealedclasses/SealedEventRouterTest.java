@@ -0,0 +1,222 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link SealedEventRouter}.
+ */
+public class SealedEventRouterTest {
+
+  /**
+   * Tests that each event is routed to the consumers registered for its type, or one of its supertypes, in the order
+   * they were published.
+   */
+  @Test
+  public void test_publish_routesByType() {
+    final List<OrderEvent> placed = new ArrayList<>();
+    final List<OrderEvent> shipments = new ArrayList<>();
+    final List<OrderEvent> delivered = new ArrayList<>();
+    final List<OrderEvent> all = new ArrayList<>();
+    final List<OrderEvent> events = List.of(new OrderPlaced(1), new Shipped(1), new OrderCancelled(2),
+      new OrderPlaced(3), new Delivered(1), new Shipped(3));
+
+    try (SealedEventRouter<OrderEvent> router = SealedEventRouter.builder(OrderEvent.class)
+      .on(OrderPlaced.class, placed::add)
+      .on(Shipment.class, shipments::add)
+      .on(Delivered.class, delivered::add)
+      .on(OrderEvent.class, all::add)
+      .build()) {
+      events.forEach(router::publish);
+    }
+
+    // Closing the router waits for the consumers' threads to finish, so their lists are visible
+    assertThat(placed).containsExactly(new OrderPlaced(1), new OrderPlaced(3));
+    assertThat(shipments).containsExactly(new Shipped(1), new Delivered(1), new Shipped(3));
+    assertThat(delivered).containsExactly(new Delivered(1));
+    assertThat(all).containsExactlyElementsOf(events);
+  }
+
+  /**
+   * Tests publishing many more events than there are slots in the ring buffer, so that the producer must repeatedly
+   * wait for the slowest consumer, and slots are reused, without any events being lost or reordered.
+   */
+  @Test
+  public void test_publish_wrapsBuffer() {
+    final int eventCount = 100_000;
+    final List<Long> placed = new ArrayList<>();
+    final List<Long> cancelled = new ArrayList<>();
+
+    try (SealedEventRouter<OrderEvent> router = SealedEventRouter.builder(OrderEvent.class)
+      .bufferSize(8)
+      .on(OrderPlaced.class, event -> placed.add(event.orderId()))
+      .on(OrderCancelled.class, event -> cancelled.add(event.orderId()))
+      .build()) {
+      for (long i = 0; i < eventCount; i++)
+        router.publish(i % 2 == 0 ? new OrderPlaced(i) : new OrderCancelled(i));
+    }
+
+    assertThat(placed).containsExactlyElementsOf(
+      LongStream.range(0, eventCount).filter(i -> i % 2 == 0).boxed().collect(Collectors.toList()));
+    assertThat(cancelled).containsExactlyElementsOf(
+      LongStream.range(0, eventCount).filter(i -> i % 2 == 1).boxed().collect(Collectors.toList()));
+  }
+
+  /**
+   * Tests that an exception thrown by a consumer is passed to the error handler, and the consumer carries on.
+   */
+  @Test
+  public void test_publish_consumerFails() {
+    final List<OrderEvent> handled = new ArrayList<>();
+    final List<String> errors = new ArrayList<>();
+
+    try (SealedEventRouter<OrderEvent> router = SealedEventRouter.builder(OrderEvent.class)
+      .on(OrderPlaced.class, event -> {
+        if (event.orderId() == 2)
+          throw new IllegalStateException("Order 2 failed.");
+        handled.add(event);
+      })
+      .onError((event, e) -> errors.add(event + " " + e.getMessage()))
+      .build()) {
+      for (long i = 1; i <= 3; i++)
+        router.publish(new OrderPlaced(i));
+    }
+
+    assertThat(handled).containsExactly(new OrderPlaced(1), new OrderPlaced(3));
+    assertThat(errors).containsExactly("OrderPlaced[orderId=2] Order 2 failed.");
+  }
+
+  /**
+   * Tests that a consumer whose handler throws an {@link Error}, or whose error handler throws, stops, without
+   * preventing the producer publishing further events, beyond the size of the ring buffer, to the other consumers.
+   */
+  @Test
+  public void test_publish_consumerStops() {
+    final int eventCount = 100;
+    final List<Long> all = new ArrayList<>();
+    final List<Long> placed = new ArrayList<>();
+    final List<Long> cancelled = new ArrayList<>();
+    final List<Throwable> uncaught = new CopyOnWriteArrayList<>();
+
+    try (SealedEventRouter<OrderEvent> router = SealedEventRouter.builder(OrderEvent.class)
+      .bufferSize(4)
+      .threadFactory(runnable -> {
+        final Thread thread = new Thread(runnable);
+        thread.setUncaughtExceptionHandler((t, e) -> uncaught.add(e));
+        return thread;
+      })
+      .on(OrderEvent.class, event -> all.add(event.orderId()))
+      .on(OrderPlaced.class, event -> {
+        if (event.orderId() == 2)
+          throw new AssertionError("Order 2 failed.");
+        placed.add(event.orderId());
+      })
+      .on(OrderCancelled.class, event -> {
+        if (event.orderId() == 3)
+          throw new IllegalStateException("Order 3 failed.");
+        cancelled.add(event.orderId());
+      })
+      .onError((event, e) -> {
+        throw new IllegalStateException("Error handler failed.", e);
+      })
+      .build()) {
+      for (long i = 0; i < eventCount; i++)
+        router.publish(i % 2 == 0 ? new OrderPlaced(i) : new OrderCancelled(i));
+    }
+
+    assertThat(all).containsExactlyElementsOf(LongStream.range(0, eventCount).boxed().collect(Collectors.toList()));
+    assertThat(placed).containsExactly(0L);
+    assertThat(cancelled).containsExactly(1L);
+    assertThat(uncaught).extracting(Throwable::getMessage)
+      .containsExactlyInAnyOrder("Order 2 failed.", "Error handler failed.");
+  }
+
+  /**
+   * Tests that, by default, consumers run on daemon threads, so a router which isn't closed doesn't prevent the JVM
+   * from exiting.
+   */
+  @Test
+  public void test_build_daemonThreads() {
+    final List<Boolean> daemon = new CopyOnWriteArrayList<>();
+
+    try (SealedEventRouter<OrderEvent> router = SealedEventRouter.builder(OrderEvent.class)
+      .on(OrderEvent.class, event -> daemon.add(Thread.currentThread().isDaemon()))
+      .build()) {
+      router.publish(new OrderPlaced(1));
+    }
+
+    assertThat(daemon).containsExactly(true);
+  }
+
+  /**
+   * Tests that events can't be published once the router is closed.
+   */
+  @Test
+  public void test_publish_closed() {
+    final SealedEventRouter<OrderEvent> router =
+      SealedEventRouter.builder(OrderEvent.class).on(OrderEvent.class, event -> { }).build();
+    router.close();
+
+    assertThat(catchThrowable(() -> router.publish(new OrderPlaced(1))))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("Router is closed.");
+  }
+
+  /**
+   * Tests that building a router fails if it's misconfigured.
+   */
+  @Test
+  public void test_build_invalid() {
+    assertThat(catchThrowable(() -> SealedEventRouter.builder(OrderEvent.class).bufferSize(12)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("bufferSize must be a power of two.");
+    assertThat(catchThrowable(() -> SealedEventRouter.builder(OrderEvent.class).build()))
+      .isInstanceOf(IllegalStateException.class)
+      .hasMessage("No consumers registered.");
+    assertThat(catchThrowable(() -> SealedEventRouter.builder(Object.class)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("Type [java.lang.Object] is not sealed.");
+  }
+
+  sealed interface OrderEvent permits OrderPlaced, OrderCancelled, Shipment {
+    long orderId();
+  }
+
+  record OrderPlaced(long orderId) implements OrderEvent {
+  }
+
+  record OrderCancelled(long orderId) implements OrderEvent {
+  }
+
+  sealed interface Shipment extends OrderEvent permits Shipped, Delivered {
+  }
+
+  record Shipped(long orderId) implements Shipment {
+  }
+
+  record Delivered(long orderId) implements Shipment {
+  }
+}
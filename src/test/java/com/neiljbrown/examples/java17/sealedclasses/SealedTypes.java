@@ -0,0 +1,69 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Utility methods for the types of a sealed hierarchy.
+ */
+final class SealedTypes {
+
+  private SealedTypes() {
+  }
+
+  /**
+   * Walks a sealed hierarchy from its root, using {@link Class#getPermittedSubclasses()}.
+   *
+   * @param root The root type of the hierarchy.
+   * @return The root type, and, recursively, its permitted subclasses, in depth-first order of their declaration in
+   * the permits clause of their supertype. A type which is reached more than once, via different sealed interfaces,
+   * is only included the first time.
+   */
+  static List<Class<?>> findTypes(Class<?> root) {
+    return List.copyOf(findTypes(root, new LinkedHashSet<>()));
+  }
+
+  /**
+   * @return The index of the most specific of the supplied candidate types which the supplied type is assignable to,
+   * or -1 if there is none.
+   * @throws IllegalStateException if there's more than one most specific candidate, i.e. the type is a subtype of two
+   * unrelated (interface) types.
+   */
+  static int mostSpecificAncestor(Class<?> type, List<Class<?>> candidates) {
+    int mostSpecific = -1;
+    for (int i = 0; i < candidates.size(); i++) {
+      final Class<?> candidate = candidates.get(i);
+      if (!candidate.isAssignableFrom(type))
+        continue;
+      if (mostSpecific < 0 || candidates.get(mostSpecific).isAssignableFrom(candidate))
+        mostSpecific = i;
+      else if (!candidate.isAssignableFrom(candidates.get(mostSpecific)))
+        throw new IllegalStateException("Type [" + type.getName() + "] has more than one nearest ancestor - ["
+          + candidates.get(mostSpecific).getName() + "] and [" + candidate.getName() + "].");
+    }
+    return mostSpecific;
+  }
+
+  private static Set<Class<?>> findTypes(Class<?> type, Set<Class<?>> types) {
+    if (types.add(type) && type.isSealed())
+      for (Class<?> subclass : type.getPermittedSubclasses())
+        findTypes(subclass, types);
+    return types;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.expr;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Objects;
+
+/**
+ * An {@link Expr} compiled by {@link ExprCompiler} to a method handle.
+ * <p>
+ * The JIT compiler only inlines the method handle, so that the expression is evaluated as fast as hand-written code, if
+ * it can treat it as a constant. For this, hold the compiled expression in a static final field. This is a Record
+ * rather than a class because the JIT compiler trusts the final fields of a Record not to change, so a handle reached
+ * via a static final field is also a constant, unlike one held in the final field of an ordinary class. Otherwise, the
+ * handle is invoked without being inlined, which is still many times faster than interpreting the expression, but
+ * slower than hand-written code.
+ *
+ * @param handle The method handle which evaluates the expression. Must be of type {@code (long[])long}.
+ */
+public record CompiledExpr(MethodHandle handle) {
+
+  public CompiledExpr {
+    Objects.requireNonNull(handle, "handle must not be null.");
+    if (!handle.type().equals(ExprCompiler.EXPR_TYPE))
+      throw new IllegalArgumentException("handle must be of type " + ExprCompiler.EXPR_TYPE + ".");
+  }
+
+  /**
+   * @param variables The value of each variable, indexed by {@link Expr.Var#index()}.
+   * @return The value of the expression.
+   * @throws ArithmeticException if the expression divides by zero.
+   * @throws IndexOutOfBoundsException if the expression references a variable which has no value.
+   */
+  public long evaluate(long[] variables) {
+    Objects.requireNonNull(variables, "variables must not be null.");
+    try {
+      return (long) this.handle.invokeExact(variables);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException("Unexpected error evaluating expression.", t);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.expr;
+
+import java.util.Objects;
+
+/**
+ * An expression of a small language of integer arithmetic and boolean logic, represented as a tree of (immutable)
+ * Records, whose root type is this sealed interface.
+ * <p>
+ * As with the Shape hierarchy in {@link com.neiljbrown.examples.java17.sealedclasses.SealedClassesExamplesTest}, the
+ * sealed interface specifies the complete list of types of expression, so code which processes expressions, such as
+ * {@link ExprInterpreter} and {@link ExprCompiler}, can't be surprised by an unknown type. The permitted subclasses are
+ * Records, which are implicitly final.
+ * <p>
+ * Every expression evaluates to a long. There's no separate boolean type - as in C, a comparison or logical operator
+ * evaluates to 1 if it's true, and 0 if it's false, and any non-zero value is treated as true. Arithmetic follows the
+ * rules of Java's long operators, e.g. it wraps on overflow, and division by zero throws an
+ * {@link ArithmeticException}. Variables are referenced by their index in an array of values, supplied when the
+ * expression is evaluated.
+ */
+public sealed interface Expr permits Expr.Const, Expr.Var, Expr.Add, Expr.Sub, Expr.Mul, Expr.Div, Expr.Cmp,
+  Expr.And, Expr.Or, Expr.Not, Expr.If {
+
+  /** A constant value. */
+  record Const(long value) implements Expr { }
+
+  /**
+   * The value of a variable.
+   *
+   * @param index The index of the variable in the array of values supplied when the expression is evaluated.
+   */
+  record Var(int index) implements Expr {
+    public Var {
+      if (index < 0)
+        throw new IllegalArgumentException("index must be zero or greater.");
+    }
+  }
+
+  /** The sum of two expressions. */
+  record Add(Expr left, Expr right) implements Expr {
+    public Add {
+      requireOperands(left, right);
+    }
+  }
+
+  /** The difference of two expressions. */
+  record Sub(Expr left, Expr right) implements Expr {
+    public Sub {
+      requireOperands(left, right);
+    }
+  }
+
+  /** The product of two expressions. */
+  record Mul(Expr left, Expr right) implements Expr {
+    public Mul {
+      requireOperands(left, right);
+    }
+  }
+
+  /** The quotient of two expressions, rounded towards zero. */
+  record Div(Expr left, Expr right) implements Expr {
+    public Div {
+      requireOperands(left, right);
+    }
+  }
+
+  /** A comparison of two expressions, which is 1 if it's true, otherwise 0. */
+  record Cmp(Op op, Expr left, Expr right) implements Expr {
+    public Cmp {
+      Objects.requireNonNull(op, "op must not be null.");
+      requireOperands(left, right);
+    }
+
+    /** A comparison operator. */
+    public enum Op {
+      EQ, NE, LT, LE, GT, GE;
+
+      /**
+       * @param left The left operand.
+       * @param right The right operand.
+       * @return true if the comparison of the operands is true, otherwise false.
+       */
+      public boolean test(long left, long right) {
+        return switch (this) {
+          case EQ -> left == right;
+          case NE -> left != right;
+          case LT -> left < right;
+          case LE -> left <= right;
+          case GT -> left > right;
+          case GE -> left >= right;
+        };
+      }
+    }
+  }
+
+  /** The logical conjunction of two expressions. The right is only evaluated if the left is true (non-zero). */
+  record And(Expr left, Expr right) implements Expr {
+    public And {
+      requireOperands(left, right);
+    }
+  }
+
+  /** The logical disjunction of two expressions. The right is only evaluated if the left is false (zero). */
+  record Or(Expr left, Expr right) implements Expr {
+    public Or {
+      requireOperands(left, right);
+    }
+  }
+
+  /** The logical negation of an expression. */
+  record Not(Expr operand) implements Expr {
+    public Not {
+      Objects.requireNonNull(operand, "operand must not be null.");
+    }
+  }
+
+  /** A conditional expression, of which only the selected branch is evaluated. */
+  record If(Expr condition, Expr then, Expr otherwise) implements Expr {
+    public If {
+      Objects.requireNonNull(condition, "condition must not be null.");
+      Objects.requireNonNull(then, "then must not be null.");
+      Objects.requireNonNull(otherwise, "otherwise must not be null.");
+    }
+  }
+
+  private static void requireOperands(Expr left, Expr right) {
+    Objects.requireNonNull(left, "left must not be null.");
+    Objects.requireNonNull(right, "right must not be null.");
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.expr;
+
+import static java.lang.invoke.MethodType.methodType;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiles an {@link Expr} to a single {@link MethodHandle}, which evaluates it much faster than
+ * {@link ExprInterpreter}.
+ * <p>
+ * The tree is folded, bottom-up, into a tree of method handles, of type {@code (long[])long}, using the
+ * {@link MethodHandles} combinators - e.g. an addition is compiled to a handle for a static add method, whose arguments
+ * are filtered through the handles of its operands. Logical operators and conditional expressions are compiled using
+ * {@link MethodHandles#guardWithTest}, so only the operands that need to be are evaluated. The JIT compiler can inline
+ * the whole tree of handles, provided it can treat the root handle as a constant, e.g. if it's held in a static final
+ * field (see {@link CompiledExpr}), after which evaluating the expression performs about as well as hand-written code.
+ */
+public final class ExprCompiler {
+
+  /** The type of the method handle of every compiled expression. */
+  static final MethodType EXPR_TYPE = methodType(long.class, long[].class);
+
+  private static final MethodHandle VARIABLE = MethodHandles.arrayElementGetter(long[].class);
+  private static final MethodHandle ADD;
+  private static final MethodHandle SUB;
+  private static final MethodHandle MUL;
+  private static final MethodHandle DIV;
+  private static final MethodHandle NOT;
+  private static final MethodHandle TRUTH;
+  private static final MethodHandle IS_TRUE;
+  private static final MethodHandle TRUE;
+  private static final MethodHandle FALSE;
+  private static final Map<Expr.Cmp.Op, MethodHandle> COMPARISONS = new EnumMap<>(Expr.Cmp.Op.class);
+
+  static {
+    final MethodHandles.Lookup lookup = MethodHandles.lookup();
+    final MethodType binaryType = methodType(long.class, long.class, long.class);
+    try {
+      ADD = lookup.findStatic(ExprCompiler.class, "add", binaryType);
+      SUB = lookup.findStatic(ExprCompiler.class, "sub", binaryType);
+      MUL = lookup.findStatic(ExprCompiler.class, "mul", binaryType);
+      DIV = lookup.findStatic(ExprCompiler.class, "div", binaryType);
+      NOT = lookup.findStatic(ExprCompiler.class, "not", methodType(long.class, long.class));
+      TRUTH = lookup.findStatic(ExprCompiler.class, "truth", methodType(long.class, long.class));
+      IS_TRUE = lookup.findStatic(ExprCompiler.class, "isTrue", methodType(boolean.class, long.class));
+      for (Expr.Cmp.Op op : Expr.Cmp.Op.values())
+        COMPARISONS.put(op, lookup.findStatic(ExprCompiler.class, op.name().toLowerCase(Locale.ROOT), binaryType));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+    TRUE = constant(1);
+    FALSE = constant(0);
+  }
+
+  private ExprCompiler() {
+  }
+
+  /**
+   * @param expr The expression.
+   * @return The compiled expression.
+   */
+  public static CompiledExpr compile(Expr expr) {
+    return new CompiledExpr(compileTree(Objects.requireNonNull(expr, "expr must not be null.")));
+  }
+
+  /** @return A method handle of type {@link #EXPR_TYPE}, which evaluates the supplied expression. */
+  private static MethodHandle compileTree(Expr expr) {
+    if (expr instanceof Expr.Const constant)
+      return constant(constant.value());
+    if (expr instanceof Expr.Var variable)
+      return MethodHandles.insertArguments(VARIABLE, 1, variable.index());
+    if (expr instanceof Expr.Add add)
+      return binary(ADD, add.left(), add.right());
+    if (expr instanceof Expr.Sub sub)
+      return binary(SUB, sub.left(), sub.right());
+    if (expr instanceof Expr.Mul mul)
+      return binary(MUL, mul.left(), mul.right());
+    if (expr instanceof Expr.Div div)
+      return binary(DIV, div.left(), div.right());
+    if (expr instanceof Expr.Cmp cmp)
+      return binary(COMPARISONS.get(cmp.op()), cmp.left(), cmp.right());
+    if (expr instanceof Expr.And and)
+      return MethodHandles.guardWithTest(test(and.left()), truth(and.right()), FALSE);
+    if (expr instanceof Expr.Or or)
+      return MethodHandles.guardWithTest(test(or.left()), TRUE, truth(or.right()));
+    if (expr instanceof Expr.Not not)
+      return MethodHandles.filterReturnValue(compileTree(not.operand()), NOT);
+    if (expr instanceof Expr.If conditional)
+      return MethodHandles.guardWithTest(test(conditional.condition()), compileTree(conditional.then()),
+        compileTree(conditional.otherwise()));
+    // Unreachable, as all the permitted subclasses of the sealed interface are matched above
+    throw new IllegalStateException("Unsupported type of expression [" + expr.getClass().getName() + "].");
+  }
+
+  /** @return A handle which applies the supplied binary operator to the values of the supplied operands. */
+  private static MethodHandle binary(MethodHandle operator, Expr left, Expr right) {
+    // (long, long)long -> (long[], long[])long -> (long[])long, passing the variables to both operands
+    final MethodHandle operands = MethodHandles.filterArguments(operator, 0, compileTree(left), compileTree(right));
+    return MethodHandles.permuteArguments(operands, EXPR_TYPE, 0, 0);
+  }
+
+  /** @return A handle of type (long[])boolean, which tests whether the supplied expression is true (non-zero). */
+  private static MethodHandle test(Expr expr) {
+    return MethodHandles.filterReturnValue(compileTree(expr), IS_TRUE);
+  }
+
+  /** @return A handle which evaluates to 1 if the supplied expression is true (non-zero), otherwise 0. */
+  private static MethodHandle truth(Expr expr) {
+    return MethodHandles.filterReturnValue(compileTree(expr), TRUTH);
+  }
+
+  private static MethodHandle constant(long value) {
+    return MethodHandles.dropArguments(MethodHandles.constant(long.class, value), 0, long[].class);
+  }
+
+  // Operators, looked up as method handles
+
+  private static long add(long left, long right) {
+    return left + right;
+  }
+
+  private static long sub(long left, long right) {
+    return left - right;
+  }
+
+  private static long mul(long left, long right) {
+    return left * right;
+  }
+
+  private static long div(long left, long right) {
+    return left / right;
+  }
+
+  private static long not(long value) {
+    return value == 0 ? 1 : 0;
+  }
+
+  private static long truth(long value) {
+    return value != 0 ? 1 : 0;
+  }
+
+  private static boolean isTrue(long value) {
+    return value != 0;
+  }
+
+  private static long eq(long left, long right) {
+    return left == right ? 1 : 0;
+  }
+
+  private static long ne(long left, long right) {
+    return left != right ? 1 : 0;
+  }
+
+  private static long lt(long left, long right) {
+    return left < right ? 1 : 0;
+  }
+
+  private static long le(long left, long right) {
+    return left <= right ? 1 : 0;
+  }
+
+  private static long gt(long left, long right) {
+    return left > right ? 1 : 0;
+  }
+
+  private static long ge(long left, long right) {
+    return left >= right ? 1 : 0;
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.expr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Add;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.And;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Cmp;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Const;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Div;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.If;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Mul;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Not;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Or;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Sub;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Var;
+
+/**
+ * Unit tests for {@link ExprCompiler}.
+ */
+public class ExprCompilerTest {
+
+  private static final int VARIABLE_COUNT = 3;
+
+  /**
+   * Tests evaluating a compiled expression which uses every type of expression.
+   */
+  @Test
+  public void test_compile() {
+    // if (x < y && !(y == 0)) then (x + 3) * y else x / 2 - 1
+    final Expr expr = new If(
+      new And(new Cmp(Cmp.Op.LT, new Var(0), new Var(1)), new Not(new Cmp(Cmp.Op.EQ, new Var(1), new Const(0)))),
+      new Mul(new Add(new Var(0), new Const(3)), new Var(1)),
+      new Sub(new Div(new Var(0), new Const(2)), new Const(1)));
+
+    final CompiledExpr compiled = ExprCompiler.compile(expr);
+
+    assertThat(compiled.evaluate(new long[] {2, 5})).isEqualTo(25);
+    assertThat(compiled.evaluate(new long[] {9, 5})).isEqualTo(3);
+    assertThat(compiled.handle().type()).isEqualTo(ExprCompiler.EXPR_TYPE);
+  }
+
+  /**
+   * Tests that the right operand of a compiled logical operator is only evaluated when it needs to be, and that
+   * dividing by zero fails, as for the interpreter.
+   */
+  @Test
+  public void test_compile_shortCircuits() {
+    final Expr divideByZero = new Div(new Const(1), new Const(0));
+
+    assertThat(ExprCompiler.compile(new And(new Const(0), divideByZero)).evaluate(new long[0])).isEqualTo(0);
+    assertThat(ExprCompiler.compile(new Or(new Const(7), divideByZero)).evaluate(new long[0])).isEqualTo(1);
+    assertThat(ExprCompiler.compile(new Or(new Const(0), new Const(7))).evaluate(new long[0])).isEqualTo(1);
+    assertThat(catchThrowable(() -> ExprCompiler.compile(divideByZero).evaluate(new long[0])))
+      .isInstanceOf(ArithmeticException.class);
+  }
+
+  /**
+   * Tests that compiled expressions evaluate to the same value as when they're interpreted, for a large number of
+   * random expressions and variables.
+   */
+  @Test
+  public void test_compile_matchesInterpreter() {
+    final Random random = new Random(42);
+    for (int i = 0; i < 500; i++) {
+      final Expr expr = randomExpr(random, 5);
+      final CompiledExpr compiled = ExprCompiler.compile(expr);
+      for (int j = 0; j < 20; j++) {
+        final long[] variables = random.longs(VARIABLE_COUNT, -10, 10).toArray();
+        final Object expected = evaluateOrThrowable(() -> ExprInterpreter.evaluate(expr, variables));
+        final Object actual = evaluateOrThrowable(() -> compiled.evaluate(variables));
+        assertThat(actual).as("Expression %s, variables %s", expr, variables).isEqualTo(expected);
+      }
+    }
+  }
+
+  private static Object evaluateOrThrowable(LongSupplier evaluation) {
+    try {
+      return evaluation.getAsLong();
+    } catch (ArithmeticException e) {
+      return e.getClass();
+    }
+  }
+
+  private static Expr randomExpr(Random random, int depth) {
+    if (depth == 0 || random.nextInt(4) == 0)
+      return random.nextBoolean() ? new Const(random.nextInt(7) - 3) : new Var(random.nextInt(VARIABLE_COUNT));
+    return switch (random.nextInt(10)) {
+      case 0 -> new Add(randomExpr(random, depth - 1), randomExpr(random, depth - 1));
+      case 1 -> new Sub(randomExpr(random, depth - 1), randomExpr(random, depth - 1));
+      case 2 -> new Mul(randomExpr(random, depth - 1), randomExpr(random, depth - 1));
+      case 3 -> new Div(randomExpr(random, depth - 1), randomExpr(random, depth - 1));
+      case 4 -> new Cmp(Cmp.Op.values()[random.nextInt(Cmp.Op.values().length)], randomExpr(random, depth - 1),
+        randomExpr(random, depth - 1));
+      case 5 -> new And(randomExpr(random, depth - 1), randomExpr(random, depth - 1));
+      case 6 -> new Or(randomExpr(random, depth - 1), randomExpr(random, depth - 1));
+      case 7 -> new Not(randomExpr(random, depth - 1));
+      default -> new If(randomExpr(random, depth - 1), randomExpr(random, depth - 1), randomExpr(random, depth - 1));
+    };
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.expr;
+
+import java.util.Objects;
+
+/**
+ * Evaluates an {@link Expr} by walking its tree, recursively evaluating the operands of each expression, and then
+ * applying its operator.
+ * <p>
+ * The type of each expression is matched using a chain of instanceof tests with type patterns, as pattern matching
+ * for switch is only a preview feature as of JDK 17. As {@link Expr} is sealed, the chain covers every type of
+ * expression. This is simple, but relatively slow, as each expression costs a chain of type tests, and a recursive
+ * call, which can't be inlined. To evaluate the same expression many times, compile it using {@link ExprCompiler}.
+ */
+public final class ExprInterpreter {
+
+  private ExprInterpreter() {
+  }
+
+  /**
+   * @param expr The expression.
+   * @param variables The value of each variable, indexed by {@link Expr.Var#index()}.
+   * @return The value of the expression.
+   * @throws ArithmeticException if the expression divides by zero.
+   * @throws IndexOutOfBoundsException if the expression references a variable which has no value.
+   */
+  public static long evaluate(Expr expr, long[] variables) {
+    Objects.requireNonNull(variables, "variables must not be null.");
+    return eval(Objects.requireNonNull(expr, "expr must not be null."), variables);
+  }
+
+  private static long eval(Expr expr, long[] variables) {
+    if (expr instanceof Expr.Const constant)
+      return constant.value();
+    if (expr instanceof Expr.Var variable)
+      return variables[variable.index()];
+    if (expr instanceof Expr.Add add)
+      return eval(add.left(), variables) + eval(add.right(), variables);
+    if (expr instanceof Expr.Sub sub)
+      return eval(sub.left(), variables) - eval(sub.right(), variables);
+    if (expr instanceof Expr.Mul mul)
+      return eval(mul.left(), variables) * eval(mul.right(), variables);
+    if (expr instanceof Expr.Div div)
+      return eval(div.left(), variables) / eval(div.right(), variables);
+    if (expr instanceof Expr.Cmp cmp)
+      return toLong(cmp.op().test(eval(cmp.left(), variables), eval(cmp.right(), variables)));
+    if (expr instanceof Expr.And and)
+      return toLong(eval(and.left(), variables) != 0 && eval(and.right(), variables) != 0);
+    if (expr instanceof Expr.Or or)
+      return toLong(eval(or.left(), variables) != 0 || eval(or.right(), variables) != 0);
+    if (expr instanceof Expr.Not not)
+      return toLong(eval(not.operand(), variables) == 0);
+    if (expr instanceof Expr.If conditional)
+      return eval(conditional.condition(), variables) != 0
+        ? eval(conditional.then(), variables)
+        : eval(conditional.otherwise(), variables);
+    // Unreachable, as all the permitted subclasses of the sealed interface are matched above
+    throw new IllegalStateException("Unsupported type of expression [" + expr.getClass().getName() + "].");
+  }
+
+  private static long toLong(boolean value) {
+    return value ? 1 : 0;
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.expr;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import org.junit.jupiter.api.Test;
+
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Add;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.And;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Cmp;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Const;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Div;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.If;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Mul;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Not;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Or;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Sub;
+import com.neiljbrown.examples.java17.sealedclasses.expr.Expr.Var;
+
+/**
+ * Unit tests for {@link ExprInterpreter}.
+ */
+public class ExprInterpreterTest {
+
+  /**
+   * Tests evaluating arithmetic expressions.
+   */
+  @Test
+  public void test_evaluate_arithmetic() {
+    // (x + 3) * y - x / 2
+    final Expr expr =
+      new Sub(new Mul(new Add(new Var(0), new Const(3)), new Var(1)), new Div(new Var(0), new Const(2)));
+
+    assertThat(ExprInterpreter.evaluate(expr, new long[] {7, 4})).isEqualTo(37);
+    assertThat(ExprInterpreter.evaluate(expr, new long[] {-7, 4})).isEqualTo(-13);
+  }
+
+  /**
+   * Tests evaluating comparison, logical and conditional expressions.
+   */
+  @Test
+  public void test_evaluate_logic() {
+    final Expr xLessThanY = new Cmp(Cmp.Op.LT, new Var(0), new Var(1));
+    final Expr yIsPositive = new Cmp(Cmp.Op.GT, new Var(1), new Const(0));
+
+    assertThat(ExprInterpreter.evaluate(xLessThanY, new long[] {1, 2})).isEqualTo(1);
+    assertThat(ExprInterpreter.evaluate(xLessThanY, new long[] {2, 2})).isEqualTo(0);
+    assertThat(ExprInterpreter.evaluate(new And(xLessThanY, yIsPositive), new long[] {-1, 2})).isEqualTo(1);
+    assertThat(ExprInterpreter.evaluate(new And(xLessThanY, yIsPositive), new long[] {-3, -2})).isEqualTo(0);
+    assertThat(ExprInterpreter.evaluate(new Or(xLessThanY, yIsPositive), new long[] {-3, -2})).isEqualTo(1);
+    assertThat(ExprInterpreter.evaluate(new Not(xLessThanY), new long[] {1, 2})).isEqualTo(0);
+    // Any non-zero value is true, and a logical operator evaluates to 1 if it's true
+    assertThat(ExprInterpreter.evaluate(new And(new Const(5), new Const(-9)), new long[0])).isEqualTo(1);
+    assertThat(ExprInterpreter.evaluate(new If(xLessThanY, new Const(10), new Const(20)), new long[] {5, 1}))
+      .isEqualTo(20);
+  }
+
+  /**
+   * Tests that the right operand of a logical operator, and the unselected branch of a conditional expression, are
+   * not evaluated, by making them divide by zero.
+   */
+  @Test
+  public void test_evaluate_shortCircuits() {
+    final Expr divideByZero = new Div(new Const(1), new Const(0));
+
+    assertThat(ExprInterpreter.evaluate(new And(new Const(0), divideByZero), new long[0])).isEqualTo(0);
+    assertThat(ExprInterpreter.evaluate(new Or(new Const(1), divideByZero), new long[0])).isEqualTo(1);
+    assertThat(ExprInterpreter.evaluate(new If(new Const(1), new Const(2), divideByZero), new long[0])).isEqualTo(2);
+    assertThat(catchThrowable(() -> ExprInterpreter.evaluate(divideByZero, new long[0])))
+      .isInstanceOf(ArithmeticException.class);
+  }
+
+  /**
+   * Tests that evaluating an expression which references a variable which has no value fails.
+   */
+  @Test
+  public void test_evaluate_missingVariable() {
+    assertThat(catchThrowable(() -> ExprInterpreter.evaluate(new Var(2), new long[] {1, 2})))
+      .isInstanceOf(IndexOutOfBoundsException.class);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Operations on a slice of a {@link ByteBuffer}, identified by an offset and length, which use absolute indexes, so
+ * don't depend on or change the buffer's position, and don't require a slice of the buffer to be created.
+ */
+final class ByteSlices {
+
+  private ByteSlices() {
+  }
+
+  /**
+   * @throws IllegalArgumentException if the slice isn't within the supplied buffer's limit.
+   */
+  static void validate(ByteBuffer source, int offset, int length) {
+    Objects.requireNonNull(source, "source must not be null.");
+    if (offset < 0)
+      throw new IllegalArgumentException("offset must be zero or greater.");
+    if (length < 0)
+      throw new IllegalArgumentException("length must be zero or greater.");
+    if (offset > source.limit() - length)
+      throw new IllegalArgumentException("offset plus length must not exceed the source's limit.");
+  }
+
+  /** @return The slice decoded as UTF-8. Malformed input is replaced with the Unicode replacement character. */
+  static String decode(ByteBuffer source, int offset, int length) {
+    if (source.hasArray())
+      return new String(source.array(), source.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+    final byte[] bytes = new byte[length];
+    source.get(offset, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** @return true if the two slices contain the same bytes, otherwise false. */
+  static boolean equals(ByteBuffer source, int offset, int length, ByteBuffer other, int otherOffset,
+    int otherLength) {
+    if (length != otherLength)
+      return false;
+    for (int i = 0; i < length; i++) {
+      if (source.get(offset + i) != other.get(otherOffset + i))
+        return false;
+    }
+    return true;
+  }
+}
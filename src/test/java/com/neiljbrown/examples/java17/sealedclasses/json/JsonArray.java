@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A JSON array.
+ *
+ * @param elements The elements of the array, in order. The list is copied, unless it's already unmodifiable.
+ */
+public record JsonArray(List<JsonValue> elements) implements JsonValue {
+
+  public JsonArray {
+    elements = List.copyOf(Objects.requireNonNull(elements, "elements must not be null."));
+  }
+
+  /** @return The number of elements in the array. */
+  public int size() {
+    return this.elements.size();
+  }
+
+  /**
+   * @param index The index of the element.
+   * @return The element at the supplied index.
+   * @throws IndexOutOfBoundsException if the index is not within the array.
+   */
+  public JsonValue get(int index) {
+    return this.elements.get(index);
+  }
+}
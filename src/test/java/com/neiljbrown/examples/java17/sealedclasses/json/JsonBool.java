@@ -0,0 +1,37 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+/**
+ * A JSON boolean, {@code true} or {@code false}.
+ *
+ * @param value The value.
+ */
+public record JsonBool(boolean value) implements JsonValue {
+
+  /** The JSON value {@code true}, shared by the parser, rather than creating one for each occurrence. */
+  public static final JsonBool TRUE = new JsonBool(true);
+  /** The JSON value {@code false}, shared by the parser, rather than creating one for each occurrence. */
+  public static final JsonBool FALSE = new JsonBool(false);
+
+  /**
+   * @param value The value.
+   * @return The (shared) JSON boolean for the supplied value.
+   */
+  public static JsonBool of(boolean value) {
+    return value ? TRUE : FALSE;
+  }
+}
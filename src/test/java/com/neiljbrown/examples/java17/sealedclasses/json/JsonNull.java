@@ -0,0 +1,27 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+/**
+ * The JSON value {@code null}.
+ * <p>
+ * Every instance is equal, so the parser always returns the shared {@link #INSTANCE}.
+ */
+public record JsonNull() implements JsonValue {
+
+  /** The shared instance. */
+  public static final JsonNull INSTANCE = new JsonNull();
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A JSON number, held as a slice of the bytes of its text, as parsed, which is only converted to a Java number when
+ * it's accessed, as a {@link #longValue() long} or a {@link #doubleValue() double}. Converting a number with no
+ * fraction or exponent to a long doesn't create any objects. The source buffer is shared, not copied, so must not be
+ * modified whilst the number is in use.
+ * <p>
+ * Numbers are equal if their text is equal, e.g. 1 and 1.0 are not equal.
+ *
+ * @param source The buffer holding the text of the number.
+ * @param offset The (absolute) index in the buffer of the number's first byte.
+ * @param length The number of bytes in the number.
+ */
+public record JsonNumber(ByteBuffer source, int offset, int length) implements JsonValue {
+
+  public JsonNumber {
+    ByteSlices.validate(source, offset, length);
+  }
+
+  /**
+   * @param value The value.
+   * @return A JSON number with the supplied value, held in a new buffer.
+   */
+  public static JsonNumber of(long value) {
+    final byte[] bytes = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+    return new JsonNumber(ByteBuffer.wrap(bytes), 0, bytes.length);
+  }
+
+  /**
+   * @return The value of the number, as a long.
+   * @throws NumberFormatException if the number has a fraction or exponent, or is out of the range of a long.
+   */
+  public long longValue() {
+    final int end = this.offset + this.length;
+    int i = this.offset;
+    final boolean negative = i < end && this.source.get(i) == '-';
+    if (negative)
+      i++;
+    if (i == end)
+      throw new NumberFormatException("Number [" + this + "] is not an integer.");
+    // Accumulate the value as a negative number, whose range is greater, so that Long.MIN_VALUE can be parsed
+    long value = 0;
+    try {
+      for (; i < end; i++) {
+        final int digit = this.source.get(i) - '0';
+        if (digit < 0 || digit > 9)
+          throw new NumberFormatException("Number [" + this + "] is not an integer.");
+        value = Math.subtractExact(Math.multiplyExact(value, 10), digit);
+      }
+      return negative ? value : Math.negateExact(value);
+    } catch (ArithmeticException e) {
+      throw new NumberFormatException("Number [" + this + "] is out of the range of a long.");
+    }
+  }
+
+  /**
+   * @return The value of the number, as a double, rounded to the nearest double if it can't be represented exactly.
+   * @throws NumberFormatException if the text of the number isn't a valid number.
+   */
+  public double doubleValue() {
+    return Double.parseDouble(toString());
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    return o instanceof JsonNumber other
+      && ByteSlices.equals(this.source, this.offset, this.length, other.source, other.offset, other.length);
+  }
+
+  @Override
+  public int hashCode() {
+    int hash = 1;
+    for (int i = this.offset; i < this.offset + this.length; i++)
+      hash = 31 * hash + this.source.get(i);
+    return hash;
+  }
+
+  /** @return The text of the number. */
+  @Override
+  public String toString() {
+    return ByteSlices.decode(this.source, this.offset, this.length);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JsonNumber}.
+ */
+public class JsonNumberTest {
+
+  /**
+   * Tests converting integers to a long, including the limits of its range.
+   */
+  @Test
+  public void test_longValue() {
+    assertThat(parse("0").longValue()).isZero();
+    assertThat(parse("-0").longValue()).isZero();
+    assertThat(parse("1234567890").longValue()).isEqualTo(1234567890L);
+    assertThat(parse(Long.toString(Long.MAX_VALUE)).longValue()).isEqualTo(Long.MAX_VALUE);
+    assertThat(parse(Long.toString(Long.MIN_VALUE)).longValue()).isEqualTo(Long.MIN_VALUE);
+  }
+
+  /**
+   * Tests that converting a number which isn't an integer, or which is out of range, to a long fails.
+   */
+  @Test
+  public void test_longValue_notALong() {
+    assertThat(catchThrowable(() -> parse("1.5").longValue())).isInstanceOf(NumberFormatException.class)
+      .hasMessage("Number [1.5] is not an integer.");
+    assertThat(catchThrowable(() -> parse("1e3").longValue())).isInstanceOf(NumberFormatException.class)
+      .hasMessage("Number [1e3] is not an integer.");
+    assertThat(catchThrowable(() -> parse("9223372036854775808").longValue()))
+      .isInstanceOf(NumberFormatException.class)
+      .hasMessage("Number [9223372036854775808] is out of the range of a long.");
+  }
+
+  /**
+   * Tests converting numbers to a double.
+   */
+  @Test
+  public void test_doubleValue() {
+    assertThat(parse("42").doubleValue()).isEqualTo(42.0);
+    assertThat(parse("-0.5").doubleValue()).isEqualTo(-0.5);
+    assertThat(parse("6.02E23").doubleValue()).isEqualTo(6.02e23);
+    assertThat(parse("1e-2").doubleValue()).isEqualTo(0.01);
+  }
+
+  /**
+   * Tests that numbers are equal if their text is equal.
+   */
+  @Test
+  public void test_equals() {
+    assertThat(parse("  17 ")).isEqualTo(JsonNumber.of(17)).hasSameHashCodeAs(JsonNumber.of(17));
+    assertThat(parse("17.0")).isNotEqualTo(JsonNumber.of(17));
+    assertThat(parse("17.0")).hasToString("17.0");
+  }
+
+  private static JsonNumber parse(String json) {
+    return (JsonNumber) JsonParser.parse(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A JSON object.
+ * <p>
+ * The members are held as a list, in the order they were parsed, rather than a map, so that their names don't need to
+ * be decoded to Strings (and hashed) unless they're accessed. Looking up a member by name compares the name with each
+ * member's name in turn, without decoding them, which, for the small number of members in a typical object, is as
+ * fast as a lookup in a hash map.
+ *
+ * @param members The members of the object. The list is copied, unless it's already unmodifiable.
+ */
+public record JsonObject(List<Member> members) implements JsonValue {
+
+  public JsonObject {
+    members = List.copyOf(Objects.requireNonNull(members, "members must not be null."));
+  }
+
+  /** @return The number of members in the object. */
+  public int size() {
+    return this.members.size();
+  }
+
+  /**
+   * @param name The name of the member.
+   * @return The value of the first member with the supplied name, or null if there is none.
+   */
+  public JsonValue get(String name) {
+    Objects.requireNonNull(name, "name must not be null.");
+    for (Member member : this.members) {
+      if (member.name().contentEquals(name))
+        return member.value();
+    }
+    return null;
+  }
+
+  /**
+   * A member (name/value pair) of a JSON object.
+   *
+   * @param name The name.
+   * @param value The value.
+   */
+  public record Member(JsonString name, JsonValue value) {
+
+    public Member {
+      Objects.requireNonNull(name, "name must not be null.");
+      Objects.requireNonNull(value, "value must not be null.");
+    }
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Parses JSON values, encoded as UTF-8, directly from a {@link ByteBuffer}, without first decoding the bytes to chars.
+ * <p>
+ * Parsing is zero-copy - the parsed strings and numbers are slices of the supplied buffer, which are only decoded when
+ * they're accessed (see {@link JsonValue}). As a result, the cost of parsing a document, and the garbage it creates,
+ * are dominated by its structure (objects, arrays and their members), rather than the size of its content, and fields
+ * which are never read cost next to nothing. The buffer is shared, so must not be modified whilst the parsed values
+ * are in use.
+ * <p>
+ * A parser reads a stream of any number of values (e.g. documents), separated by optional whitespace, such as a file
+ * of newline-delimited JSON, one value at a time, via {@link #hasNext()} and {@link #next()}. Alternatively, a buffer
+ * holding a single value can be parsed using {@link #parse(ByteBuffer)}. In both cases, the values are read from the
+ * buffer's position up to its limit, using absolute indexes, so neither are changed.
+ * <p>
+ * The syntax of the JSON is validated, but the UTF-8 encoding of strings isn't - a malformed sequence of bytes is
+ * decoded as the Unicode replacement character. This class is not thread-safe.
+ */
+public final class JsonParser {
+
+  /** The max depth to which objects and arrays may be nested, which bounds the parser's use of the stack. */
+  public static final int MAX_DEPTH = 512;
+
+  private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+  private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+  private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+
+  private final ByteBuffer source;
+  private final int limit;
+  private int position;
+  // A list per depth of nesting, reused to collect the members or elements of each object or array at that depth,
+  // which is then copied to an exact-sized unmodifiable list, rather than creating and growing a new list for each
+  private final List<List<Object>> scratchLists = new ArrayList<>();
+
+  /**
+   * @param source The buffer holding the values to parse, from its position up to its limit.
+   */
+  public JsonParser(ByteBuffer source) {
+    this.source = Objects.requireNonNull(source, "source must not be null.");
+    this.limit = source.limit();
+    this.position = source.position();
+  }
+
+  /**
+   * Parses a buffer holding a single JSON value.
+   *
+   * @param source The buffer holding the value, from its position up to its limit.
+   * @return The value.
+   * @throws IllegalArgumentException if the buffer doesn't hold exactly one valid JSON value.
+   */
+  public static JsonValue parse(ByteBuffer source) {
+    final JsonParser parser = new JsonParser(source);
+    if (!parser.hasNext())
+      throw parser.invalid("a value");
+    final JsonValue value = parser.next();
+    if (parser.hasNext())
+      throw parser.invalid("the end of the input");
+    return value;
+  }
+
+  /** @return true if there's another value to parse, otherwise false. */
+  public boolean hasNext() {
+    skipWhitespace();
+    return this.position < this.limit;
+  }
+
+  /**
+   * @return The next value.
+   * @throws NoSuchElementException if there are no more values.
+   * @throws IllegalArgumentException if the next value isn't valid JSON.
+   */
+  public JsonValue next() {
+    if (!hasNext())
+      throw new NoSuchElementException("No more values.");
+    return parseValue(0);
+  }
+
+  /** @return The (absolute) index in the buffer of the next byte to be parsed. */
+  public int position() {
+    return this.position;
+  }
+
+  private JsonValue parseValue(int depth) {
+    skipWhitespace();
+    if (this.position == this.limit)
+      throw invalid("a value");
+    return switch (this.source.get(this.position)) {
+      case '{' -> parseObject(depth + 1);
+      case '[' -> parseArray(depth + 1);
+      case '"' -> parseString();
+      case 't' -> parseLiteral(TRUE, JsonBool.TRUE);
+      case 'f' -> parseLiteral(FALSE, JsonBool.FALSE);
+      case 'n' -> parseLiteral(NULL, JsonNull.INSTANCE);
+      default -> parseNumber();
+    };
+  }
+
+  private JsonObject parseObject(int depth) {
+    checkDepth(depth);
+    this.position++;
+    if (skipWhitespaceAndConsume('}'))
+      return new JsonObject(List.of());
+    final List<JsonObject.Member> members = scratchList(depth);
+    do {
+      skipWhitespace();
+      if (this.position == this.limit || this.source.get(this.position) != '"')
+        throw invalid("a member name");
+      final JsonString name = parseString();
+      if (!skipWhitespaceAndConsume(':'))
+        throw invalid("':'");
+      members.add(new JsonObject.Member(name, parseValue(depth)));
+    } while (skipWhitespaceAndConsume(','));
+    if (!skipWhitespaceAndConsume('}'))
+      throw invalid("',' or '}'");
+    return new JsonObject(members);
+  }
+
+  private JsonArray parseArray(int depth) {
+    checkDepth(depth);
+    this.position++;
+    if (skipWhitespaceAndConsume(']'))
+      return new JsonArray(List.of());
+    final List<JsonValue> elements = scratchList(depth);
+    do {
+      elements.add(parseValue(depth));
+    } while (skipWhitespaceAndConsume(','));
+    if (!skipWhitespaceAndConsume(']'))
+      throw invalid("',' or ']'");
+    return new JsonArray(elements);
+  }
+
+  /** @return The (cleared) scratch list for the supplied depth. */
+  @SuppressWarnings("unchecked")
+  private <T> List<T> scratchList(int depth) {
+    while (this.scratchLists.size() < depth)
+      this.scratchLists.add(new ArrayList<>());
+    final List<Object> list = this.scratchLists.get(depth - 1);
+    list.clear();
+    return (List<T>) list;
+  }
+
+  private JsonString parseString() {
+    final int start = ++this.position;
+    boolean escaped = false;
+    while (true) {
+      if (this.position == this.limit)
+        throw invalid("'\"'");
+      final byte b = this.source.get(this.position);
+      if (b == '"')
+        break;
+      if (b == '\\') {
+        escaped = true;
+        skipEscape();
+      } else if (b >= 0 && b < 0x20) {
+        throw invalid("a character other than a control character");
+      } else {
+        this.position++;
+      }
+    }
+    final JsonString string = new JsonString(this.source, start, this.position - start, escaped);
+    this.position++;
+    return string;
+  }
+
+  private void skipEscape() {
+    final int escapeStart = this.position;
+    this.position++;
+    final int escape = this.position < this.limit ? this.source.get(this.position) : -1;
+    switch (escape) {
+      case '"', '\\', '/', 'b', 'f', 'n', 'r', 't' -> this.position++;
+      case 'u' -> {
+        this.position++;
+        for (int i = 0; i < 4; i++) {
+          if (this.position == this.limit || Character.digit(this.source.get(this.position), 16) < 0)
+            throw invalid("four hex digits");
+          this.position++;
+        }
+      }
+      default -> {
+        this.position = escapeStart;
+        throw invalid("a valid escape sequence");
+      }
+    }
+  }
+
+  private JsonNumber parseNumber() {
+    final int start = this.position;
+    consume('-');
+    if (!consume('0')) {
+      if (skipDigits() == 0)
+        throw invalid("a value");
+    }
+    if (consume('.') && skipDigits() == 0)
+      throw invalid("a digit");
+    if (consume('e') || consume('E')) {
+      if (!consume('+'))
+        consume('-');
+      if (skipDigits() == 0)
+        throw invalid("a digit");
+    }
+    return new JsonNumber(this.source, start, this.position - start);
+  }
+
+  private JsonValue parseLiteral(byte[] literal, JsonValue value) {
+    if (this.limit - this.position < literal.length)
+      throw invalid("a value");
+    for (int i = 0; i < literal.length; i++) {
+      if (this.source.get(this.position + i) != literal[i])
+        throw invalid("a value");
+    }
+    this.position += literal.length;
+    return value;
+  }
+
+  /** @return The number of digits skipped. */
+  private int skipDigits() {
+    final int start = this.position;
+    while (this.position < this.limit) {
+      final byte b = this.source.get(this.position);
+      if (b < '0' || b > '9')
+        break;
+      this.position++;
+    }
+    return this.position - start;
+  }
+
+  private void skipWhitespace() {
+    while (this.position < this.limit) {
+      final byte b = this.source.get(this.position);
+      if (b != ' ' && b != '\n' && b != '\r' && b != '\t')
+        return;
+      this.position++;
+    }
+  }
+
+  /** @return true if the next byte, after any whitespace, is the supplied byte, in which case it's consumed. */
+  private boolean skipWhitespaceAndConsume(char expected) {
+    skipWhitespace();
+    return consume(expected);
+  }
+
+  /** @return true if the next byte is the supplied byte, in which case it's consumed, otherwise false. */
+  private boolean consume(char expected) {
+    if (this.position < this.limit && this.source.get(this.position) == expected) {
+      this.position++;
+      return true;
+    }
+    return false;
+  }
+
+  private void checkDepth(int depth) {
+    if (depth > MAX_DEPTH)
+      throw new IllegalArgumentException(
+        "Invalid JSON at offset " + this.position + ", nested more than " + MAX_DEPTH + " levels deep.");
+  }
+
+  private IllegalArgumentException invalid(String expected) {
+    return new IllegalArgumentException("Invalid JSON at offset " + this.position + ", expected " + expected + ".");
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JsonParser}.
+ */
+public class JsonParserTest {
+
+  /**
+   * Tests parsing the user documents declared in
+   * {@link com.neiljbrown.examples.java17.textblocks.TextBlocksExamplesTest#test_indentation()}, with and without
+   * indentation.
+   */
+  @Test
+  public void test_parse_userDocuments() {
+    final String userDocument1 = """
+            {
+              "id": 1,
+              "firstName": "Neil",
+              "lastName": "Brown"
+            }""";
+    final String userDocument2 = """
+            {
+              "id": 1,
+              "firstName": "Neil",
+              "lastName": "Brown"
+            }\
+          """;
+
+    for (String document : List.of(userDocument1, userDocument2)) {
+      final JsonValue value = JsonParser.parse(utf8(document));
+
+      assertThat(value).isInstanceOf(JsonObject.class);
+      final JsonObject user = (JsonObject) value;
+      assertThat(user.size()).isEqualTo(3);
+      assertThat(((JsonNumber) user.get("id")).longValue()).isEqualTo(1);
+      assertThat(((JsonString) user.get("firstName")).value()).isEqualTo("Neil");
+      assertThat(((JsonString) user.get("lastName")).value()).isEqualTo("Brown");
+      assertThat(user.get("city")).isNull();
+      assertThat(user.members()).extracting(member -> member.name().value())
+        .containsExactly("id", "firstName", "lastName");
+    }
+  }
+
+  /**
+   * Tests parsing a document containing every type of value, nested in objects and arrays.
+   */
+  @Test
+  public void test_parse_allTypes() {
+    final JsonValue value = JsonParser.parse(utf8("""
+      {"string": "a\\"b", "number": -12.5e2, "true": true, "false": false, "null": null,
+       "array": [1, [], {}, ["x"]], "object": {"nested": {"deeper": [null]}}}"""));
+
+    final JsonObject object = (JsonObject) value;
+    assertThat(object.get("string")).isEqualTo(JsonString.of("a\"b"));
+    assertThat(((JsonNumber) object.get("number")).doubleValue()).isEqualTo(-1250.0);
+    assertThat(object.get("true")).isSameAs(JsonBool.TRUE);
+    assertThat(object.get("false")).isSameAs(JsonBool.FALSE);
+    assertThat(object.get("null")).isSameAs(JsonNull.INSTANCE);
+    assertThat(object.get("array")).isEqualTo(new JsonArray(List.of(JsonNumber.of(1), new JsonArray(List.of()),
+      new JsonObject(List.of()), new JsonArray(List.of(JsonString.of("x"))))));
+    final JsonObject nested = (JsonObject) ((JsonObject) object.get("object")).get("nested");
+    assertThat(nested.get("deeper")).isEqualTo(new JsonArray(List.of(JsonNull.INSTANCE)));
+  }
+
+  /**
+   * Tests that parsed strings are slices of the parsed buffer, rather than copies, and that parsing doesn't change the
+   * buffer's position or limit.
+   */
+  @Test
+  public void test_parse_zeroCopy() {
+    final ByteBuffer buffer = utf8("  [\"abc\", 42]  ");
+    buffer.position(1);
+
+    final JsonArray array = (JsonArray) JsonParser.parse(buffer);
+
+    final JsonString string = (JsonString) array.get(0);
+    assertThat(string.source()).isSameAs(buffer);
+    assertThat(string.offset()).isEqualTo(4);
+    assertThat(string.length()).isEqualTo(3);
+    assertThat(string.escaped()).isFalse();
+    assertThat(((JsonNumber) array.get(1)).source()).isSameAs(buffer);
+    assertThat(buffer.position()).isEqualTo(1);
+    assertThat(buffer.limit()).isEqualTo(15);
+  }
+
+  /**
+   * Tests parsing from a direct (off-heap) buffer, which has no backing array.
+   */
+  @Test
+  public void test_parse_directBuffer() {
+    final ByteBuffer heap = utf8("{\"name\": \"Zoë\"}");
+    final ByteBuffer direct = ByteBuffer.allocateDirect(heap.remaining()).put(heap).flip();
+
+    final JsonObject object = (JsonObject) JsonParser.parse(direct);
+
+    assertThat(((JsonString) object.get("name")).value()).isEqualTo("Zoë");
+  }
+
+  /**
+   * Tests parsing a stream of documents, one at a time, such as newline-delimited JSON.
+   */
+  @Test
+  public void test_next_streamOfDocuments() {
+    final JsonParser parser = new JsonParser(utf8("""
+      {"id": 1, "firstName": "Neil", "lastName": "Brown"}
+      {"id": 2, "firstName": "Ada", "lastName": "Lovelace"}
+      {"id": 3, "firstName": "Alan", "lastName": "Turing"}
+      """));
+
+    final List<String> lastNames = new ArrayList<>();
+    while (parser.hasNext())
+      lastNames.add(((JsonString) ((JsonObject) parser.next()).get("lastName")).value());
+
+    assertThat(lastNames).containsExactly("Brown", "Lovelace", "Turing");
+    assertThat(catchThrowable(parser::next)).isInstanceOf(NoSuchElementException.class);
+  }
+
+  /**
+   * Tests that invalid JSON is rejected, reporting the offset of the error.
+   */
+  @Test
+  public void test_parse_invalid() {
+    assertInvalid("", "Invalid JSON at offset 0, expected a value.");
+    assertInvalid("{\"id\" 1}", "Invalid JSON at offset 6, expected ':'.");
+    assertInvalid("{\"id\": 1,}", "Invalid JSON at offset 9, expected a member name.");
+    assertInvalid("[1 2]", "Invalid JSON at offset 3, expected ',' or ']'.");
+    assertInvalid("[1, 2", "Invalid JSON at offset 5, expected ',' or ']'.");
+    assertInvalid("\"abc", "Invalid JSON at offset 4, expected '\"'.");
+    assertInvalid("\"a\\xb\"", "Invalid JSON at offset 2, expected a valid escape sequence.");
+    assertInvalid("\"\\u12g4\"", "Invalid JSON at offset 5, expected four hex digits.");
+    assertInvalid("\"a\nb\"", "Invalid JSON at offset 2, expected a character other than a control character.");
+    assertInvalid("01", "Invalid JSON at offset 1, expected the end of the input.");
+    assertInvalid("1.", "Invalid JSON at offset 2, expected a digit.");
+    assertInvalid("-", "Invalid JSON at offset 1, expected a value.");
+    assertInvalid("tru", "Invalid JSON at offset 0, expected a value.");
+    assertInvalid("nul1", "Invalid JSON at offset 0, expected a value.");
+    final int maxDepth = JsonParser.MAX_DEPTH;
+    assertInvalid("[".repeat(maxDepth + 1),
+      "Invalid JSON at offset " + maxDepth + ", nested more than " + maxDepth + " levels deep.");
+  }
+
+  /**
+   * Tests that objects and arrays may be nested up to the max depth.
+   */
+  @Test
+  public void test_parse_maxDepth() {
+    final String json = "[".repeat(JsonParser.MAX_DEPTH) + "]".repeat(JsonParser.MAX_DEPTH);
+
+    assertThat(JsonParser.parse(utf8(json))).isInstanceOf(JsonArray.class);
+  }
+
+  private static void assertInvalid(String json, String expectedMessage) {
+    assertThat(catchThrowable(() -> JsonParser.parse(utf8(json))))
+      .as("JSON [%s]", json)
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage(expectedMessage);
+  }
+
+  private static ByteBuffer utf8(String json) {
+    return ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
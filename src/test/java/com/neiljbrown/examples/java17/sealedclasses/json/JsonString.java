@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A JSON string, held as a slice of the UTF-8 bytes it was parsed from, excluding the enclosing quotes.
+ * <p>
+ * The string is only decoded when its {@link #value()} is accessed, so parsing a document doesn't create a String for
+ * each string value (or object member name) in it, only for those which are used. A string can also be compared with
+ * a String using {@link #contentEquals(String)}, without decoding it. The source buffer is shared, not copied, so
+ * must not be modified whilst the string is in use.
+ * <p>
+ * Strings are equal if their values are equal, regardless of how they were escaped in the source.
+ *
+ * @param source The buffer holding the bytes of the string.
+ * @param offset The (absolute) index in the buffer of the string's first byte.
+ * @param length The number of bytes in the string.
+ * @param escaped true if the string contains escape sequences, which must be unescaped when it's decoded, otherwise
+ * false, in which case its bytes are its value.
+ */
+public record JsonString(ByteBuffer source, int offset, int length, boolean escaped) implements JsonValue {
+
+  public JsonString {
+    ByteSlices.validate(source, offset, length);
+  }
+
+  /**
+   * @param value The value.
+   * @return A JSON string with the supplied value, held in a new buffer.
+   */
+  public static JsonString of(String value) {
+    final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    return new JsonString(ByteBuffer.wrap(bytes), 0, bytes.length, false);
+  }
+
+  /**
+   * Decodes the string. A new String is created each time, so callers which use the value more than once should hold
+   * on to it.
+   *
+   * @return The value of the string.
+   */
+  public String value() {
+    return this.escaped ? unescape() : ByteSlices.decode(this.source, this.offset, this.length);
+  }
+
+  /**
+   * Compares the string with the supplied String, without decoding it, if it's unescaped, and the supplied String is
+   * ASCII, as are the names of the members of most JSON objects.
+   *
+   * @param value The String to compare with.
+   * @return true if the value of the string is equal to the supplied String, otherwise false.
+   */
+  public boolean contentEquals(String value) {
+    if (this.escaped)
+      return value().equals(value);
+    if (value.length() > this.length)
+      return false;
+    for (int i = 0; i < value.length(); i++) {
+      final char c = value.charAt(i);
+      if (c >= 0x80)
+        return value().equals(value);
+      if (this.source.get(this.offset + i) != c)
+        return false;
+    }
+    return value.length() == this.length;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof JsonString other))
+      return false;
+    if (!this.escaped && !other.escaped)
+      return ByteSlices.equals(this.source, this.offset, this.length, other.source, other.offset, other.length);
+    return value().equals(other.value());
+  }
+
+  @Override
+  public int hashCode() {
+    return value().hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return value();
+  }
+
+  private String unescape() {
+    final StringBuilder builder = new StringBuilder(this.length);
+    final int end = this.offset + this.length;
+    int runStart = this.offset;
+    int i = this.offset;
+    while (i < end) {
+      if (this.source.get(i) != '\\') {
+        i++;
+        continue;
+      }
+      // The bytes of a multi-byte UTF-8 character are never ASCII, so a backslash always ends a run of whole characters
+      builder.append(ByteSlices.decode(this.source, runStart, i - runStart));
+      final byte escape = i + 1 < end ? this.source.get(i + 1) : 0;
+      switch (escape) {
+        case '"' -> builder.append('"');
+        case '\\' -> builder.append('\\');
+        case '/' -> builder.append('/');
+        case 'b' -> builder.append('\b');
+        case 'f' -> builder.append('\f');
+        case 'n' -> builder.append('\n');
+        case 'r' -> builder.append('\r');
+        case 't' -> builder.append('\t');
+        case 'u' -> {
+          // A character outside the Basic Multilingual Plane is escaped as a surrogate pair, so needs no special case
+          builder.append((char) parseHex(i + 2, end));
+          i += 4;
+        }
+        default -> throw new IllegalArgumentException("Invalid escape sequence at offset " + i + ".");
+      }
+      i += 2;
+      runStart = i;
+    }
+    builder.append(ByteSlices.decode(this.source, runStart, end - runStart));
+    return builder.toString();
+  }
+
+  private int parseHex(int from, int end) {
+    if (from + 4 > end)
+      throw new IllegalArgumentException("Invalid escape sequence at offset " + (from - 2) + ".");
+    int value = 0;
+    for (int i = from; i < from + 4; i++) {
+      final int digit = Character.digit(this.source.get(i), 16);
+      if (digit < 0)
+        throw new IllegalArgumentException("Invalid escape sequence at offset " + (from - 2) + ".");
+      value = value << 4 | digit;
+    }
+    return value;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link JsonString}.
+ */
+public class JsonStringTest {
+
+  /**
+   * Tests decoding a string containing every type of escape sequence, including a surrogate pair.
+   */
+  @Test
+  public void test_value_escaped() {
+    final JsonString string = slice("\"q\\\" b\\\\ s\\/ \\b\\f\\n\\r\\t \\u00e9 \\ud83d\\ude00 end\"", true);
+
+    assertThat(string.value()).isEqualTo("q\" b\\ s/ \b\f\n\r\t é \uD83D\uDE00 end");
+  }
+
+  /**
+   * Tests decoding a string containing multi-byte UTF-8 characters, which doesn't need to be unescaped.
+   */
+  @Test
+  public void test_value_unescaped() {
+    assertThat(slice("\"Zoë 😀\"", false).value()).isEqualTo("Zoë 😀");
+    assertThat(slice("\"\"", false).value()).isEmpty();
+  }
+
+  /**
+   * Tests comparing a string with a String, without decoding it.
+   */
+  @Test
+  public void test_contentEquals() {
+    final JsonString string = slice("\"lastName\"", false);
+
+    assertThat(string.contentEquals("lastName")).isTrue();
+    assertThat(string.contentEquals("lastNam")).isFalse();
+    assertThat(string.contentEquals("lastNames")).isFalse();
+    assertThat(string.contentEquals("firstName")).isFalse();
+    assertThat(slice("\"Zoë\"", false).contentEquals("Zoë")).isTrue();
+    assertThat(slice("\"Zo\\u00eb\"", true).contentEquals("Zoë")).isTrue();
+  }
+
+  /**
+   * Tests that strings are equal if their values are equal, however they were escaped.
+   */
+  @Test
+  public void test_equals() {
+    final JsonString unescaped = slice("\"é/\"", false);
+    final JsonString escaped = slice("\"\\u00e9\\/\"", true);
+
+    assertThat(unescaped).isEqualTo(escaped).isEqualTo(JsonString.of("é/"));
+    assertThat(unescaped).hasSameHashCodeAs(escaped);
+    assertThat(unescaped).isNotEqualTo(JsonString.of("é"));
+  }
+
+  /**
+   * Tests that a string must be a slice within its source buffer.
+   */
+  @Test
+  public void test_new_invalidSlice() {
+    final ByteBuffer source = ByteBuffer.allocate(4);
+
+    assertThat(catchThrowable(() -> new JsonString(source, -1, 1, false))).isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("offset must be zero or greater.");
+    assertThat(catchThrowable(() -> new JsonString(source, 2, 3, false))).isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("offset plus length must not exceed the source's limit.");
+  }
+
+  /** @return The string parsed from the supplied JSON, checking whether it was escaped is as expected. */
+  private static JsonString slice(String json, boolean expectedEscaped) {
+    final JsonString string =
+      (JsonString) JsonParser.parse(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    assertThat(string.escaped()).isEqualTo(expectedEscaped);
+    return string;
+  }
+}
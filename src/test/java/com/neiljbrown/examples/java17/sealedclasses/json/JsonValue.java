@@ -0,0 +1,30 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.json;
+
+/**
+ * A JSON value, as defined by <a href="https://www.rfc-editor.org/rfc/rfc8259">RFC 8259</a>, such as parsed by
+ * {@link JsonParser}.
+ * <p>
+ * The interface is sealed, and each of its permitted subtypes is a Record, so a value is always one of the six types
+ * of JSON value, and code which processes values can test for each of them in turn, knowing there are no others.
+ * <p>
+ * Strings and numbers are held as slices of the bytes they were parsed from, rather than being decoded when they're
+ * parsed, so that the cost of creating a String, or converting a number, is only incurred for those values which are
+ * accessed (see {@link JsonString} and {@link JsonNumber}).
+ */
+public sealed interface JsonValue permits JsonObject, JsonArray, JsonString, JsonNumber, JsonBool, JsonNull {
+}
@@ -0,0 +1,60 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+/**
+ * An axis-aligned bounding box.
+ *
+ * @param minX The x coordinate of the left side of the box.
+ * @param minY The y coordinate of the top side of the box.
+ * @param maxX The x coordinate of the right side of the box. Must be greater than or equal to minX.
+ * @param maxY The y coordinate of the bottom side of the box. Must be greater than or equal to minY.
+ */
+public record Bounds(double minX, double minY, double maxX, double maxY) {
+
+  public Bounds {
+    if (!(minX <= maxX))
+      throw new IllegalArgumentException("maxX must be greater than or equal to minX.");
+    if (!(minY <= maxY))
+      throw new IllegalArgumentException("maxY must be greater than or equal to minY.");
+  }
+
+  /**
+   * @param x The x coordinate of the point.
+   * @param y The y coordinate of the point.
+   * @return true if the supplied point is within these bounds, including on its edges, otherwise false.
+   */
+  public boolean contains(double x, double y) {
+    return this.minX <= x && x <= this.maxX && this.minY <= y && y <= this.maxY;
+  }
+
+  /**
+   * @param other The other bounds.
+   * @return true if these bounds and the other bounds overlap, including only touching, otherwise false.
+   */
+  public boolean intersects(Bounds other) {
+    return this.minX <= other.maxX && other.minX <= this.maxX && this.minY <= other.maxY && other.minY <= this.maxY;
+  }
+
+  /**
+   * @param other The other bounds.
+   * @return The smallest bounds which contain both these and the other bounds.
+   */
+  public Bounds union(Bounds other) {
+    return new Bounds(Math.min(this.minX, other.minX), Math.min(this.minY, other.minY),
+      Math.max(this.maxX, other.maxX), Math.max(this.maxY, other.maxY));
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+/**
+ * A circle. This permitted subclass of {@link Shape} declares itself as final, preventing itself being extended
+ * further.
+ */
+public final class Circle extends Shape {
+
+  private final double centreX;
+  private final double centreY;
+  private final double radius;
+
+  /**
+   * @param centreX The x coordinate of the centre of the circle.
+   * @param centreY The y coordinate of the centre of the circle.
+   * @param radius The radius of the circle.
+   */
+  public Circle(double centreX, double centreY, double radius) {
+    this.centreX = centreX;
+    this.centreY = centreY;
+    this.radius = requireDimension(radius, "radius");
+  }
+
+  public double centreX() {
+    return this.centreX;
+  }
+
+  public double centreY() {
+    return this.centreY;
+  }
+
+  public double radius() {
+    return this.radius;
+  }
+
+  @Override
+  public double area() {
+    return Math.PI * this.radius * this.radius;
+  }
+
+  @Override
+  public double perimeter() {
+    return 2 * Math.PI * this.radius;
+  }
+
+  @Override
+  public Bounds bounds() {
+    return new Bounds(this.centreX - this.radius, this.centreY - this.radius, this.centreX + this.radius,
+      this.centreY + this.radius);
+  }
+
+  @Override
+  public boolean contains(double x, double y) {
+    final double dx = x - this.centreX;
+    final double dy = y - this.centreY;
+    return dx * dx + dy * dy <= this.radius * this.radius;
+  }
+
+  @Override
+  public boolean intersects(Bounds bounds) {
+    // Test whether the nearest point within the bounds to the centre is within the circle
+    return contains(Math.max(bounds.minX(), Math.min(this.centreX, bounds.maxX())),
+      Math.max(bounds.minY(), Math.min(this.centreY, bounds.maxY())));
+  }
+
+  @Override
+  public int corners() {
+    return 0;
+  }
+
+  @Override
+  public <R> R accept(ShapeVisitor<R> visitor) {
+    return visitor.visitCircle(this);
+  }
+}
@@ -0,0 +1,47 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+/**
+ * A rectangle whose interior is filled with an opaque colour.
+ */
+public final class FilledRectangle extends Rectangle {
+
+  private final int colour;
+
+  /**
+   * @param x The x coordinate of the left side of the rectangle.
+   * @param y The y coordinate of the top side of the rectangle.
+   * @param width The width of the rectangle.
+   * @param height The height of the rectangle.
+   * @param colour The colour of the rectangle's interior, as a packed RGB value. The fill is always opaque, so any
+   * alpha component (the top 8 bits) is ignored.
+   */
+  public FilledRectangle(double x, double y, double width, double height, int colour) {
+    super(x, y, width, height);
+    this.colour = colour | 0xFF000000;
+  }
+
+  /** @return The colour of the rectangle's interior, as a packed ARGB value, which is always opaque. */
+  public int colour() {
+    return this.colour;
+  }
+
+  @Override
+  public <R> R accept(ShapeVisitor<R> visitor) {
+    return visitor.visitFilledRectangle(this);
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+/**
+ * A square whose interior is filled with an opaque colour. Proves that declaring {@link Square} as non-sealed allows
+ * it to be extended by any class, such as this one.
+ */
+public class FilledSquare extends Square {
+
+  private final int colour;
+
+  /**
+   * @param x The x coordinate of the left side of the square.
+   * @param y The y coordinate of the top side of the square.
+   * @param side The length of the square's sides.
+   * @param colour The colour of the square's interior, as a packed RGB value. The fill is always opaque, so any alpha
+   * component (the top 8 bits) is ignored.
+   */
+  public FilledSquare(double x, double y, double side, int colour) {
+    super(x, y, side);
+    this.colour = colour | 0xFF000000;
+  }
+
+  /** @return The colour of the square's interior, as a packed ARGB value, which is always opaque. */
+  public int colour() {
+    return this.colour;
+  }
+}
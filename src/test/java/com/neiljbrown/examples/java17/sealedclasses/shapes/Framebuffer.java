@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * A fixed-size image, whose pixels are stored off-heap, as packed ARGB ints, in row-major order, rather than as an
+ * array on the Java heap. This supports large images without the garbage collector having to copy them, and they can
+ * be passed to native code, or written to a channel, without copying.
+ * <p>
+ * Pixels are read and written by absolute index, so different threads may safely write to disjoint regions of the
+ * image, provided they synchronise with any readers. The off-heap memory is released when the framebuffer is garbage
+ * collected.
+ */
+public final class Framebuffer {
+
+  /** The maximum number of pixels that a framebuffer can hold, limited by the max size of a direct buffer. */
+  public static final int MAX_PIXELS = Integer.MAX_VALUE / Integer.BYTES;
+
+  private final int width;
+  private final int height;
+  private final IntBuffer pixels;
+
+  /**
+   * Creates a framebuffer, whose pixels are all initially transparent black (zero).
+   *
+   * @param width The width in pixels.
+   * @param height The height in pixels.
+   * @throws IllegalArgumentException if the width or height is not greater than zero, or there would be more than
+   * {@link #MAX_PIXELS} pixels.
+   */
+  public Framebuffer(int width, int height) {
+    if (width < 1 || height < 1)
+      throw new IllegalArgumentException("width and height must be greater than zero.");
+    if ((long) width * height > MAX_PIXELS)
+      throw new IllegalArgumentException("width * height must not be greater than " + MAX_PIXELS + ".");
+    this.width = width;
+    this.height = height;
+    this.pixels = ByteBuffer.allocateDirect(width * height * Integer.BYTES).order(ByteOrder.nativeOrder())
+      .asIntBuffer();
+  }
+
+  public int width() {
+    return this.width;
+  }
+
+  public int height() {
+    return this.height;
+  }
+
+  /**
+   * @param x The x coordinate of the pixel.
+   * @param y The y coordinate of the pixel.
+   * @return The colour of the pixel, as a packed ARGB value.
+   * @throws IndexOutOfBoundsException if the pixel is outside the framebuffer.
+   */
+  public int get(int x, int y) {
+    return this.pixels.get(index(x, y));
+  }
+
+  /**
+   * @param x The x coordinate of the pixel.
+   * @param y The y coordinate of the pixel.
+   * @param argb The colour of the pixel, as a packed ARGB value.
+   * @throws IndexOutOfBoundsException if the pixel is outside the framebuffer.
+   */
+  public void set(int x, int y, int argb) {
+    this.pixels.put(index(x, y), argb);
+  }
+
+  /**
+   * Sets every pixel in a rectangular region of the framebuffer to the same colour.
+   *
+   * @param minX The x coordinate of the leftmost column of pixels (inclusive).
+   * @param minY The y coordinate of the top row of pixels (inclusive).
+   * @param maxX The x coordinate of the rightmost column of pixels (exclusive).
+   * @param maxY The y coordinate of the bottom row of pixels (exclusive).
+   * @param argb The colour, as a packed ARGB value.
+   * @throws IndexOutOfBoundsException if the region is not within the framebuffer.
+   */
+  public void fill(int minX, int minY, int maxX, int maxY, int argb) {
+    if (minX < 0 || maxX > this.width || minY < 0 || maxY > this.height)
+      throw new IndexOutOfBoundsException("Region (" + minX + ", " + minY + ") to (" + maxX + ", " + maxY
+        + ") is outside the framebuffer.");
+    for (int y = minY; y < maxY; y++) {
+      final int rowStart = y * this.width;
+      for (int i = rowStart + minX; i < rowStart + maxX; i++)
+        this.pixels.put(i, argb);
+    }
+  }
+
+  /** @return The colour of the pixel at the supplied index, in row-major order, without checking its coordinates. */
+  int getAt(int index) {
+    return this.pixels.get(index);
+  }
+
+  /** Sets the colour of the pixel at the supplied index, in row-major order, without checking its coordinates. */
+  void setAt(int index, int argb) {
+    this.pixels.put(index, argb);
+  }
+
+  private int index(int x, int y) {
+    if (x < 0 || x >= this.width || y < 0 || y >= this.height)
+      throw new IndexOutOfBoundsException("Pixel (" + x + ", " + y + ") is outside the framebuffer.");
+    return y * this.width + x;
+  }
+}
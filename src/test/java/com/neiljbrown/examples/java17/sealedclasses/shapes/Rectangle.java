@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+/**
+ * A rectangle, whose sides are parallel to the axes, and whose interior is neither filled nor transparent, i.e. only
+ * its outline is visible.
+ * <p>
+ * This permitted subclass of {@link Shape} declares itself as sealed, allowing itself to be extended further, but only
+ * by a further specified list of permitted classes.
+ */
+public sealed class Rectangle extends Shape permits TransparentRectangle, FilledRectangle {
+
+  private final double x;
+  private final double y;
+  private final double width;
+  private final double height;
+
+  /**
+   * @param x The x coordinate of the left side of the rectangle.
+   * @param y The y coordinate of the top side of the rectangle.
+   * @param width The width of the rectangle.
+   * @param height The height of the rectangle.
+   */
+  public Rectangle(double x, double y, double width, double height) {
+    this.x = x;
+    this.y = y;
+    this.width = requireDimension(width, "width");
+    this.height = requireDimension(height, "height");
+  }
+
+  public double x() {
+    return this.x;
+  }
+
+  public double y() {
+    return this.y;
+  }
+
+  public double width() {
+    return this.width;
+  }
+
+  public double height() {
+    return this.height;
+  }
+
+  @Override
+  public double area() {
+    return this.width * this.height;
+  }
+
+  @Override
+  public double perimeter() {
+    return 2 * (this.width + this.height);
+  }
+
+  @Override
+  public Bounds bounds() {
+    return new Bounds(this.x, this.y, this.x + this.width, this.y + this.height);
+  }
+
+  @Override
+  public boolean contains(double x, double y) {
+    return this.x <= x && x <= this.x + this.width && this.y <= y && y <= this.y + this.height;
+  }
+
+  @Override
+  public boolean intersects(Bounds bounds) {
+    return this.x <= bounds.maxX() && bounds.minX() <= this.x + this.width && this.y <= bounds.maxY()
+      && bounds.minY() <= this.y + this.height;
+  }
+
+  @Override
+  public int corners() {
+    return 4;
+  }
+
+  @Override
+  public <R> R accept(ShapeVisitor<R> visitor) {
+    return visitor.visitRectangle(this);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+/**
+ * Abstract superclass of a hierarchy of shapes, which replicates that declared (as inner classes) in
+ * {@link com.neiljbrown.examples.java17.sealedclasses.SealedClassesExamplesTest}, as top-level classes, so that they
+ * can declare behaviour and be used independently of the example.
+ * <p>
+ * As in the example, the hierarchy is sealed, and its permitted subclasses propagate its sealed nature in each of the
+ * three possible ways - {@link Circle} is final, {@link Rectangle} is itself sealed, and {@link Square} is non-sealed,
+ * so may be extended by any class, e.g. {@link FilledSquare}.
+ * <p>
+ * Each shape has a position and dimensions, in a coordinate space in which x increases to the right and y increases
+ * downwards, as in a raster image. Dimensions must be zero or greater.
+ * <p>
+ * Behaviour can be implemented for each type of shape either as a virtual method, e.g. {@link #area()}, or externally,
+ * using a {@link ShapeVisitor}.
+ */
+public abstract sealed class Shape permits Circle, Rectangle, Square {
+
+  /** @return The area of the shape. */
+  public abstract double area();
+
+  /** @return The length of the shape's perimeter. */
+  public abstract double perimeter();
+
+  /** @return The smallest axis-aligned box which contains the shape. */
+  public abstract Bounds bounds();
+
+  /**
+   * @param x The x coordinate of the point.
+   * @param y The y coordinate of the point.
+   * @return true if the supplied point is within the shape, including on its edge, otherwise false.
+   */
+  public abstract boolean contains(double x, double y);
+
+  /**
+   * @param bounds The bounds.
+   * @return true if the shape overlaps the supplied bounds, including only touching, otherwise false.
+   */
+  public abstract boolean intersects(Bounds bounds);
+
+  /** @return The number of corners the shape has. */
+  public abstract int corners();
+
+  /**
+   * Applies the supplied visitor to this shape, by calling its method for this type of shape.
+   *
+   * @param visitor The visitor.
+   * @param <R> The type of result returned by the visitor.
+   * @return The result returned by the visitor.
+   */
+  public abstract <R> R accept(ShapeVisitor<R> visitor);
+
+  /**
+   * @param value The value of a dimension of a shape.
+   * @param name The name of the dimension, used in the exception message.
+   * @return The supplied value.
+   * @throws IllegalArgumentException if the value is negative, or not a number.
+   */
+  static double requireDimension(double value, String name) {
+    if (!(value >= 0))
+      throw new IllegalArgumentException(name + " must be zero or greater.");
+    return value;
+  }
+}
@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes aggregate measures of a large collection of shapes - their total area and perimeter, bounds, and the
+ * number of each type of shape - in parallel, using a {@link ForkJoinPool}.
+ * <p>
+ * The collection is split into chunks using its {@link Spliterator}, by a {@link RecursiveTask}, which forks a subtask
+ * for each chunk. Each task aggregates its own chunk into its own accumulator, so threads don't contend on shared
+ * state (or false sharing of cache lines), and the accumulators are only merged once each task completes. The
+ * collection must not be modified whilst it's being aggregated.
+ * <p>
+ * Aggregation is sequential for chunks of up to a threshold number of shapes, to amortise the cost of forking and
+ * merging tasks. The threshold is chosen so that there are several chunks per thread, allowing threads which finish
+ * early to steal remaining work.
+ */
+public final class ShapeAggregator {
+
+  /** The minimum number of shapes aggregated by a task, below which the overhead of forking would dominate. */
+  static final int MIN_CHUNK_SIZE = 4096;
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private ShapeAggregator() {
+  }
+
+  /**
+   * Aggregates the supplied shapes, using the common fork-join pool.
+   *
+   * @see #aggregate(Collection, ForkJoinPool)
+   */
+  public static ShapeSummary aggregate(Collection<? extends Shape> shapes) {
+    return aggregate(shapes, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Aggregates the supplied shapes, using the supplied fork-join pool.
+   *
+   * @param shapes The shapes, none of which may be null.
+   * @param pool The pool whose threads aggregate the shapes.
+   * @return The aggregate measures of the shapes.
+   */
+  public static ShapeSummary aggregate(Collection<? extends Shape> shapes, ForkJoinPool pool) {
+    Objects.requireNonNull(shapes, "shapes must not be null.");
+    Objects.requireNonNull(pool, "pool must not be null.");
+    final long chunkSize = Math.max(MIN_CHUNK_SIZE,
+      shapes.size() / ((long) pool.getParallelism() * CHUNKS_PER_THREAD));
+    return pool.invoke(new AggregateTask(shapes.spliterator(), chunkSize)).toSummary();
+  }
+
+  /**
+   * Task which aggregates the shapes of a spliterator, forking subtasks to aggregate chunks split from it, whilst it's
+   * larger than the chunk size.
+   */
+  private static final class AggregateTask extends RecursiveTask<Accumulator> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Spliterator<? extends Shape> shapes;
+    private final long chunkSize;
+
+    AggregateTask(Spliterator<? extends Shape> shapes, long chunkSize) {
+      this.shapes = shapes;
+      this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected Accumulator compute() {
+      final List<AggregateTask> subtasks = new ArrayList<>();
+      Spliterator<? extends Shape> chunk;
+      while (this.shapes.estimateSize() > this.chunkSize && (chunk = this.shapes.trySplit()) != null) {
+        final AggregateTask subtask = new AggregateTask(chunk, this.chunkSize);
+        subtask.fork();
+        subtasks.add(subtask);
+      }
+      final Accumulator accumulator = new Accumulator();
+      this.shapes.forEachRemaining(accumulator::add);
+      // Join in the reverse order of forking, so that any tasks not yet stolen are run by this thread, in LIFO order
+      for (int i = subtasks.size() - 1; i >= 0; i--)
+        accumulator.merge(subtasks.get(i).join());
+      return accumulator;
+    }
+  }
+
+  /**
+   * Mutable accumulator of the measures of shapes, used by a single task.
+   * <p>
+   * The type of shape is resolved by instanceof tests and comparing its exact class with each known class, rather than
+   * by calling (megamorphic) virtual methods, so that the geometry methods called on each type can be inlined, and the
+   * bounds of each shape are computed without allocating them.
+   */
+  private static final class Accumulator {
+
+    private long count;
+    private double totalArea;
+    private double totalPerimeter;
+    private double minX = Double.POSITIVE_INFINITY;
+    private double minY = Double.POSITIVE_INFINITY;
+    private double maxX = Double.NEGATIVE_INFINITY;
+    private double maxY = Double.NEGATIVE_INFINITY;
+    private long circles;
+    private long rectangles;
+    private long transparentRectangles;
+    private long filledRectangles;
+    private long squares;
+    private long filledSquares;
+    // Counts of any unknown subclasses of the non-sealed Square, which are expected to be rare
+    private final Map<Class<? extends Shape>, Long> otherCounts = new HashMap<>();
+
+    void add(Shape shape) {
+      final Class<? extends Shape> type = shape.getClass();
+      if (shape instanceof Circle circle) {
+        this.circles++;
+        addGeometry(circle.area(), circle.perimeter(), circle.centreX() - circle.radius(),
+          circle.centreY() - circle.radius(), circle.centreX() + circle.radius(), circle.centreY() + circle.radius());
+      } else if (shape instanceof Rectangle rectangle) {
+        if (type == Rectangle.class)
+          this.rectangles++;
+        else if (type == TransparentRectangle.class)
+          this.transparentRectangles++;
+        else
+          this.filledRectangles++;
+        addGeometry(rectangle.area(), rectangle.perimeter(), rectangle.x(), rectangle.y(),
+          rectangle.x() + rectangle.width(), rectangle.y() + rectangle.height());
+      } else if (shape instanceof Square square) {
+        if (type == Square.class)
+          this.squares++;
+        else if (type == FilledSquare.class)
+          this.filledSquares++;
+        else
+          this.otherCounts.merge(type, 1L, Long::sum);
+        addGeometry(square.area(), square.perimeter(), square.x(), square.y(), square.x() + square.side(),
+          square.y() + square.side());
+      }
+    }
+
+    void merge(Accumulator other) {
+      this.count += other.count;
+      this.totalArea += other.totalArea;
+      this.totalPerimeter += other.totalPerimeter;
+      this.minX = Math.min(this.minX, other.minX);
+      this.minY = Math.min(this.minY, other.minY);
+      this.maxX = Math.max(this.maxX, other.maxX);
+      this.maxY = Math.max(this.maxY, other.maxY);
+      this.circles += other.circles;
+      this.rectangles += other.rectangles;
+      this.transparentRectangles += other.transparentRectangles;
+      this.filledRectangles += other.filledRectangles;
+      this.squares += other.squares;
+      this.filledSquares += other.filledSquares;
+      other.otherCounts.forEach((type, count) -> this.otherCounts.merge(type, count, Long::sum));
+    }
+
+    ShapeSummary toSummary() {
+      final Map<Class<? extends Shape>, Long> countsByType = new HashMap<>(this.otherCounts);
+      putIfNonZero(countsByType, Circle.class, this.circles);
+      putIfNonZero(countsByType, Rectangle.class, this.rectangles);
+      putIfNonZero(countsByType, TransparentRectangle.class, this.transparentRectangles);
+      putIfNonZero(countsByType, FilledRectangle.class, this.filledRectangles);
+      putIfNonZero(countsByType, Square.class, this.squares);
+      putIfNonZero(countsByType, FilledSquare.class, this.filledSquares);
+      final Bounds bounds = this.count == 0 ? null : new Bounds(this.minX, this.minY, this.maxX, this.maxY);
+      return new ShapeSummary(this.count, this.totalArea, this.totalPerimeter, bounds, countsByType);
+    }
+
+    private void addGeometry(double area, double perimeter, double minX, double minY, double maxX, double maxY) {
+      this.count++;
+      this.totalArea += area;
+      this.totalPerimeter += perimeter;
+      this.minX = Math.min(this.minX, minX);
+      this.minY = Math.min(this.minY, minY);
+      this.maxX = Math.max(this.maxX, maxX);
+      this.maxY = Math.max(this.maxY, maxY);
+    }
+
+    private static void putIfNonZero(Map<Class<? extends Shape>, Long> counts, Class<? extends Shape> type,
+      long count) {
+      if (count > 0)
+        counts.put(type, count);
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ShapeAggregator}.
+ */
+public class ShapeAggregatorTest {
+
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  public void setUp() {
+    this.pool = new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    this.pool.shutdownNow();
+  }
+
+  /**
+   * Tests that aggregating enough shapes to be split into many chunks, which are aggregated in parallel, gives the same
+   * measures as aggregating them sequentially, one shape at a time.
+   */
+  @Test
+  public void test_aggregate() {
+    final Random random = new Random(42);
+    final List<Shape> shapes = new ArrayList<>();
+    for (int i = 0; i < ShapeAggregator.MIN_CHUNK_SIZE * 50; i++) {
+      final double x = random.nextDouble() * 1000 - 500;
+      final double y = random.nextDouble() * 1000 - 500;
+      final double size = random.nextDouble() * 10;
+      shapes.add(switch (random.nextInt(7)) {
+        case 0 -> new Circle(x, y, size);
+        case 1 -> new Rectangle(x, y, size, size * 2);
+        case 2 -> new TransparentRectangle(x, y, size, size, 0x80FF0000);
+        case 3 -> new FilledRectangle(x, y, size, size, 0x00FF00);
+        case 4 -> new Square(x, y, size);
+        case 5 -> new FilledSquare(x, y, size, 0x0000FF);
+        default -> new OutlinedSquare(x, y, size);
+      });
+    }
+
+    final ShapeSummary summary = ShapeAggregator.aggregate(shapes, this.pool);
+
+    assertThat(summary.count()).isEqualTo(shapes.size());
+    assertThat(summary.totalArea()).isCloseTo(shapes.stream().mapToDouble(Shape::area).sum(), within(1e-6));
+    assertThat(summary.totalPerimeter()).isCloseTo(shapes.stream().mapToDouble(Shape::perimeter).sum(), within(1e-6));
+    assertThat(summary.bounds()).isEqualTo(shapes.stream().map(Shape::bounds).reduce(Bounds::union).orElseThrow());
+    final Map<Class<? extends Shape>, Long> expectedCounts = shapes.stream()
+      .collect(Collectors.groupingBy(Shape::getClass, Collectors.counting()));
+    assertThat(summary.countsByType()).isEqualTo(expectedCounts).hasSize(7);
+  }
+
+  /**
+   * Tests aggregating fewer shapes than are aggregated by a single task.
+   */
+  @Test
+  public void test_aggregate_singleChunk() {
+    final List<Shape> shapes = List.of(new Circle(0, 0, 1), new Square(2, 2, 2), new Square(-1, 3, 1));
+
+    final ShapeSummary summary = ShapeAggregator.aggregate(shapes, this.pool);
+
+    assertThat(summary.count()).isEqualTo(3);
+    assertThat(summary.totalArea()).isCloseTo(Math.PI + 5, within(1e-9));
+    assertThat(summary.bounds()).isEqualTo(new Bounds(-1, -1, 4, 4));
+    assertThat(summary.countsByType()).isEqualTo(Map.of(Circle.class, 1L, Square.class, 2L));
+  }
+
+  /**
+   * Tests aggregating no shapes.
+   */
+  @Test
+  public void test_aggregate_empty() {
+    final ShapeSummary summary = ShapeAggregator.aggregate(List.of(), this.pool);
+
+    assertThat(summary.count()).isZero();
+    assertThat(summary.totalArea()).isZero();
+    assertThat(summary.bounds()).isNull();
+    assertThat(summary.countsByType()).isEmpty();
+  }
+
+  /** An unknown subclass of the non-sealed {@link Square}. */
+  private static final class OutlinedSquare extends Square {
+    OutlinedSquare(double x, double y, double side) {
+      super(x, y, side);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import com.neiljbrown.examples.java17.sealedclasses.SealedCodec;
+
+/**
+ * Provides the {@link SealedCodec} used to encode shapes for transfer between processes.
+ * <p>
+ * Each shape is encoded as a one-byte tag, followed by its dimensions, each as an 8-byte double, and its colour, if
+ * it has one, as a 4-byte int. The tags of the permitted subclasses of {@link Shape} are those derived from their
+ * declaration order - {@link Circle} 0, {@link Rectangle} 1, {@link TransparentRectangle} 2, {@link FilledRectangle}
+ * 3 and {@link Square} 4. {@link FilledSquare}, which extends the non-sealed Square, is explicitly tagged 5. Any other
+ * subclass of Square can't be encoded.
+ */
+public final class ShapeCodec {
+
+  private static final SealedCodec<Shape> CODEC = SealedCodec.builder(Shape.class)
+    .type(Circle.class,
+      (circle, buffer) -> buffer.putDouble(circle.centreX()).putDouble(circle.centreY()).putDouble(circle.radius()),
+      buffer -> new Circle(buffer.getDouble(), buffer.getDouble(), buffer.getDouble()))
+    .type(Rectangle.class,
+      (rectangle, buffer) -> buffer.putDouble(rectangle.x()).putDouble(rectangle.y())
+        .putDouble(rectangle.width()).putDouble(rectangle.height()),
+      buffer -> new Rectangle(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble()))
+    .type(TransparentRectangle.class,
+      (rectangle, buffer) -> buffer.putDouble(rectangle.x()).putDouble(rectangle.y())
+        .putDouble(rectangle.width()).putDouble(rectangle.height()).putInt(rectangle.colour()),
+      buffer -> new TransparentRectangle(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+        buffer.getDouble(), buffer.getInt()))
+    .type(FilledRectangle.class,
+      (rectangle, buffer) -> buffer.putDouble(rectangle.x()).putDouble(rectangle.y())
+        .putDouble(rectangle.width()).putDouble(rectangle.height()).putInt(rectangle.colour()),
+      buffer -> new FilledRectangle(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+        buffer.getInt()))
+    .type(Square.class,
+      (square, buffer) -> buffer.putDouble(square.x()).putDouble(square.y()).putDouble(square.side()),
+      buffer -> new Square(buffer.getDouble(), buffer.getDouble(), buffer.getDouble()))
+    .type(FilledSquare.class,
+      (square, buffer) -> buffer.putDouble(square.x()).putDouble(square.y()).putDouble(square.side())
+        .putInt(square.colour()),
+      buffer -> new FilledSquare(buffer.getDouble(), buffer.getDouble(), buffer.getDouble(), buffer.getInt()))
+    .tag(FilledSquare.class, 5)
+    .build();
+
+  private ShapeCodec() {
+  }
+
+  /** @return The codec for shapes. */
+  public static SealedCodec<Shape> codec() {
+    return CODEC;
+  }
+}
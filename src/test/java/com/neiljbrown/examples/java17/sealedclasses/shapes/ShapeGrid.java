@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A spatial index of shapes, which supports efficiently finding the shapes which contain a point (hit-testing), or
+ * which overlap a rectangular area, without testing every shape.
+ * <p>
+ * The index divides a fixed area (the world) into a uniform grid of equally sized cells, and adds each shape to every
+ * cell its bounds overlap. A query only tests the shapes in the cells which overlap it, so, if the grid is sized so
+ * that each cell holds a small number of shapes, the cost of a query depends on the number of shapes near it, rather
+ * than the total number of shapes. Shapes may be added and removed at any time. A shape which is (partially) outside
+ * the world is added to the nearest cells on the edge of the grid, so queries outside the world are still correct,
+ * but slower, as the shapes in those cells accumulate.
+ * <p>
+ * A shape which overlaps more than one cell of an area query is only reported once, without tracking which shapes
+ * have been reported, by only reporting it from the cell which contains the top-left corner of the overlap of its
+ * bounds and the query.
+ * <p>
+ * Shapes are indexed by identity. This class is not thread-safe.
+ */
+public final class ShapeGrid {
+
+  private final Bounds world;
+  private final int columns;
+  private final int rows;
+  private final double cellWidth;
+  private final double cellHeight;
+  // The entries in each cell, in row-major order, created on demand
+  private final List<Entry>[] cells;
+  private int size;
+
+  /**
+   * @param world The area covered by the grid.
+   * @param columns The number of columns of cells.
+   * @param rows The number of rows of cells.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public ShapeGrid(Bounds world, int columns, int rows) {
+    this.world = Objects.requireNonNull(world, "world must not be null.");
+    if (!(world.minX() < world.maxX() && world.minY() < world.maxY()))
+      throw new IllegalArgumentException("world must have a width and height greater than zero.");
+    if (columns < 1 || rows < 1)
+      throw new IllegalArgumentException("columns and rows must be greater than zero.");
+    this.columns = columns;
+    this.rows = rows;
+    this.cellWidth = (world.maxX() - world.minX()) / columns;
+    this.cellHeight = (world.maxY() - world.minY()) / rows;
+    this.cells = new List[Math.multiplyExact(columns, rows)];
+  }
+
+  /** @return The number of shapes in the index. */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Adds the supplied shape to the index.
+   *
+   * @param shape The shape.
+   */
+  public void add(Shape shape) {
+    final Entry entry = new Entry(Objects.requireNonNull(shape, "shape must not be null."), shape.bounds());
+    final int minColumn = column(entry.bounds.minX());
+    final int maxColumn = column(entry.bounds.maxX());
+    for (int row = row(entry.bounds.minY()); row <= row(entry.bounds.maxY()); row++) {
+      for (int column = minColumn; column <= maxColumn; column++) {
+        final int cell = row * this.columns + column;
+        if (this.cells[cell] == null)
+          this.cells[cell] = new ArrayList<>(4);
+        this.cells[cell].add(entry);
+      }
+    }
+    this.size++;
+  }
+
+  /**
+   * Removes the supplied shape from the index, if it's in it.
+   *
+   * @param shape The shape.
+   * @return true if the shape was removed, otherwise false.
+   */
+  public boolean remove(Shape shape) {
+    final Bounds bounds = Objects.requireNonNull(shape, "shape must not be null.").bounds();
+    boolean removed = false;
+    final int minColumn = column(bounds.minX());
+    final int maxColumn = column(bounds.maxX());
+    for (int row = row(bounds.minY()); row <= row(bounds.maxY()); row++) {
+      for (int column = minColumn; column <= maxColumn; column++) {
+        final List<Entry> cell = this.cells[row * this.columns + column];
+        if (cell != null)
+          removed |= removeFirst(cell, shape);
+      }
+    }
+    if (removed)
+      this.size--;
+    return removed;
+  }
+
+  /**
+   * Performs the given action for each shape which contains the supplied point, in no particular order.
+   *
+   * @param x The x coordinate of the point.
+   * @param y The y coordinate of the point.
+   * @param action The action to perform.
+   */
+  public void forEachContaining(double x, double y, Consumer<? super Shape> action) {
+    final List<Entry> cell = this.cells[row(y) * this.columns + column(x)];
+    if (cell == null)
+      return;
+    for (int i = 0; i < cell.size(); i++) {
+      final Entry entry = cell.get(i);
+      if (entry.bounds.contains(x, y) && entry.shape.contains(x, y))
+        action.accept(entry.shape);
+    }
+  }
+
+  /**
+   * Performs the given action for each shape which overlaps the supplied area, in no particular order.
+   *
+   * @param area The area.
+   * @param action The action to perform.
+   */
+  public void forEachIntersecting(Bounds area, Consumer<? super Shape> action) {
+    final int minColumn = column(area.minX());
+    final int maxColumn = column(area.maxX());
+    for (int row = row(area.minY()); row <= row(area.maxY()); row++) {
+      for (int column = minColumn; column <= maxColumn; column++) {
+        final List<Entry> cell = this.cells[row * this.columns + column];
+        if (cell == null)
+          continue;
+        for (int i = 0; i < cell.size(); i++) {
+          final Entry entry = cell.get(i);
+          final Bounds bounds = entry.bounds;
+          if (bounds.intersects(area)
+            && column(Math.max(bounds.minX(), area.minX())) == column
+            && row(Math.max(bounds.minY(), area.minY())) == row
+            && entry.shape.intersects(area))
+            action.accept(entry.shape);
+        }
+      }
+    }
+  }
+
+  /** @return The column of the cell containing the supplied x coordinate, clamped to the grid. */
+  private int column(double x) {
+    final int column = (int) ((x - this.world.minX()) / this.cellWidth);
+    return Math.max(0, Math.min(column, this.columns - 1));
+  }
+
+  /** @return The row of the cell containing the supplied y coordinate, clamped to the grid. */
+  private int row(double y) {
+    final int row = (int) ((y - this.world.minY()) / this.cellHeight);
+    return Math.max(0, Math.min(row, this.rows - 1));
+  }
+
+  private static boolean removeFirst(List<Entry> cell, Shape shape) {
+    for (int i = 0; i < cell.size(); i++) {
+      if (cell.get(i).shape == shape) {
+        // The order of the entries in a cell doesn't matter, so replace the removed entry with the last
+        final Entry last = cell.remove(cell.size() - 1);
+        if (i < cell.size())
+          cell.set(i, last);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** A shape in the index, and its bounds, which are computed once, when it's added. */
+  private record Entry(Shape shape, Bounds bounds) { }
+}
@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ShapeGrid}.
+ */
+public class ShapeGridTest {
+
+  private static final Bounds WORLD = new Bounds(0, 0, 1000, 1000);
+
+  /**
+   * Tests finding the shapes which contain a point.
+   */
+  @Test
+  public void test_forEachContaining() {
+    final ShapeGrid grid = new ShapeGrid(WORLD, 10, 10);
+    final Circle circle = new Circle(100, 100, 50);
+    final Rectangle rectangle = new FilledRectangle(90, 90, 300, 20, 0xFF0000);
+    final Square square = new Square(500, 500, 10);
+    List.of(circle, rectangle, square).forEach(grid::add);
+
+    assertThat(findContaining(grid, 100, 100)).containsExactlyInAnyOrder(circle, rectangle);
+    assertThat(findContaining(grid, 380, 100)).containsExactly(rectangle);
+    // Within the circle's bounds, but not the circle
+    assertThat(findContaining(grid, 55, 55)).isEmpty();
+    assertThat(findContaining(grid, 510, 510)).containsExactly(square);
+  }
+
+  /**
+   * Tests that the results of point and area queries match those of testing every shape, for a large number of
+   * random shapes, some of which are partially or wholly outside the world, and random queries, before and after
+   * removing some of the shapes.
+   */
+  @Test
+  public void test_queriesMatchLinearScan() {
+    final Random random = new Random(42);
+    final ShapeGrid grid = new ShapeGrid(WORLD, 32, 32);
+    final List<Shape> shapes = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      final Shape shape = randomShape(random);
+      shapes.add(shape);
+      grid.add(shape);
+    }
+    assertQueriesMatchLinearScan(grid, shapes, random);
+
+    for (int i = 0; i < shapes.size(); i += 2)
+      assertThat(grid.remove(shapes.get(i))).isTrue();
+    final List<Shape> remaining = new ArrayList<>();
+    for (int i = 1; i < shapes.size(); i += 2)
+      remaining.add(shapes.get(i));
+    assertThat(grid.size()).isEqualTo(remaining.size());
+    assertQueriesMatchLinearScan(grid, remaining, random);
+  }
+
+  /**
+   * Tests that removing a shape which isn't in the index has no effect.
+   */
+  @Test
+  public void test_remove_notInIndex() {
+    final ShapeGrid grid = new ShapeGrid(WORLD, 10, 10);
+    final Square square = new Square(10, 10, 5);
+    grid.add(square);
+
+    // Shapes are indexed by identity, so an equal shape isn't removed
+    assertThat(grid.remove(new Square(10, 10, 5))).isFalse();
+    assertThat(grid.size()).isEqualTo(1);
+    assertThat(findContaining(grid, 12, 12)).containsExactly(square);
+  }
+
+  /**
+   * Tests that a grid can't be created with a world of no area, or no cells.
+   */
+  @Test
+  public void test_new_invalidArgs() {
+    assertThat(catchThrowable(() -> new ShapeGrid(new Bounds(0, 0, 0, 10), 1, 1)))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThat(catchThrowable(() -> new ShapeGrid(WORLD, 0, 1)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("columns and rows must be greater than zero.");
+  }
+
+  private static void assertQueriesMatchLinearScan(ShapeGrid grid, List<Shape> shapes, Random random) {
+    for (int i = 0; i < 1000; i++) {
+      final double x = random.nextDouble() * 1200 - 100;
+      final double y = random.nextDouble() * 1200 - 100;
+      assertThat(findContaining(grid, x, y)).containsExactlyInAnyOrderElementsOf(
+        shapes.stream().filter(shape -> shape.contains(x, y)).collect(Collectors.toList()));
+
+      final Bounds area = new Bounds(x, y, x + random.nextDouble() * 200, y + random.nextDouble() * 200);
+      final List<Shape> found = new ArrayList<>();
+      grid.forEachIntersecting(area, found::add);
+      assertThat(found).containsExactlyInAnyOrderElementsOf(
+        shapes.stream().filter(shape -> shape.intersects(area)).collect(Collectors.toList()));
+    }
+  }
+
+  private static List<Shape> findContaining(ShapeGrid grid, double x, double y) {
+    final List<Shape> found = new ArrayList<>();
+    grid.forEachContaining(x, y, found::add);
+    return found;
+  }
+
+  private static Shape randomShape(Random random) {
+    final double x = random.nextDouble() * 1100 - 50;
+    final double y = random.nextDouble() * 1100 - 50;
+    final double size = random.nextDouble() * 60;
+    return switch (random.nextInt(5)) {
+      case 0 -> new Circle(x, y, size / 2);
+      case 1 -> new Rectangle(x, y, size, size / 3);
+      case 2 -> new TransparentRectangle(x, y, size / 2, size, 0x80FF0000);
+      case 3 -> new FilledRectangle(x, y, size, size, 0x00FF00);
+      default -> new Square(x, y, size);
+    };
+  }
+}
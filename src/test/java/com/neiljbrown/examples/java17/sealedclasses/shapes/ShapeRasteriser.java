@@ -0,0 +1,284 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws shapes into a {@link Framebuffer}, in parallel, using the threads of a {@link ForkJoinPool}.
+ * <p>
+ * Each type of shape is drawn as follows -
+ * <br>
+ * - {@link FilledRectangle} and {@link FilledSquare} - Their interior is filled with their (opaque) colour, replacing
+ * whatever is beneath.
+ * <br>
+ * - {@link TransparentRectangle} - Their interior is blended with whatever is beneath, using the alpha of their
+ * colour (source-over compositing).
+ * <br>
+ * - {@link Rectangle}, {@link Square} (including unknown subclasses) and {@link Circle} - Only their outline is drawn,
+ * one pixel wide, in the rasteriser's outline colour.
+ * <p>
+ * A pixel is covered by a shape if its centre is within the shape. Shapes are drawn in the order they're supplied, so
+ * later shapes are drawn over earlier ones.
+ * <p>
+ * The framebuffer is divided into square tiles, which are drawn independently, in parallel. The shapes are first
+ * sorted into a list per tile of those whose bounds overlap it (in their original order), so that each tile only
+ * draws the shapes which may cover it, and each shape is clipped to the tile. As tiles don't overlap, drawing them
+ * doesn't need any synchronisation, and no objects are allocated per pixel. Smaller tiles balance the load across
+ * threads better, but a shape which overlaps several tiles is clipped and drawn once per tile.
+ */
+public final class ShapeRasteriser {
+
+  private final ForkJoinPool pool;
+  private final int tileSize;
+  private final int outlineColour;
+
+  /**
+   * @param pool The pool whose threads draw the tiles.
+   * @param tileSize The width and height of each tile, in pixels.
+   * @param outlineColour The colour of the outline of shapes which are neither filled nor transparent, as a packed
+   * ARGB value, which is treated as opaque.
+   */
+  public ShapeRasteriser(ForkJoinPool pool, int tileSize, int outlineColour) {
+    this.pool = Objects.requireNonNull(pool, "pool must not be null.");
+    if (tileSize < 1)
+      throw new IllegalArgumentException("tileSize must be greater than zero.");
+    this.tileSize = tileSize;
+    this.outlineColour = outlineColour | 0xFF000000;
+  }
+
+  /**
+   * Sets every pixel of the supplied framebuffer to the background colour, and then draws the supplied shapes into
+   * it. On return, all the drawing is complete, and visible to the calling thread.
+   *
+   * @param shapes The shapes, none of which may be null.
+   * @param framebuffer The framebuffer.
+   * @param background The background colour, as a packed ARGB value.
+   */
+  public void render(List<? extends Shape> shapes, Framebuffer framebuffer, int background) {
+    Objects.requireNonNull(shapes, "shapes must not be null.");
+    Objects.requireNonNull(framebuffer, "framebuffer must not be null.");
+    final Frame frame = new Frame(shapes, framebuffer, background);
+    this.pool.invoke(new TilesTask(frame, 0, frame.tileCount()));
+  }
+
+  /** The shapes and framebuffer being rendered, and the shapes which overlap each tile. */
+  private final class Frame {
+
+    private final List<? extends Shape> shapes;
+    private final Framebuffer framebuffer;
+    private final int background;
+    private final int tileColumns;
+    private final int tileRows;
+    // The index of each shape which overlaps each tile, in the order they're drawn
+    private final int[][] tileShapes;
+    private final int[] tileShapeCounts;
+
+    Frame(List<? extends Shape> shapes, Framebuffer framebuffer, int background) {
+      this.shapes = shapes;
+      this.framebuffer = framebuffer;
+      this.background = background;
+      this.tileColumns = (framebuffer.width() + tileSize - 1) / tileSize;
+      this.tileRows = (framebuffer.height() + tileSize - 1) / tileSize;
+      this.tileShapes = new int[Math.multiplyExact(this.tileColumns, this.tileRows)][];
+      this.tileShapeCounts = new int[this.tileShapes.length];
+      for (int i = 0; i < shapes.size(); i++)
+        addToTiles(i, shapes.get(i).bounds());
+    }
+
+    int tileCount() {
+      return this.tileShapes.length;
+    }
+
+    private void addToTiles(int shape, Bounds bounds) {
+      final int minX = firstPixel(bounds.minX(), this.framebuffer.width());
+      final int maxX = firstPixel(bounds.maxX(), this.framebuffer.width());
+      final int minY = firstPixel(bounds.minY(), this.framebuffer.height());
+      final int maxY = firstPixel(bounds.maxY(), this.framebuffer.height());
+      if (minX == maxX || minY == maxY)
+        return;
+      for (int tileY = minY / tileSize; tileY <= (maxY - 1) / tileSize; tileY++) {
+        for (int tileX = minX / tileSize; tileX <= (maxX - 1) / tileSize; tileX++) {
+          final int tile = tileY * this.tileColumns + tileX;
+          if (this.tileShapes[tile] == null)
+            this.tileShapes[tile] = new int[8];
+          else if (this.tileShapeCounts[tile] == this.tileShapes[tile].length)
+            this.tileShapes[tile] = Arrays.copyOf(this.tileShapes[tile], this.tileShapeCounts[tile] * 2);
+          this.tileShapes[tile][this.tileShapeCounts[tile]++] = shape;
+        }
+      }
+    }
+
+    void renderTile(int tile) {
+      final int minX = tile % this.tileColumns * tileSize;
+      final int minY = tile / this.tileColumns * tileSize;
+      final Clip clip = new Clip(minX, minY, Math.min(minX + tileSize, this.framebuffer.width()),
+        Math.min(minY + tileSize, this.framebuffer.height()));
+      this.framebuffer.fill(clip.minX(), clip.minY(), clip.maxX(), clip.maxY(), this.background);
+      for (int i = 0; i < this.tileShapeCounts[tile]; i++)
+        draw(this.shapes.get(this.tileShapes[tile][i]), clip);
+    }
+
+    private void draw(Shape shape, Clip clip) {
+      if (shape instanceof TransparentRectangle rectangle)
+        blendRectangle(rectangle.x(), rectangle.y(), rectangle.width(), rectangle.height(), rectangle.colour(), clip);
+      else if (shape instanceof FilledRectangle rectangle)
+        fillRectangle(rectangle.x(), rectangle.y(), rectangle.width(), rectangle.height(), rectangle.colour(), clip);
+      else if (shape instanceof Rectangle rectangle)
+        outlineRectangle(rectangle.x(), rectangle.y(), rectangle.width(), rectangle.height(), clip);
+      else if (shape instanceof FilledSquare square)
+        fillRectangle(square.x(), square.y(), square.side(), square.side(), square.colour(), clip);
+      else if (shape instanceof Square square)
+        outlineRectangle(square.x(), square.y(), square.side(), square.side(), clip);
+      else if (shape instanceof Circle circle)
+        outlineCircle(circle, clip);
+    }
+
+    private void fillRectangle(double x, double y, double width, double height, int colour, Clip clip) {
+      final int minX = Math.max(clip.minX(), firstPixel(x, this.framebuffer.width()));
+      final int maxX = Math.min(clip.maxX(), firstPixel(x + width, this.framebuffer.width()));
+      final int minY = Math.max(clip.minY(), firstPixel(y, this.framebuffer.height()));
+      final int maxY = Math.min(clip.maxY(), firstPixel(y + height, this.framebuffer.height()));
+      if (minX < maxX && minY < maxY)
+        this.framebuffer.fill(minX, minY, maxX, maxY, colour);
+    }
+
+    private void blendRectangle(double x, double y, double width, double height, int colour, Clip clip) {
+      final int alpha = colour >>> 24;
+      if (alpha == 0)
+        return;
+      if (alpha == 0xFF) {
+        fillRectangle(x, y, width, height, colour, clip);
+        return;
+      }
+      final int minX = Math.max(clip.minX(), firstPixel(x, this.framebuffer.width()));
+      final int maxX = Math.min(clip.maxX(), firstPixel(x + width, this.framebuffer.width()));
+      final int minY = Math.max(clip.minY(), firstPixel(y, this.framebuffer.height()));
+      final int maxY = Math.min(clip.maxY(), firstPixel(y + height, this.framebuffer.height()));
+      // The source's contribution to each channel is the same for every pixel, so is computed once
+      final int inverseAlpha = 0xFF - alpha;
+      final int sourceRed = (colour >>> 16 & 0xFF) * alpha;
+      final int sourceGreen = (colour >>> 8 & 0xFF) * alpha;
+      final int sourceBlue = (colour & 0xFF) * alpha;
+      final int sourceAlpha = alpha * 0xFF;
+      for (int py = minY; py < maxY; py++) {
+        final int rowStart = py * this.framebuffer.width();
+        for (int i = rowStart + minX; i < rowStart + maxX; i++) {
+          final int destination = this.framebuffer.getAt(i);
+          this.framebuffer.setAt(i,
+            divideBy255(sourceAlpha + (destination >>> 24) * inverseAlpha) << 24
+              | divideBy255(sourceRed + (destination >>> 16 & 0xFF) * inverseAlpha) << 16
+              | divideBy255(sourceGreen + (destination >>> 8 & 0xFF) * inverseAlpha) << 8
+              | divideBy255(sourceBlue + (destination & 0xFF) * inverseAlpha));
+        }
+      }
+    }
+
+    private void outlineRectangle(double x, double y, double width, double height, Clip clip) {
+      final int left = firstPixel(x, this.framebuffer.width());
+      final int right = firstPixel(x + width, this.framebuffer.width());
+      final int top = firstPixel(y, this.framebuffer.height());
+      final int bottom = firstPixel(y + height, this.framebuffer.height());
+      if (left == right || top == bottom)
+        return;
+      // Draw the top and bottom edges, and then the left and right edges, each clipped to the tile
+      fillClipped(left, top, right, top + 1, clip);
+      fillClipped(left, bottom - 1, right, bottom, clip);
+      fillClipped(left, top, left + 1, bottom, clip);
+      fillClipped(right - 1, top, right, bottom, clip);
+    }
+
+    private void outlineCircle(Circle circle, Clip clip) {
+      final Bounds bounds = circle.bounds();
+      final int minX = Math.max(clip.minX(), firstPixel(bounds.minX(), this.framebuffer.width()));
+      final int maxX = Math.min(clip.maxX(), firstPixel(bounds.maxX(), this.framebuffer.width()));
+      final int minY = Math.max(clip.minY(), firstPixel(bounds.minY(), this.framebuffer.height()));
+      final int maxY = Math.min(clip.maxY(), firstPixel(bounds.maxY(), this.framebuffer.height()));
+      final double radius = circle.radius();
+      final double outerSquared = radius * radius;
+      // Pixels whose centre is within a pixel of the edge are part of the outline. A circle whose radius is less than a
+      // pixel is drawn whole.
+      final double innerSquared = radius > 1 ? (radius - 1) * (radius - 1) : -1;
+      for (int py = minY; py < maxY; py++) {
+        final double dy = py + 0.5 - circle.centreY();
+        final int rowStart = py * this.framebuffer.width();
+        for (int px = minX; px < maxX; px++) {
+          final double dx = px + 0.5 - circle.centreX();
+          final double distanceSquared = dx * dx + dy * dy;
+          if (distanceSquared <= outerSquared && distanceSquared > innerSquared)
+            this.framebuffer.setAt(rowStart + px, outlineColour);
+        }
+      }
+    }
+
+    private void fillClipped(int minX, int minY, int maxX, int maxY, Clip clip) {
+      minX = Math.max(minX, clip.minX());
+      maxX = Math.min(maxX, clip.maxX());
+      minY = Math.max(minY, clip.minY());
+      maxY = Math.min(maxY, clip.maxY());
+      if (minX < maxX && minY < maxY)
+        this.framebuffer.fill(minX, minY, maxX, maxY, outlineColour);
+    }
+  }
+
+  /** Task which renders a range of tiles, splitting it in two until there's a single tile to render. */
+  private static final class TilesTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Frame frame;
+    private final int fromTile;
+    private final int toTile;
+
+    TilesTask(Frame frame, int fromTile, int toTile) {
+      this.frame = frame;
+      this.fromTile = fromTile;
+      this.toTile = toTile;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.toTile - this.fromTile == 1) {
+        this.frame.renderTile(this.fromTile);
+      } else {
+        final int middle = (this.fromTile + this.toTile) >>> 1;
+        invokeAll(new TilesTask(this.frame, this.fromTile, middle), new TilesTask(this.frame, middle, this.toTile));
+      }
+    }
+  }
+
+  /** The region of the framebuffer being drawn by a tile. Max coordinates are exclusive. */
+  private record Clip(int minX, int minY, int maxX, int maxY) { }
+
+  /**
+   * @return The first pixel whose centre is at or after the supplied coordinate, clamped to the range 0 to the
+   * supplied limit. The pixels covered by a span from a to b are those from firstPixel(a) up to, but excluding,
+   * firstPixel(b).
+   */
+  private static int firstPixel(double coordinate, int limit) {
+    return (int) Math.max(0, Math.min(limit, Math.ceil(coordinate - 0.5)));
+  }
+
+  /** @return The supplied value, which must be between 0 and 255 * 255, divided by 255, rounded to nearest. */
+  private static int divideBy255(int value) {
+    value += 128;
+    return (value + (value >>> 8)) >>> 8;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ShapeRasteriser}.
+ */
+public class ShapeRasteriserTest {
+
+  private static final int BACKGROUND = 0xFFFFFFFF;
+  private static final int OUTLINE = 0xFF000000;
+
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  public void setUp() {
+    this.pool = new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    this.pool.shutdownNow();
+  }
+
+  /**
+   * Tests that a filled rectangle which spans several tiles replaces the pixels whose centre it covers, and only those.
+   */
+  @Test
+  public void test_render_filledRectangle() {
+    final Framebuffer framebuffer = new Framebuffer(20, 20);
+
+    new ShapeRasteriser(this.pool, 4, OUTLINE).render(List.of(new FilledRectangle(2.5, 3, 10, 5.6, 0x0000FF)),
+      framebuffer, BACKGROUND);
+
+    for (int y = 0; y < 20; y++)
+      for (int x = 0; x < 20; x++) {
+        final boolean covered = x >= 2 && x < 12 && y >= 3 && y < 9;
+        assertThat(framebuffer.get(x, y)).as("Pixel (%d, %d)", x, y).isEqualTo(covered ? 0xFF0000FF : BACKGROUND);
+      }
+  }
+
+  /**
+   * Tests that a transparent rectangle is blended with the filled rectangle beneath it, and the background.
+   */
+  @Test
+  public void test_render_transparentRectangle() {
+    final Framebuffer framebuffer = new Framebuffer(10, 10);
+    final List<Shape> shapes = List.of(
+      new FilledRectangle(0, 0, 5, 10, 0x0000FF),
+      new TransparentRectangle(0, 0, 10, 10, 0x80FF0000));
+
+    new ShapeRasteriser(this.pool, 4, OUTLINE).render(shapes, framebuffer, BACKGROUND);
+
+    // Half red over opaque blue
+    assertThat(framebuffer.get(2, 2)).isEqualTo(0xFF80007F);
+    // Half red over opaque white
+    assertThat(framebuffer.get(7, 7)).isEqualTo(0xFFFF7F7F);
+  }
+
+  /**
+   * Tests that a rectangle which is neither filled nor transparent, and a square, are drawn as an outline.
+   */
+  @Test
+  public void test_render_outlineRectangleAndSquare() {
+    final Framebuffer framebuffer = new Framebuffer(20, 20);
+    final List<Shape> shapes = List.of(new Rectangle(1, 1, 6, 4), new Square(10, 10, 5));
+
+    new ShapeRasteriser(this.pool, 8, OUTLINE).render(shapes, framebuffer, BACKGROUND);
+
+    assertThat(framebuffer.get(1, 1)).isEqualTo(OUTLINE);
+    assertThat(framebuffer.get(6, 4)).isEqualTo(OUTLINE);
+    assertThat(framebuffer.get(3, 4)).isEqualTo(OUTLINE);
+    assertThat(framebuffer.get(3, 3)).isEqualTo(BACKGROUND);
+    assertThat(framebuffer.get(7, 1)).isEqualTo(BACKGROUND);
+    assertThat(framebuffer.get(14, 12)).isEqualTo(OUTLINE);
+    assertThat(framebuffer.get(12, 12)).isEqualTo(BACKGROUND);
+  }
+
+  /**
+   * Tests that a circle is drawn as an outline.
+   */
+  @Test
+  public void test_render_circle() {
+    final Framebuffer framebuffer = new Framebuffer(20, 20);
+
+    new ShapeRasteriser(this.pool, 8, OUTLINE).render(List.of(new Circle(10, 10, 6)), framebuffer, BACKGROUND);
+
+    assertThat(framebuffer.get(15, 10)).isEqualTo(OUTLINE);
+    assertThat(framebuffer.get(10, 4)).isEqualTo(OUTLINE);
+    assertThat(framebuffer.get(10, 10)).isEqualTo(BACKGROUND);
+    assertThat(framebuffer.get(4, 4)).isEqualTo(BACKGROUND);
+  }
+
+  /**
+   * Tests that the image is the same, regardless of the size of the tiles, for a scene of many overlapping shapes of
+   * every type, some of which are partially or wholly outside the framebuffer.
+   */
+  @Test
+  public void test_render_sameForAnyTileSize() {
+    final Random random = new Random(42);
+    final List<Shape> shapes = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      final double x = random.nextDouble() * 240 - 20;
+      final double y = random.nextDouble() * 180 - 20;
+      final double size = random.nextDouble() * 40;
+      final int colour = random.nextInt();
+      shapes.add(switch (random.nextInt(6)) {
+        case 0 -> new Circle(x, y, size / 2);
+        case 1 -> new Rectangle(x, y, size, size / 2);
+        case 2 -> new TransparentRectangle(x, y, size, size, colour);
+        case 3 -> new FilledRectangle(x, y, size / 2, size, colour);
+        case 4 -> new Square(x, y, size);
+        default -> new FilledSquare(x, y, size, colour);
+      });
+    }
+    final Framebuffer expected = new Framebuffer(200, 150);
+    new ShapeRasteriser(this.pool, 1000, OUTLINE).render(shapes, expected, BACKGROUND);
+
+    for (int tileSize : new int[] {1, 7, 32}) {
+      final Framebuffer actual = new Framebuffer(200, 150);
+      new ShapeRasteriser(this.pool, tileSize, OUTLINE).render(shapes, actual, BACKGROUND);
+      for (int y = 0; y < 150; y++)
+        for (int x = 0; x < 200; x++)
+          assertThat(actual.get(x, y)).as("Pixel (%d, %d), tile size %d", x, y, tileSize)
+            .isEqualTo(expected.get(x, y));
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A store of a large number of shapes, which holds the geometry of each type of shape in its own set of primitive
+ * arrays (columns), one per field, rather than as an object per shape - a struct-of-arrays layout.
+ * <p>
+ * Holding shapes as objects costs an object header per shape, plus a reference to it, and iterating over them chases
+ * a pointer to each object, which may be anywhere in the heap, and makes a (megamorphic) virtual call to compute
+ * each shape's geometry. Instead, this store keeps the same field of each shape of a given type adjacent in memory,
+ * so that bulk operations such as {@link #totalArea()} run as a tight loop over each type's columns, which are read
+ * sequentially, and can be unrolled and vectorised by the JIT compiler.
+ * <p>
+ * The shapes in the store are only held as their geometry (and colour), not as objects, so they can't be retrieved.
+ * A shape of an unknown subclass of the non-sealed {@link Square}, i.e. other than {@link FilledSquare}, is stored as
+ * a Square. This class is not thread-safe.
+ */
+public final class ShapeStore {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  // Index of each column of a circle's geometry
+  private static final int CENTRE_X = 0;
+  private static final int CENTRE_Y = 1;
+  private static final int RADIUS = 2;
+
+  // Index of each column of a rectangle's or a square's geometry
+  private static final int X = 0;
+  private static final int Y = 1;
+  private static final int WIDTH = 2;
+  private static final int SIDE = 2;
+  private static final int HEIGHT = 3;
+
+  private final Columns circles = new Columns(3, false);
+  private final Columns rectangles = new Columns(4, false);
+  private final Columns transparentRectangles = new Columns(4, true);
+  private final Columns filledRectangles = new Columns(4, true);
+  private final Columns squares = new Columns(3, false);
+  private final Columns filledSquares = new Columns(3, true);
+
+  /**
+   * Adds the supplied shape to the store.
+   *
+   * @param shape The shape.
+   */
+  public void add(Shape shape) {
+    Objects.requireNonNull(shape, "shape must not be null.");
+    if (shape instanceof Circle circle) {
+      final int row = this.circles.addRow();
+      this.circles.set(CENTRE_X, row, circle.centreX());
+      this.circles.set(CENTRE_Y, row, circle.centreY());
+      this.circles.set(RADIUS, row, circle.radius());
+    } else if (shape instanceof TransparentRectangle rectangle) {
+      final int row = addRectangle(this.transparentRectangles, rectangle);
+      this.transparentRectangles.setColour(row, rectangle.colour());
+    } else if (shape instanceof FilledRectangle rectangle) {
+      final int row = addRectangle(this.filledRectangles, rectangle);
+      this.filledRectangles.setColour(row, rectangle.colour());
+    } else if (shape instanceof Rectangle rectangle) {
+      addRectangle(this.rectangles, rectangle);
+    } else if (shape instanceof FilledSquare square) {
+      final int row = addSquare(this.filledSquares, square);
+      this.filledSquares.setColour(row, square.colour());
+    } else if (shape instanceof Square square) {
+      addSquare(this.squares, square);
+    }
+  }
+
+  /** @return The number of shapes in the store. */
+  public int size() {
+    return this.circles.size() + this.rectangles.size() + this.transparentRectangles.size()
+      + this.filledRectangles.size() + this.squares.size() + this.filledSquares.size();
+  }
+
+  /** @return The sum of the area of all the shapes in the store. */
+  public double totalArea() {
+    return Math.PI * sumOfSquares(this.circles, RADIUS)
+      + sumOfProducts(this.rectangles) + sumOfProducts(this.transparentRectangles)
+      + sumOfProducts(this.filledRectangles)
+      + sumOfSquares(this.squares, SIDE) + sumOfSquares(this.filledSquares, SIDE);
+  }
+
+  /** @return The sum of the length of the perimeter of all the shapes in the store. */
+  public double totalPerimeter() {
+    return 2 * Math.PI * sum(this.circles, RADIUS)
+      + 2 * (sum(this.rectangles, WIDTH) + sum(this.rectangles, HEIGHT))
+      + 2 * (sum(this.transparentRectangles, WIDTH) + sum(this.transparentRectangles, HEIGHT))
+      + 2 * (sum(this.filledRectangles, WIDTH) + sum(this.filledRectangles, HEIGHT))
+      + 4 * (sum(this.squares, SIDE) + sum(this.filledSquares, SIDE));
+  }
+
+  /** @return The index of the row holding the added rectangle. */
+  private static int addRectangle(Columns columns, Rectangle rectangle) {
+    final int row = columns.addRow();
+    columns.set(X, row, rectangle.x());
+    columns.set(Y, row, rectangle.y());
+    columns.set(WIDTH, row, rectangle.width());
+    columns.set(HEIGHT, row, rectangle.height());
+    return row;
+  }
+
+  /** @return The index of the row holding the added square. */
+  private static int addSquare(Columns columns, Square square) {
+    final int row = columns.addRow();
+    columns.set(X, row, square.x());
+    columns.set(Y, row, square.y());
+    columns.set(SIDE, row, square.side());
+    return row;
+  }
+
+  private static double sum(Columns columns, int column) {
+    final double[] values = columns.column(column);
+    double sum = 0;
+    for (int i = 0; i < columns.size(); i++)
+      sum += values[i];
+    return sum;
+  }
+
+  private static double sumOfSquares(Columns columns, int column) {
+    final double[] values = columns.column(column);
+    double sum = 0;
+    for (int i = 0; i < columns.size(); i++)
+      sum += values[i] * values[i];
+    return sum;
+  }
+
+  /** @return The sum of the product of the width and height of each of the supplied rectangles. */
+  private static double sumOfProducts(Columns columns) {
+    final double[] widths = columns.column(WIDTH);
+    final double[] heights = columns.column(HEIGHT);
+    double sum = 0;
+    for (int i = 0; i < columns.size(); i++)
+      sum += widths[i] * heights[i];
+    return sum;
+  }
+
+  /** The columns holding the geometry, and optionally the colour, of each shape of one type. */
+  private static final class Columns {
+
+    private final double[][] columns;
+    private int[] colours;
+    private int size;
+
+    Columns(int columnCount, boolean coloured) {
+      this.columns = new double[columnCount][INITIAL_CAPACITY];
+      this.colours = coloured ? new int[INITIAL_CAPACITY] : null;
+    }
+
+    int size() {
+      return this.size;
+    }
+
+    double[] column(int column) {
+      return this.columns[column];
+    }
+
+    /** @return The index of the added row, whose values must then be set. */
+    int addRow() {
+      if (this.size == this.columns[0].length) {
+        final int capacity = Math.multiplyExact(this.size, 2);
+        for (int column = 0; column < this.columns.length; column++)
+          this.columns[column] = Arrays.copyOf(this.columns[column], capacity);
+        if (this.colours != null)
+          this.colours = Arrays.copyOf(this.colours, capacity);
+      }
+      return this.size++;
+    }
+
+    void set(int column, int row, double value) {
+      this.columns[column][row] = value;
+    }
+
+    void setColour(int row, int colour) {
+      this.colours[row] = colour;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ShapeStore}.
+ */
+public class ShapeStoreTest {
+
+  /**
+   * Tests that the total area and perimeter of the shapes in the store are the same as the sum of those of each shape,
+   * for a large number of shapes of every type, including an unknown subclass of the non-sealed {@link Square}.
+   */
+  @Test
+  public void test_totalAreaAndPerimeter() {
+    final Random random = new Random(42);
+    final List<Shape> shapes = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      final double x = random.nextDouble() * 100;
+      final double y = random.nextDouble() * 100;
+      final double size = random.nextDouble() * 10;
+      shapes.add(switch (i % 7) {
+        case 0 -> new Circle(x, y, size);
+        case 1 -> new Rectangle(x, y, size, size * 2);
+        case 2 -> new TransparentRectangle(x, y, size, size / 2, 0x80FF0000);
+        case 3 -> new FilledRectangle(x, y, size * 3, size, 0x00FF00);
+        case 4 -> new Square(x, y, size);
+        case 5 -> new FilledSquare(x, y, size, 0x0000FF);
+        default -> new Square(x, y, size) { };
+      });
+    }
+    final ShapeStore store = new ShapeStore();
+    shapes.forEach(store::add);
+
+    assertThat(store.size()).isEqualTo(shapes.size());
+    assertThat(store.totalArea()).isCloseTo(shapes.stream().mapToDouble(Shape::area).sum(), within(1e-6));
+    assertThat(store.totalPerimeter()).isCloseTo(shapes.stream().mapToDouble(Shape::perimeter).sum(), within(1e-6));
+  }
+
+  /**
+   * Tests the totals of an empty store.
+   */
+  @Test
+  public void test_totalAreaAndPerimeter_empty() {
+    final ShapeStore store = new ShapeStore();
+
+    assertThat(store.size()).isZero();
+    assertThat(store.totalArea()).isZero();
+    assertThat(store.totalPerimeter()).isZero();
+  }
+}
@@ -0,0 +1,35 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import java.util.Map;
+
+/**
+ * Aggregate measures of a collection of shapes, as computed by {@link ShapeAggregator}.
+ *
+ * @param count The number of shapes.
+ * @param totalArea The sum of the area of the shapes.
+ * @param totalPerimeter The sum of the length of the perimeter of the shapes.
+ * @param bounds The smallest axis-aligned box which contains all the shapes, or null if there are no shapes.
+ * @param countsByType The number of shapes of each (concrete) class of shape.
+ */
+public record ShapeSummary(long count, double totalArea, double totalPerimeter, Bounds bounds,
+  Map<Class<? extends Shape>, Long> countsByType) {
+
+  public ShapeSummary {
+    countsByType = Map.copyOf(countsByType);
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for the geometry of each type of {@link Shape}.
+ */
+public class ShapeTest {
+
+  /**
+   * Tests the area and perimeter of each type of shape.
+   */
+  @Test
+  public void test_areaAndPerimeter() {
+    final Circle circle = new Circle(5, 5, 2);
+    assertThat(circle.area()).isCloseTo(4 * Math.PI, within(1e-9));
+    assertThat(circle.perimeter()).isCloseTo(4 * Math.PI, within(1e-9));
+
+    final Rectangle rectangle = new FilledRectangle(1, 2, 3, 4, 0x00FF00);
+    assertThat(rectangle.area()).isEqualTo(12);
+    assertThat(rectangle.perimeter()).isEqualTo(14);
+
+    final Square square = new FilledSquare(1, 2, 3, 0x00FF00);
+    assertThat(square.area()).isEqualTo(9);
+    assertThat(square.perimeter()).isEqualTo(12);
+  }
+
+  /**
+   * Tests that the fill of a filled shape is always opaque, whereas that of a transparent shape has the supplied
+   * alpha.
+   */
+  @Test
+  public void test_colour() {
+    assertThat(new FilledRectangle(0, 0, 1, 1, 0x00123456).colour()).isEqualTo(0xFF123456);
+    assertThat(new FilledSquare(0, 0, 1, 0x00123456).colour()).isEqualTo(0xFF123456);
+    assertThat(new TransparentRectangle(0, 0, 1, 1, 0x80123456).colour()).isEqualTo(0x80123456);
+  }
+
+  /**
+   * Tests whether each type of shape contains a point, or intersects an area, including at their edges.
+   */
+  @Test
+  public void test_containsAndIntersects() {
+    final Circle circle = new Circle(10, 10, 5);
+    assertThat(circle.contains(15, 10)).isTrue();
+    // Within the circle's bounds, but not the circle
+    assertThat(circle.contains(14, 14)).isFalse();
+    assertThat(circle.intersects(new Bounds(14, 14, 20, 20))).isFalse();
+    assertThat(circle.intersects(new Bounds(13, 13, 20, 20))).isTrue();
+    assertThat(circle.intersects(new Bounds(0, 0, 20, 20))).isTrue();
+
+    final Rectangle rectangle = new Rectangle(0, 0, 4, 2);
+    assertThat(rectangle.contains(4, 2)).isTrue();
+    assertThat(rectangle.contains(4, 2.1)).isFalse();
+    assertThat(rectangle.intersects(new Bounds(4, 2, 5, 5))).isTrue();
+    assertThat(rectangle.intersects(new Bounds(4.1, 0, 5, 5))).isFalse();
+
+    final Square square = new Square(0, 0, 2);
+    assertThat(square.contains(1, 1)).isTrue();
+    assertThat(square.intersects(new Bounds(-1, -1, 0, 0))).isTrue();
+    assertThat(square.intersects(new Bounds(-1, 2.5, 3, 3))).isFalse();
+  }
+
+  /**
+   * Tests that a shape can't be created with a negative (or not a number) dimension.
+   */
+  @Test
+  public void test_invalidDimension() {
+    assertThat(catchThrowable(() -> new Circle(0, 0, -1)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("radius must be zero or greater.");
+    assertThat(catchThrowable(() -> new Rectangle(0, 0, 1, Double.NaN)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("height must be zero or greater.");
+    assertThat(catchThrowable(() -> new Square(0, 0, -0.5)))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("side must be zero or greater.");
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+/**
+ * A visitor of the {@link Shape} hierarchy, which supports implementing an operation on each type of shape externally
+ * to the shape classes, using double dispatch - see {@link Shape#accept(ShapeVisitor)}.
+ *
+ * @param <R> The type of result returned by the visitor.
+ */
+public interface ShapeVisitor<R> {
+
+  R visitCircle(Circle circle);
+
+  R visitRectangle(Rectangle rectangle);
+
+  R visitTransparentRectangle(TransparentRectangle rectangle);
+
+  R visitFilledRectangle(FilledRectangle rectangle);
+
+  /**
+   * Visits a {@link Square}, or any of its subclasses, as the hierarchy of squares is open (non-sealed).
+   *
+   * @param square The square.
+   * @return The result.
+   */
+  R visitSquare(Square square);
+}
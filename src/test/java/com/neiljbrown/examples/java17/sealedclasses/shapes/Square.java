@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.sealedclasses.shapes;
+
+/**
+ * A square, whose sides are parallel to the axes, and of which only the outline is visible.
+ * <p>
+ * This permitted subclass of {@link Shape} declares itself as non-sealed, reverting to allowing itself to be further
+ * extended by any unknown class. As a result, a {@link ShapeVisitor} can't declare a method for every type of square,
+ * so visits all squares, including subclasses, using {@link ShapeVisitor#visitSquare(Square)}.
+ */
+public non-sealed class Square extends Shape {
+
+  private final double x;
+  private final double y;
+  private final double side;
+
+  /**
+   * @param x The x coordinate of the left side of the square.
+   * @param y The y coordinate of the top side of the square.
+   * @param side The length of the square's sides.
+   */
+  public Square(double x, double y, double side) {
+    this.x = x;
+    this.y = y;
+    this.side = requireDimension(side, "side");
+  }
+
+  public double x() {
+    return this.x;
+  }
+
+  public double y() {
+    return this.y;
+  }
+
+  public double side() {
+    return this.side;
+  }
+
+  @Override
+  public double area() {
+    return this.side * this.side;
+  }
+
+  @Override
+  public double perimeter() {
+    return 4 * this.side;
+  }
+
+  @Override
+  public Bounds bounds() {
+    return new Bounds(this.x, this.y, this.x + this.side, this.y + this.side);
+  }
+
+  @Override
+  public boolean contains(double x, double y) {
+    return this.x <= x && x <= this.x + this.side && this.y <= y && y <= this.y + this.side;
+  }
+
+  @Override
+  public boolean intersects(Bounds bounds) {
+    return this.x <= bounds.maxX() && bounds.minX() <= this.x + this.side && this.y <= bounds.maxY()
+      && bounds.minY() <= this.y + this.side;
+  }
+
+  @Override
+  public int corners() {
+    return 4;
+  }
+
+  @Override
+  public <R> R accept(ShapeVisitor<R> visitor) {
+    return visitor.visitSquare(this);
+  }
+}
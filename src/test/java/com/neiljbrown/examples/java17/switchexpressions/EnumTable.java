@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.switchexpressions;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An immutable mapping from each constant of an enum to a value, precomputed from a function, typically a switch
+ * expression, and held in an array indexed by the constants' ordinals.
+ * <p>
+ * A switch on an enum declared in another class is compiled by javac to a lookup of the constant's ordinal in a
+ * synthetic array (the {@code $SwitchMap}), to get the index of its case, followed by a jump to the code for the case,
+ * which computes the value. A table replaces all of that with a single array access, and unlike an
+ * {@link java.util.EnumMap}, doesn't check the type of the key. So, it's suited to mappings which are evaluated in
+ * inner loops. E.g. for the switch expression in
+ * {@link SwitchExpressionsExamplesTest#test_switchOnEnum()} -
+ * <pre>
+ * EnumTable.of(DayOfWeek.class, day -&gt; switch (day) {
+ *   case MONDAY, FRIDAY, SUNDAY -&gt; "six";
+ *   ...
+ * });
+ * </pre>
+ * As the mapping is computed once per constant, when the table is created, it must not depend on any state which
+ * changes. See also {@link IntEnumTable}, for mappings to an int, which holds the values themselves, rather than
+ * (like this table, or an EnumMap) references to boxed values, so avoids dereferencing them.
+ *
+ * @param <E> The type of enum.
+ * @param <V> The type of value.
+ */
+public final class EnumTable<E extends Enum<E>, V> {
+
+  private final Class<E> type;
+  private final Object[] values;
+
+  private EnumTable(Class<E> type, Object[] values) {
+    this.type = type;
+    this.values = values;
+  }
+
+  /**
+   * @param type The type of enum.
+   * @param mapping The function which maps each constant of the enum to its value. Called once per constant.
+   * @param <E> The type of enum.
+   * @param <V> The type of value.
+   * @return A table of the value of each constant of the enum.
+   * @throws IllegalArgumentException if the mapping returns null for any constant.
+   */
+  public static <E extends Enum<E>, V> EnumTable<E, V> of(Class<E> type, Function<? super E, ? extends V> mapping) {
+    Objects.requireNonNull(type, "type must not be null.");
+    Objects.requireNonNull(mapping, "mapping must not be null.");
+    final E[] constants = type.getEnumConstants();
+    final Object[] values = new Object[constants.length];
+    for (E constant : constants) {
+      final V value = mapping.apply(constant);
+      if (value == null)
+        throw new IllegalArgumentException("mapping must not return null, as it did for [" + constant + "].");
+      values[constant.ordinal()] = value;
+    }
+    return new EnumTable<>(type, values);
+  }
+
+  /**
+   * @param key The enum constant.
+   * @return The value of the supplied constant.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(E key) {
+    return (V) this.values[key.ordinal()];
+  }
+
+  /** @return The type of enum. */
+  public Class<E> type() {
+    return this.type;
+  }
+
+  @Override
+  public String toString() {
+    return this.type.getSimpleName() + Arrays.toString(this.values);
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.switchexpressions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link EnumTable}.
+ */
+public class EnumTableTest {
+
+  /**
+   * Tests that the table returns the value of the mapping for each constant, computing each value only once.
+   */
+  @Test
+  public void test_get() {
+    final List<DayOfWeek> mapped = new ArrayList<>();
+    final EnumTable<DayOfWeek, String> table = EnumTable.of(DayOfWeek.class, day -> {
+      mapped.add(day);
+      return switch (day) {
+        case SATURDAY, SUNDAY -> "weekend";
+        default -> "weekday";
+      };
+    });
+
+    assertThat(table.get(DayOfWeek.MONDAY)).isEqualTo("weekday");
+    assertThat(table.get(DayOfWeek.FRIDAY)).isEqualTo("weekday");
+    assertThat(table.get(DayOfWeek.SUNDAY)).isEqualTo("weekend");
+    assertThat(mapped).containsExactly(DayOfWeek.values());
+    assertThat(table.type()).isEqualTo(DayOfWeek.class);
+    assertThat(table).hasToString(
+      "DayOfWeek[weekday, weekday, weekday, weekday, weekday, weekend, weekend]");
+  }
+
+  /**
+   * Tests that a mapping which returns null for any constant is rejected.
+   */
+  @Test
+  public void test_of_nullValue() {
+    assertThat(catchThrowable(() -> EnumTable.of(DayOfWeek.class, day -> day == DayOfWeek.MONDAY ? null : "x")))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("mapping must not return null, as it did for [MONDAY].");
+  }
+}
@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.switchexpressions;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * An immutable mapping from each constant of an enum to an int, precomputed from a function, typically a switch
+ * expression, and held in an int array indexed by the constants' ordinals.
+ * <p>
+ * This is the primitive equivalent of {@link EnumTable}, which holds the values themselves in the array, rather than
+ * references to them, so getting a value costs one array access, and never boxes. E.g. for the switch expression in
+ * {@link SwitchExpressionsExamplesTest#test_switchOnEnum()} -
+ * <pre>
+ * IntEnumTable.of(DayOfWeek.class, day -&gt; switch (day) {
+ *   case MONDAY, FRIDAY, SUNDAY -&gt; 6;
+ *   case TUESDAY -&gt; 7;
+ *   case THURSDAY, SATURDAY -&gt; 8;
+ *   case WEDNESDAY -&gt; 9;
+ * });
+ * </pre>
+ *
+ * @param <E> The type of enum.
+ */
+public final class IntEnumTable<E extends Enum<E>> {
+
+  private final Class<E> type;
+  private final int[] values;
+
+  private IntEnumTable(Class<E> type, int[] values) {
+    this.type = type;
+    this.values = values;
+  }
+
+  /**
+   * @param type The type of enum.
+   * @param mapping The function which maps each constant of the enum to its value. Called once per constant.
+   * @param <E> The type of enum.
+   * @return A table of the value of each constant of the enum.
+   */
+  public static <E extends Enum<E>> IntEnumTable<E> of(Class<E> type, ToIntFunction<? super E> mapping) {
+    Objects.requireNonNull(type, "type must not be null.");
+    Objects.requireNonNull(mapping, "mapping must not be null.");
+    final E[] constants = type.getEnumConstants();
+    final int[] values = new int[constants.length];
+    for (E constant : constants)
+      values[constant.ordinal()] = mapping.applyAsInt(constant);
+    return new IntEnumTable<>(type, values);
+  }
+
+  /**
+   * @param key The enum constant.
+   * @return The value of the supplied constant.
+   */
+  public int get(E key) {
+    return this.values[key.ordinal()];
+  }
+
+  /** @return The type of enum. */
+  public Class<E> type() {
+    return this.type;
+  }
+
+  @Override
+  public String toString() {
+    return this.type.getSimpleName() + Arrays.toString(this.values);
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.switchexpressions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.DayOfWeek;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link IntEnumTable}.
+ */
+public class IntEnumTableTest {
+
+  /**
+   * Tests that the table returns the same value as the switch expression in
+   * {@link SwitchExpressionsExamplesTest#test_switchOnEnum()}, for every day of the week.
+   */
+  @Test
+  public void test_get() {
+    final IntEnumTable<DayOfWeek> numberOfLetters = IntEnumTable.of(DayOfWeek.class, IntEnumTableTest::numberOfLetters);
+
+    for (DayOfWeek day : DayOfWeek.values())
+      assertThat(numberOfLetters.get(day)).as("Day [%s]", day).isEqualTo(day.name().length());
+    assertThat(numberOfLetters).hasToString("DayOfWeek[6, 7, 9, 8, 6, 8, 6]");
+  }
+
+  /**
+   * Tests that getting the value of a null key fails.
+   */
+  @Test
+  public void test_get_nullKey() {
+    final IntEnumTable<DayOfWeek> table = IntEnumTable.of(DayOfWeek.class, DayOfWeek::getValue);
+
+    assertThat(catchThrowable(() -> table.get(null))).isInstanceOf(NullPointerException.class);
+  }
+
+  private static int numberOfLetters(DayOfWeek day) {
+    return switch (day) {
+      case MONDAY, FRIDAY, SUNDAY -> 6;
+      case TUESDAY -> 7;
+      case THURSDAY, SATURDAY -> 8;
+      case WEDNESDAY -> 9;
+    };
+  }
+}
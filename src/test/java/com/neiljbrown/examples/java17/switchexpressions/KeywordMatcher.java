@@ -0,0 +1,305 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.switchexpressions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Matches text against a fixed set of ASCII keywords, such as the NATO phonetic alphabet, or the keywords of a
+ * language, using a minimal perfect hash function generated once from the keywords, as an alternative to a switch on a
+ * string, or a {@link java.util.HashMap}, for large sets of keywords.
+ * <p>
+ * A switch on a string, such as that in {@link SwitchExpressionsExamplesTest#test_caseBlockWithYield()}, is compiled
+ * by javac to a lookupswitch on the string's {@link String#hashCode()}, a binary search of the hash codes of the
+ * cases, followed by a call to {@link String#equals(Object)}, and a second switch on the index of the matched case.
+ * Both it and a HashMap also require the text to be a String, so a tokeniser must create one for each token. This
+ * matcher instead hashes the text, as a {@link CharSequence} or a range of a byte array of ASCII (or Latin-1, or
+ * UTF-8) text, without creating a String, and maps the hash to a slot in a table of exactly as many slots as there
+ * are keywords, with no collisions, so the text is then compared to just one keyword. Lookup costs the same for a
+ * thousand keywords as it does for ten.
+ * <p>
+ * The perfect hash function is generated using the 'hash and displace' technique. The keywords are first hashed into
+ * buckets, of which there are as many as keywords. Then, starting with the largest, a seed is found for each
+ * bucket, which displaces (rehashes) all the bucket's keywords to slots which are not yet occupied. A lookup hashes
+ * the text once, uses the hash to find its bucket and that bucket's seed, and rehashes the hash with the seed to find
+ * the only slot in which the text could be. The hash of the keyword in each slot is stored alongside it, so that text
+ * which isn't a keyword is usually rejected without comparing its chars.
+ * <p>
+ * Instances of this class are immutable, so can be shared between threads.
+ */
+public final class KeywordMatcher {
+
+  // The number of hash seeds tried before giving up, should the keywords have a 64-bit hash collision for each
+  private static final int MAX_HASH_SEEDS = 16;
+  // The number of seeds tried for each bucket before giving up and trying the next hash seed
+  private static final int MAX_BUCKET_SEEDS = 1 << 20;
+  private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long FNV_PRIME = 0x100000001b3L;
+  private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+  private final List<String> keywords;
+  private final long hashSeed;
+  // The seed of each bucket, used to displace its keywords to their slots
+  private final int[] bucketSeeds;
+  // The hash, index and chars of the keyword in each slot. The chars of the keyword in slot i are those from
+  // offsets[i] (inclusive) to offsets[i + 1] (exclusive) of chars.
+  private final long[] hashes;
+  private final int[] indexes;
+  private final int[] offsets;
+  private final byte[] chars;
+
+  private KeywordMatcher(List<String> keywords, long hashSeed, int[] bucketSeeds, int[] slotIndexes,
+    long[] keywordHashes) {
+    this.keywords = keywords;
+    this.hashSeed = hashSeed;
+    this.bucketSeeds = bucketSeeds;
+    final int size = keywords.size();
+    this.hashes = new long[size];
+    this.indexes = slotIndexes;
+    this.offsets = new int[size + 1];
+    for (int slot = 0; slot < size; slot++) {
+      this.hashes[slot] = keywordHashes[slotIndexes[slot]];
+      this.offsets[slot + 1] = this.offsets[slot] + keywords.get(slotIndexes[slot]).length();
+    }
+    this.chars = new byte[this.offsets[size]];
+    for (int slot = 0; slot < size; slot++) {
+      final byte[] keyword = keywords.get(slotIndexes[slot]).getBytes(StandardCharsets.US_ASCII);
+      System.arraycopy(keyword, 0, this.chars, this.offsets[slot], keyword.length);
+    }
+  }
+
+  /**
+   * @see #of(List)
+   */
+  public static KeywordMatcher of(String... keywords) {
+    Objects.requireNonNull(keywords, "keywords must not be null.");
+    return of(Arrays.asList(keywords));
+  }
+
+  /**
+   * Generates a matcher for the supplied keywords. The cost of generating the perfect hash function grows (a little
+   * faster than linearly) with the number of keywords, so a matcher should be created once, and then reused.
+   *
+   * @param keywords The keywords to match. Each must consist only of ASCII chars. Must not be empty, or contain any
+   * duplicates.
+   * @return The matcher.
+   * @throws IllegalArgumentException if the keywords are empty, contain a duplicate, or any non-ASCII chars.
+   * @throws IllegalStateException in the (astronomically unlikely) event that a perfect hash function can't be found.
+   */
+  public static KeywordMatcher of(List<String> keywords) {
+    Objects.requireNonNull(keywords, "keywords must not be null.");
+    if (keywords.isEmpty())
+      throw new IllegalArgumentException("keywords must not be empty.");
+    final List<String> copy = List.copyOf(keywords);
+    final Set<String> unique = new HashSet<>();
+    for (String keyword : copy) {
+      if (!keyword.chars().allMatch(c -> c < 0x80))
+        throw new IllegalArgumentException("keywords must be ASCII, but [" + keyword + "] is not.");
+      if (!unique.add(keyword))
+        throw new IllegalArgumentException("keywords must not contain duplicates, but [" + keyword + "] does.");
+    }
+    for (long hashSeed = 0; hashSeed < MAX_HASH_SEEDS; hashSeed++) {
+      final KeywordMatcher matcher = generate(copy, hashSeed);
+      if (matcher != null)
+        return matcher;
+    }
+    throw new IllegalStateException("Failed to generate a perfect hash function for the keywords.");
+  }
+
+  /** @return The number of keywords. */
+  public int size() {
+    return this.keywords.size();
+  }
+
+  /**
+   * @param index The index of the keyword, in the order in which they were supplied when the matcher was created.
+   * @return The keyword.
+   * @throws IndexOutOfBoundsException if the index is not less than the number of keywords.
+   */
+  public String keyword(int index) {
+    return this.keywords.get(index);
+  }
+
+  /**
+   * @param text The text to match.
+   * @return The index of the keyword which equals the text, or -1 if the text isn't a keyword.
+   */
+  public int indexOf(CharSequence text) {
+    Objects.requireNonNull(text, "text must not be null.");
+    return indexOf(text, 0, text.length());
+  }
+
+  /**
+   * @param text The text containing the chars to match.
+   * @param start The index of the first char to match.
+   * @param end The index after the last char to match.
+   * @return The index of the keyword which equals the chars, or -1 if they aren't a keyword.
+   * @throws IndexOutOfBoundsException if the range is not within the text.
+   */
+  public int indexOf(CharSequence text, int start, int end) {
+    Objects.requireNonNull(text, "text must not be null.");
+    Objects.checkFromToIndex(start, end, text.length());
+    long hash = FNV_OFFSET_BASIS + this.hashSeed;
+    for (int i = start; i < end; i++)
+      hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+    hash = mix(hash);
+    final int slot = slot(hash);
+    if (this.hashes[slot] != hash)
+      return -1;
+    final int from = this.offsets[slot];
+    if (this.offsets[slot + 1] - from != end - start)
+      return -1;
+    for (int i = start; i < end; i++) {
+      if (text.charAt(i) != this.chars[from + i - start])
+        return -1;
+    }
+    return this.indexes[slot];
+  }
+
+  /**
+   * @param bytes The array containing the bytes of ASCII (or Latin-1, or UTF-8) text to match.
+   * @param offset The index of the first byte to match.
+   * @param length The number of bytes to match.
+   * @return The index of the keyword which equals the bytes, or -1 if they aren't a keyword.
+   * @throws IndexOutOfBoundsException if the range is not within the array.
+   */
+  public int indexOf(byte[] bytes, int offset, int length) {
+    Objects.requireNonNull(bytes, "bytes must not be null.");
+    Objects.checkFromIndexSize(offset, length, bytes.length);
+    final int end = offset + length;
+    long hash = FNV_OFFSET_BASIS + this.hashSeed;
+    for (int i = offset; i < end; i++)
+      hash = (hash ^ (bytes[i] & 0xFF)) * FNV_PRIME;
+    hash = mix(hash);
+    final int slot = slot(hash);
+    if (this.hashes[slot] != hash
+      || !Arrays.equals(bytes, offset, end, this.chars, this.offsets[slot], this.offsets[slot + 1]))
+      return -1;
+    return this.indexes[slot];
+  }
+
+  /** @return The only slot in which a keyword with the supplied hash can be. */
+  private int slot(long hash) {
+    return slot(hash, this.bucketSeeds[bucket(hash, this.bucketSeeds.length)], this.indexes.length);
+  }
+
+  /**
+   * Attempts to generate a matcher whose keywords are hashed using the supplied seed.
+   *
+   * @return The matcher, or null if two of the keywords' hashes collide, or a bucket's keywords can't be displaced.
+   */
+  private static KeywordMatcher generate(List<String> keywords, long hashSeed) {
+    final int size = keywords.size();
+    final long[] hashes = new long[size];
+    for (int i = 0; i < size; i++)
+      hashes[i] = hash(keywords.get(i), hashSeed);
+    final long[] sortedHashes = hashes.clone();
+    Arrays.sort(sortedHashes);
+    for (int i = 1; i < size; i++) {
+      if (sortedHashes[i] == sortedHashes[i - 1])
+        return null;
+    }
+
+    // Group the keywords by bucket, as lists of the indexes of their keywords, held in a single array, ordered by
+    // bucket. The keywords of bucket b are those from bucketStarts[b] (inclusive) to bucketStarts[b + 1] (exclusive).
+    final int[] bucketStarts = new int[size + 1];
+    for (long hash : hashes)
+      bucketStarts[bucket(hash, size) + 1]++;
+    for (int bucket = 0; bucket < size; bucket++)
+      bucketStarts[bucket + 1] += bucketStarts[bucket];
+    final int[] bucketKeywords = new int[size];
+    final int[] next = Arrays.copyOf(bucketStarts, size);
+    for (int i = 0; i < size; i++)
+      bucketKeywords[next[bucket(hashes[i], size)]++] = i;
+    final Integer[] bucketsBySize = new Integer[size];
+    Arrays.setAll(bucketsBySize, bucket -> bucket);
+    Arrays.sort(bucketsBySize, (b1, b2) ->
+      Integer.compare(bucketStarts[b2 + 1] - bucketStarts[b2], bucketStarts[b1 + 1] - bucketStarts[b1]));
+
+    // Displace the keywords of each bucket, largest first, while there are the most free slots
+    final int[] bucketSeeds = new int[size];
+    final int[] slotIndexes = new int[size];
+    Arrays.fill(slotIndexes, -1);
+    final int[] slots = new int[size];
+    for (int bucket : bucketsBySize) {
+      final int start = bucketStarts[bucket];
+      final int end = bucketStarts[bucket + 1];
+      if (start == end)
+        break;
+      int seed = 0;
+      while (!tryDisplace(hashes, bucketKeywords, start, end, seed, slotIndexes, slots)) {
+        if (++seed == MAX_BUCKET_SEEDS)
+          return null;
+      }
+      bucketSeeds[bucket] = seed;
+      for (int i = start; i < end; i++)
+        slotIndexes[slots[i - start]] = bucketKeywords[i];
+    }
+    return new KeywordMatcher(keywords, hashSeed, bucketSeeds, slotIndexes, hashes);
+  }
+
+  /**
+   * Computes the slots to which the supplied seed displaces a bucket's keywords, writing them to the supplied array.
+   *
+   * @return true if the slots are distinct, and not yet occupied, otherwise false.
+   */
+  private static boolean tryDisplace(long[] hashes, int[] bucketKeywords, int start, int end, int seed,
+    int[] slotIndexes, int[] slots) {
+    for (int i = start; i < end; i++) {
+      final int slot = slot(hashes[bucketKeywords[i]], seed, slotIndexes.length);
+      if (slotIndexes[slot] != -1)
+        return false;
+      for (int j = 0; j < i - start; j++) {
+        if (slots[j] == slot)
+          return false;
+      }
+      slots[i - start] = slot;
+    }
+    return true;
+  }
+
+  private static long hash(String keyword, long hashSeed) {
+    long hash = FNV_OFFSET_BASIS + hashSeed;
+    for (int i = 0; i < keyword.length(); i++)
+      hash = (hash ^ keyword.charAt(i)) * FNV_PRIME;
+    return mix(hash);
+  }
+
+  /** @return The bucket of a hash, from its high 32 bits, scaled to the number of buckets without a division. */
+  private static int bucket(long hash, int bucketCount) {
+    return (int) (((hash >>> 32) * bucketCount) >>> 32);
+  }
+
+  /** @return The slot to which a hash is displaced by a seed, scaled to the number of slots without a division. */
+  private static int slot(long hash, int seed, int slotCount) {
+    return (int) (((mix(hash ^ (seed * GOLDEN_RATIO)) >>> 32) * slotCount) >>> 32);
+  }
+
+  /** @return The supplied value with its bits mixed (the finalisation step of 64-bit MurmurHash3). */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+}
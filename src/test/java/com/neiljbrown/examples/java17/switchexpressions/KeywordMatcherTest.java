@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2021-present the original author or authors.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.neiljbrown.examples.java17.switchexpressions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link KeywordMatcher}.
+ */
+public class KeywordMatcherTest {
+
+  private static final List<String> NATO_ALPHABET = List.of("alfa", "bravo", "charlie", "delta", "echo", "foxtrot",
+    "golf", "hotel", "india", "juliett", "kilo", "lima", "mike", "november", "oscar", "papa", "quebec", "romeo",
+    "sierra", "tango", "uniform", "victor", "whiskey", "x-ray", "yankee", "zulu");
+
+  /**
+   * Tests matching each keyword, supplied as a String, a range of a CharSequence, and a range of a byte array.
+   */
+  @Test
+  public void test_indexOf() {
+    final KeywordMatcher matcher = KeywordMatcher.of(NATO_ALPHABET);
+
+    assertThat(matcher.size()).isEqualTo(NATO_ALPHABET.size());
+    for (int i = 0; i < NATO_ALPHABET.size(); i++) {
+      final String keyword = NATO_ALPHABET.get(i);
+      final String text = "[" + keyword + "]";
+      final byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+      assertThat(matcher.keyword(i)).isEqualTo(keyword);
+      assertThat(matcher.indexOf(keyword)).as("Keyword [%s]", keyword).isEqualTo(i);
+      assertThat(matcher.indexOf(new StringBuilder(text), 1, text.length() - 1)).isEqualTo(i);
+      assertThat(matcher.indexOf(bytes, 1, bytes.length - 2)).isEqualTo(i);
+    }
+  }
+
+  /**
+   * Tests that text which isn't a keyword, including prefixes of, and extensions to keywords, isn't matched.
+   */
+  @Test
+  public void test_indexOf_notKeyword() {
+    final KeywordMatcher matcher = KeywordMatcher.of(NATO_ALPHABET);
+
+    for (String text : List.of("", "alf", "alfaa", "ALFA", "xray", "alfé", "zulu ")) {
+      final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+      assertThat(matcher.indexOf(text)).as("Text [%s]", text).isEqualTo(-1);
+      assertThat(matcher.indexOf(bytes, 0, bytes.length)).as("Text [%s]", text).isEqualTo(-1);
+    }
+  }
+
+  /**
+   * Tests that a perfect hash function is generated for a large set of keywords, such as those of a tokeniser, and
+   * that each keyword, and only the keywords, are matched.
+   */
+  @Test
+  public void test_indexOf_largeKeywordSet() {
+    final Random random = new Random(42);
+    final List<String> keywords = random.ints(20_000, 0, Integer.MAX_VALUE)
+      .mapToObj(i -> Integer.toString(i, Character.MAX_RADIX))
+      .distinct()
+      .limit(10_000)
+      .collect(Collectors.toList());
+    final KeywordMatcher matcher = KeywordMatcher.of(keywords);
+
+    assertThat(IntStream.range(0, keywords.size()).filter(i -> matcher.indexOf(keywords.get(i)) != i))
+      .isEmpty();
+    assertThat(IntStream.range(0, 10_000).filter(i -> matcher.indexOf(keywords.get(i) + "_") != -1)).isEmpty();
+  }
+
+  /**
+   * Tests that invalid sets of keywords are rejected.
+   */
+  @Test
+  public void test_of_invalidKeywords() {
+    assertThat(catchThrowable(KeywordMatcher::of))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("keywords must not be empty.");
+    assertThat(catchThrowable(() -> KeywordMatcher.of("alfa", "bravo", "alfa")))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("keywords must not contain duplicates, but [alfa] does.");
+    assertThat(catchThrowable(() -> KeywordMatcher.of("alfa", "café")))
+      .isInstanceOf(IllegalArgumentException.class)
+      .hasMessage("keywords must be ASCII, but [café] is not.");
+  }
+
+  /**
+   * Tests that a range which isn't within the text is rejected.
+   */
+  @Test
+  public void test_indexOf_invalidRange() {
+    final KeywordMatcher matcher = KeywordMatcher.of(NATO_ALPHABET);
+
+    assertThat(catchThrowable(() -> matcher.indexOf("alfa", 1, 5))).isInstanceOf(IndexOutOfBoundsException.class);
+    assertThat(catchThrowable(() -> matcher.indexOf(new byte[4], 2, 3))).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+}